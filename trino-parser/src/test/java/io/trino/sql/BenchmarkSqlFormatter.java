@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql;
+
+import io.trino.sql.SqlFormatter.Dialect;
+import io.trino.sql.parser.ParsingOptions;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.Statement;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static io.trino.sql.ExpressionFormatter.formatExpression;
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.trino.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DOUBLE;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Format the queries of {@link SqlCorpus} in every {@link Dialect}. Run the main method to report the allocation as well.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BenchmarkSqlFormatter
+{
+    private static final SqlParser SQL_PARSER = new SqlParser();
+    private static final ParsingOptions PARSING_OPTIONS = new ParsingOptions(AS_DOUBLE);
+
+    @Param
+    private SqlCorpus corpus = SqlCorpus.WIDE_SELECT;
+
+    @Param
+    private Dialect dialect = Dialect.DEFAULT;
+
+    private Statement statement;
+    private Expression expression;
+
+    @Setup
+    public void setup()
+    {
+        statement = SQL_PARSER.createStatement(corpus.statement(), PARSING_OPTIONS);
+        expression = SQL_PARSER.createExpression(corpus.expression(), PARSING_OPTIONS);
+    }
+
+    @Benchmark
+    public String formatStatement()
+    {
+        return formatSql(statement, dialect);
+    }
+
+    @Benchmark
+    public String formatStandaloneExpression()
+    {
+        return formatExpression(expression, dialect);
+    }
+
+    @Test
+    public void verify()
+    {
+        for (SqlCorpus corpus : SqlCorpus.values()) {
+            for (Dialect dialect : Dialect.values()) {
+                BenchmarkSqlFormatter benchmark = new BenchmarkSqlFormatter();
+                benchmark.corpus = corpus;
+                benchmark.dialect = dialect;
+                benchmark.setup();
+                assertThat(benchmark.formatStatement()).isNotBlank();
+                assertThat(benchmark.formatStandaloneExpression()).isNotBlank();
+                if (dialect == Dialect.DEFAULT) {
+                    assertThat(SQL_PARSER.createStatement(benchmark.formatStatement(), PARSING_OPTIONS)).isEqualTo(benchmark.statement);
+                    assertThat(SQL_PARSER.createExpression(benchmark.formatStandaloneExpression(), PARSING_OPTIONS)).isEqualTo(benchmark.expression);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkSqlFormatter.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
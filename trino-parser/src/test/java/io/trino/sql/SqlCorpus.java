@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql;
+
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * The analytics queries of the parser and formatter benchmarks. Every query has a WHERE clause, which is also used as
+ * the standalone expression of the query.
+ */
+public enum SqlCorpus
+{
+    WIDE_SELECT {
+        @Override
+        public String expression()
+        {
+            return "c0 > 0 AND c1 IS NOT NULL";
+        }
+
+        @Override
+        public String statement()
+        {
+            return format("SELECT %s FROM orders WHERE %s",
+                    list(1000, i -> format("CAST(c%s AS DOUBLE) * 2 AS d%s", i, i)),
+                    expression());
+        }
+    },
+    DEEP_CTE {
+        @Override
+        public String expression()
+        {
+            return "c0 > 0";
+        }
+
+        @Override
+        public String statement()
+        {
+            return format("WITH t0 AS (SELECT c0, c1 FROM orders), %s SELECT * FROM t200 WHERE %s",
+                    list(200, i -> format("t%s AS (SELECT c0 + 1 AS c0, c1 FROM t%s WHERE c1 <> %s)", i + 1, i, i)),
+                    expression());
+        }
+    },
+    LARGE_IN_LIST {
+        @Override
+        public String expression()
+        {
+            return format("c0 IN (%s)", list(10_000, String::valueOf));
+        }
+
+        @Override
+        public String statement()
+        {
+            return format("SELECT c0, c1 FROM orders WHERE %s", expression());
+        }
+    },
+    LONG_OR_CHAIN {
+        @Override
+        public String expression()
+        {
+            return IntStream.range(0, 1000)
+                    .mapToObj(i -> format("(c0 = %s AND c1 = 'v%s')", i, i))
+                    .collect(joining(" OR "));
+        }
+
+        @Override
+        public String statement()
+        {
+            return format("SELECT c0, c1 FROM orders WHERE %s", expression());
+        }
+    },
+    WINDOW_FUNCTIONS {
+        @Override
+        public String expression()
+        {
+            return "c0 > 0 AND c1 IS NOT NULL";
+        }
+
+        @Override
+        public String statement()
+        {
+            return format("SELECT %s FROM orders WHERE %s",
+                    list(100, i -> format("sum(c%s) OVER (PARTITION BY c0, c1 ORDER BY c2 DESC ROWS BETWEEN %s PRECEDING AND CURRENT ROW) AS w%s, " +
+                            "rank() OVER (PARTITION BY c%s ORDER BY c1) AS r%s", i, i + 1, i, i, i)),
+                    expression());
+        }
+    };
+
+    public abstract String statement();
+
+    public abstract String expression();
+
+    private static String list(int size, IntFunction<String> element)
+    {
+        return IntStream.range(0, size)
+                .mapToObj(element)
+                .collect(joining(", "));
+    }
+}
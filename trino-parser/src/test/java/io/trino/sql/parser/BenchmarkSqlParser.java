@@ -0,0 +1,197 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.sql.parser;
+
+import io.trino.sql.SqlCorpus;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.Statement;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.function.BiConsumer;
+
+import static io.trino.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DOUBLE;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Parse the queries of {@link SqlCorpus}. The parser tries the SLL prediction mode first, and parses again in the LL
+ * mode if SLL fails. The strategy param compares it with parsing in the LL mode only, and the main method reports
+ * which queries fall back to LL before running the benchmarks with the allocation.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BenchmarkSqlParser
+{
+    private static final ParsingOptions PARSING_OPTIONS = new ParsingOptions(AS_DOUBLE);
+
+    @Param
+    private SqlCorpus corpus = SqlCorpus.WIDE_SELECT;
+
+    @Param
+    private Strategy strategy = Strategy.SLL_THEN_LL;
+
+    private SqlParser sqlParser;
+    private PredictionModeCounter counter;
+    private String statement;
+    private String expression;
+
+    public enum Strategy
+    {
+        SLL_THEN_LL,
+        LL
+    }
+
+    @Setup
+    public void setup()
+    {
+        counter = new PredictionModeCounter(strategy == Strategy.LL);
+        sqlParser = new SqlParser(counter);
+        statement = corpus.statement();
+        expression = corpus.expression();
+    }
+
+    @Benchmark
+    public Statement createStatement()
+    {
+        return sqlParser.createStatement(statement, PARSING_OPTIONS);
+    }
+
+    @Benchmark
+    public Expression createExpression()
+    {
+        return sqlParser.createExpression(expression, PARSING_OPTIONS);
+    }
+
+    /**
+     * Count the parses and the fallbacks to the LL mode by the interpreter of the parser, which shares the DFA cache of
+     * the default one. If LL is forced, the SLL mode set by the parser is overridden before every prediction.
+     */
+    private static class PredictionModeCounter
+            implements BiConsumer<SqlBaseLexer, SqlBaseParser>
+    {
+        private final boolean forceLL;
+        private long parses;
+        private long fallbacks;
+
+        private PredictionModeCounter(boolean forceLL)
+        {
+            this.forceLL = forceLL;
+        }
+
+        @Override
+        public void accept(SqlBaseLexer lexer, SqlBaseParser parser)
+        {
+            parses++;
+            ParserATNSimulator interpreter = parser.getInterpreter();
+            parser.setInterpreter(new ParserATNSimulator(parser, parser.getATN(), interpreter.decisionToDFA, interpreter.getSharedContextCache())
+            {
+                private boolean fallback;
+
+                @Override
+                public int adaptivePredict(TokenStream input, int decision, ParserRuleContext outerContext)
+                {
+                    if (forceLL) {
+                        setPredictionMode(PredictionMode.LL);
+                    }
+                    else if (!fallback && getPredictionMode() == PredictionMode.LL) {
+                        fallback = true;
+                        fallbacks++;
+                    }
+                    return super.adaptivePredict(input, decision, outerContext);
+                }
+            });
+        }
+    }
+
+    @Test
+    public void verify()
+    {
+        for (SqlCorpus corpus : SqlCorpus.values()) {
+            for (Strategy strategy : Strategy.values()) {
+                BenchmarkSqlParser benchmark = new BenchmarkSqlParser();
+                benchmark.corpus = corpus;
+                benchmark.strategy = strategy;
+                benchmark.setup();
+                assertThat(benchmark.createStatement()).isEqualTo(benchmark.createStatement());
+                assertThat(benchmark.createExpression()).isNotNull();
+                assertThat(benchmark.counter.parses).isEqualTo(3);
+                assertThat(benchmark.counter.fallbacks).isZero();
+            }
+        }
+
+        // a syntax error in the SLL mode is thrown by the error handler instead of falling back to the LL mode
+        PredictionModeCounter counter = new PredictionModeCounter(false);
+        assertThatThrownBy(() -> new SqlParser(counter).createStatement("SELECT FROM WHERE", PARSING_OPTIONS))
+                .isInstanceOf(ParsingException.class);
+        assertThat(counter.parses).isEqualTo(1);
+        assertThat(counter.fallbacks).isZero();
+    }
+
+    /**
+     * Report the rate of the parses of every query, statement and expression, which fall back to the LL mode.
+     */
+    private static void reportFallbacks()
+    {
+        System.out.println("corpus            statement  expression");
+        for (SqlCorpus corpus : SqlCorpus.values()) {
+            PredictionModeCounter statements = new PredictionModeCounter(false);
+            new SqlParser(statements).createStatement(corpus.statement(), PARSING_OPTIONS);
+            PredictionModeCounter expressions = new PredictionModeCounter(false);
+            new SqlParser(expressions).createExpression(corpus.expression(), PARSING_OPTIONS);
+            System.out.println(format("%-16s %10s %11s", corpus, fallbackRate(statements), fallbackRate(expressions)));
+        }
+    }
+
+    private static String fallbackRate(PredictionModeCounter counter)
+    {
+        return format("%d/%d LL", counter.fallbacks, counter.parses);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        reportFallbacks();
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkSqlParser.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -14,23 +14,54 @@
 
 package io.wren.base;
 
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.wren.base.dto.CumulativeMetric;
+import io.wren.base.dto.Relationable;
+import io.wren.base.dto.View;
+import io.wren.base.sqlrewrite.CumulativeMetricInfo;
+import io.wren.base.sqlrewrite.DateSpineInfo;
+import io.wren.base.sqlrewrite.DependencyGraph;
+import io.wren.base.sqlrewrite.RelationInfo;
+import io.wren.base.sqlrewrite.ViewInfo;
 import io.wren.base.sqlrewrite.WrenDataLineage;
 
 import javax.annotation.Nullable;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static java.util.Objects.requireNonNull;
 
 public class AnalyzedMDL
 {
+    // the infos are keyed by the required fields and the session as well, so they're bounded for a long-lived mdl
+    private static final int MAX_CACHED_INFOS = 10_000;
+
     private final WrenMDL wrenMDL;
     private final WrenDataLineage wrenDataLineage;
     private final String version;
+    private final Cache<ViewKey, ViewInfo> viewInfos = newInfoCache();
+    private final Cache<RelationKey, RelationInfo> relationInfos = newInfoCache();
+    private final Cache<String, CumulativeMetricInfo> cumulativeMetricInfos = newInfoCache();
+    private final Supplier<DateSpineInfo> dateSpineInfo;
+    private final DependencyGraph dependencyGraph = new DependencyGraph(this);
 
     public AnalyzedMDL(WrenMDL wrenMDL, @Nullable String version)
     {
         this.wrenMDL = requireNonNull(wrenMDL);
         this.wrenDataLineage = WrenDataLineage.analyze(wrenMDL);
         this.version = version;
+        this.dateSpineInfo = Suppliers.memoize(() -> DateSpineInfo.get(wrenMDL.getDateSpine()));
     }
 
     public AnalyzedMDL(WrenMDL wrenMDL, WrenDataLineage wrenDataLineage, @Nullable String version)
@@ -38,6 +69,84 @@ public class AnalyzedMDL
         this.wrenMDL = requireNonNull(wrenMDL);
         this.wrenDataLineage = requireNonNull(wrenDataLineage);
         this.version = version;
+        this.dateSpineInfo = Suppliers.memoize(() -> DateSpineInfo.get(wrenMDL.getDateSpine()));
+    }
+
+    /**
+     * Analyze the new mdl incrementally. The lineage, the rendered sql and the dependencies of an object analyzed for the
+     * previous mdl are reused unless the object or any object it depends on, directly or transitively, is changed.
+     */
+    public AnalyzedMDL(WrenMDL wrenMDL, AnalyzedMDL previous, @Nullable String version)
+    {
+        this.wrenMDL = requireNonNull(wrenMDL);
+        requireNonNull(previous, "previous is null");
+        this.wrenDataLineage = WrenDataLineage.analyze(wrenMDL, previous.wrenDataLineage);
+        this.version = version;
+        WrenMDL previousMDL = previous.wrenMDL;
+        // the memoized info isn't shared, since its supplier keeps the previous mdl reachable
+        this.dateSpineInfo = Suppliers.memoize(() -> DateSpineInfo.get(wrenMDL.getDateSpine()));
+        // the sql is rendered and analyzed against the catalog, the schema and the enums of the mdl
+        if (wrenMDL.getCatalog().equals(previousMDL.getCatalog())
+                && wrenMDL.getSchema().equals(previousMDL.getSchema())
+                && wrenMDL.listEnums().equals(previousMDL.listEnums())) {
+            reuse(previous);
+        }
+    }
+
+    private void reuse(AnalyzedMDL previous)
+    {
+        Set<String> changedObjects = wrenMDL.getChangedObjects(previous.wrenMDL);
+        if (!wrenMDL.getDateSpine().equals(previous.wrenMDL.getDateSpine())) {
+            changedObjects.add(DateSpineInfo.NAME);
+        }
+        Set<String> affectedObjects = previous.getAffectedObjects(changedObjects);
+        // a view could refer to the name of an added object, which was resolved to something else before
+        boolean objectAdded = changedObjects.stream().anyMatch(name -> !previous.wrenMDL.isObjectExist(name) && wrenMDL.isObjectExist(name));
+        previous.relationInfos.asMap().forEach((key, info) -> {
+            if (!affectedObjects.contains(key.name())) {
+                relationInfos.put(key, info);
+            }
+        });
+        previous.cumulativeMetricInfos.asMap().forEach((name, info) -> {
+            if (!affectedObjects.contains(name)) {
+                cumulativeMetricInfos.put(name, info);
+            }
+        });
+        if (!objectAdded) {
+            previous.viewInfos.asMap().forEach((key, info) -> {
+                if (!affectedObjects.contains(key.name())) {
+                    viewInfos.put(key, info);
+                }
+            });
+        }
+        dependencyGraph.reuse(previous.dependencyGraph, name -> !affectedObjects.contains(name) && (!objectAdded || wrenMDL.getView(name).isEmpty()));
+    }
+
+    /**
+     * @return the changed objects and the analyzed objects downstream of them. An object which depends on an object
+     * that isn't analyzed yet is treated as affected, since what it depends on transitively is unknown.
+     */
+    private Set<String> getAffectedObjects(Set<String> changedObjects)
+    {
+        Map<String, Set<String>> requiredObjects = new HashMap<>();
+        relationInfos.asMap().forEach((key, info) -> requiredObjects.computeIfAbsent(key.name(), ignored -> new HashSet<>()).addAll(info.getRequiredObjects()));
+        cumulativeMetricInfos.asMap().forEach((name, info) -> requiredObjects.computeIfAbsent(name, ignored -> new HashSet<>()).addAll(info.getRequiredObjects()));
+        viewInfos.asMap().forEach((key, info) -> requiredObjects.computeIfAbsent(key.name(), ignored -> new HashSet<>()).addAll(info.getRequiredObjects()));
+        requiredObjects.putIfAbsent(DateSpineInfo.NAME, Set.of());
+
+        Set<String> affectedObjects = new HashSet<>(changedObjects);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<String, Set<String>> entry : requiredObjects.entrySet()) {
+                if (!affectedObjects.contains(entry.getKey())
+                        && entry.getValue().stream().anyMatch(name -> affectedObjects.contains(name) || !requiredObjects.containsKey(name))) {
+                    affectedObjects.add(entry.getKey());
+                    changed = true;
+                }
+            }
+        }
+        return affectedObjects;
     }
 
     public WrenMDL getWrenMDL()
@@ -55,4 +164,67 @@ public class AnalyzedMDL
     {
         return version;
     }
+
+    /**
+     * The view is analyzed once for each catalog and schema of the session since the mdl never changes.
+     */
+    public ViewInfo getViewInfo(View view, SessionContext sessionContext)
+    {
+        return get(
+                viewInfos,
+                new ViewKey(view.getName(), sessionContext.getCatalog(), sessionContext.getSchema()),
+                () -> ViewInfo.analyze(view, this, sessionContext));
+    }
+
+    /**
+     * The sql of the model or metric is rendered and parsed once for each set of required fields.
+     *
+     * @param requiredFields the required fields of the relationable, or empty if all fields are required.
+     */
+    public RelationInfo getRelationInfo(Relationable relationable, Optional<Set<String>> requiredFields)
+    {
+        return get(
+                relationInfos,
+                new RelationKey(relationable.getName(), requiredFields.map(Set::copyOf)),
+                () -> requiredFields
+                        .map(fields -> RelationInfo.get(relationable, wrenMDL, fields))
+                        .orElseGet(() -> RelationInfo.get(relationable, wrenMDL)));
+    }
+
+    public CumulativeMetricInfo getCumulativeMetricInfo(CumulativeMetric cumulativeMetric)
+    {
+        return get(cumulativeMetricInfos, cumulativeMetric.getName(), () -> CumulativeMetricInfo.get(cumulativeMetric, wrenMDL));
+    }
+
+    public DateSpineInfo getDateSpineInfo()
+    {
+        return dateSpineInfo.get();
+    }
+
+    public DependencyGraph getDependencyGraph()
+    {
+        return dependencyGraph;
+    }
+
+    private static <K, V> Cache<K, V> newInfoCache()
+    {
+        return CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHED_INFOS)
+                .build();
+    }
+
+    private static <K, V> V get(Cache<K, V> cache, K key, Supplier<V> loader)
+    {
+        try {
+            return cache.get(key, loader::get);
+        }
+        catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private record ViewKey(String name, Optional<String> catalog, Optional<String> schema) {}
+
+    private record RelationKey(String name, Optional<Set<String>> requiredFields) {}
 }
@@ -26,12 +26,14 @@ public final class SessionContext
     private final String catalog;
     private final String schema;
     private final boolean enableDynamicField;
+    private final boolean enableAstRuleChaining;
 
-    private SessionContext(String catalog, String schema, boolean enableDynamicField)
+    private SessionContext(String catalog, String schema, boolean enableDynamicField, boolean enableAstRuleChaining)
     {
         this.catalog = catalog;
         this.schema = schema;
         this.enableDynamicField = enableDynamicField;
+        this.enableAstRuleChaining = enableAstRuleChaining;
     }
 
     public Optional<String> getCatalog()
@@ -49,11 +51,17 @@ public final class SessionContext
         return enableDynamicField;
     }
 
+    public boolean isEnableAstRuleChaining()
+    {
+        return enableAstRuleChaining;
+    }
+
     public static class Builder
     {
         private String catalog;
         private String schema;
         private boolean enableDynamic;
+        private boolean enableAstRuleChaining;
 
         public Builder setCatalog(String catalog)
         {
@@ -73,9 +81,15 @@ public final class SessionContext
             return this;
         }
 
+        public Builder setEnableAstRuleChaining(boolean enableAstRuleChaining)
+        {
+            this.enableAstRuleChaining = enableAstRuleChaining;
+            return this;
+        }
+
         public SessionContext build()
         {
-            return new SessionContext(catalog, schema, enableDynamic);
+            return new SessionContext(catalog, schema, enableDynamic, enableAstRuleChaining);
         }
     }
 }
@@ -18,9 +18,11 @@ import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.Objects;
 
+import static com.google.common.hash.Hashing.farmHashFingerprint64;
 import static java.lang.Character.MAX_RADIX;
 import static java.lang.Math.abs;
 import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class Utils
 {
@@ -48,6 +50,14 @@ public class Utils
         return randomSuffix.substring(0, min(RANDOM_SUFFIX_LENGTH, randomSuffix.length()));
     }
 
+    /**
+     * @return a stable hash of the sql, which identifies a query in the logs and the recorded events without the sql itself.
+     */
+    public static String sqlHash(String sql)
+    {
+        return farmHashFingerprint64().hashString(sql, UTF_8).toString();
+    }
+
     public static <T> T firstNonNull(T... objects)
     {
         return Arrays.stream(objects).filter(Objects::nonNull).findFirst().orElse(null);
@@ -16,7 +16,11 @@ package io.wren.base;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.hubspot.jinjava.Jinjava;
 import io.wren.base.dto.CacheInfo;
 import io.wren.base.dto.Column;
@@ -24,24 +28,45 @@ import io.wren.base.dto.CumulativeMetric;
 import io.wren.base.dto.DateSpine;
 import io.wren.base.dto.EnumDefinition;
 import io.wren.base.dto.Manifest;
+import io.wren.base.dto.ManifestDelta;
 import io.wren.base.dto.Metric;
 import io.wren.base.dto.Model;
 import io.wren.base.dto.Relationable;
 import io.wren.base.dto.Relationship;
 import io.wren.base.dto.View;
+import io.wren.base.jinjava.CompiledMacros;
 import io.wren.base.jinjava.JinjavaExpressionProcessor;
 import io.wren.base.jinjava.JinjavaUtils;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static com.fasterxml.jackson.dataformat.smile.SmileConstants.HEADER_BYTE_1;
+import static com.fasterxml.jackson.dataformat.smile.SmileConstants.HEADER_BYTE_2;
+import static com.fasterxml.jackson.dataformat.smile.SmileConstants.HEADER_BYTE_3;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.wren.base.macro.Parameter.TYPE.MACRO;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static java.util.function.UnaryOperator.identity;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
@@ -50,83 +75,231 @@ public class WrenMDL
 {
     public static final WrenMDL EMPTY = WrenMDL.fromManifest(Manifest.builder().setCatalog("default").setSchema("default").build());
     private static final ObjectMapper MAPPER = new ObjectMapper().disable(FAIL_ON_UNKNOWN_PROPERTIES);
+    private static final ObjectReader MANIFEST_READER = MAPPER.readerFor(Manifest.class);
+    private static final ObjectReader MANIFEST_SMILE_READER = new ObjectMapper(new SmileFactory()).disable(FAIL_ON_UNKNOWN_PROPERTIES).readerFor(Manifest.class);
+    private static final byte[] SMILE_HEADER = {HEADER_BYTE_1, HEADER_BYTE_2, HEADER_BYTE_3};
     private static final Jinjava JINJAVA = new Jinjava();
 
     private final String catalog;
     private final String schema;
+    // the manifest before the macros are expanded, which a delta is applied to. It's the same instance as the rendered
+    // manifest if no expression is changed by rendering.
+    private final Manifest original;
     private final Manifest manifest;
     private final Map<String, Model> models;
     private final Map<String, Metric> metrics;
     private final Map<String, CumulativeMetric> cumulativeMetrics;
     private final Map<String, Relationship> relationships;
+    private final Map<String, View> views;
+    private final Map<String, EnumDefinition> enums;
+    private final Map<String, CacheInfo> cacheInfos;
+    // key: the name of the model or metric, value: its columns by name
+    private final Map<String, Map<String, Column>> columns;
+    private final Map<String, ObjectKind> objectKinds;
 
     public static WrenMDL fromJson(String manifest)
             throws JsonProcessingException
     {
-        return new WrenMDL(MAPPER.readValue(manifest, Manifest.class));
+        return fromJson(manifest, directExecutor());
+    }
+
+    public static WrenMDL fromJson(String manifest, Executor executor)
+            throws JsonProcessingException
+    {
+        return new WrenMDL(MANIFEST_READER.readValue(manifest), executor);
+    }
+
+    /**
+     * Parse the manifest json from the stream without reading the whole json into memory first.
+     */
+    public static WrenMDL fromJson(InputStream manifest, Executor executor)
+            throws IOException
+    {
+        return new WrenMDL(MANIFEST_READER.readValue(manifest), executor);
+    }
+
+    /**
+     * Parse the manifest from the stream in Smile, the binary form of json, if it starts with the Smile header.
+     * Otherwise, it's parsed as json.
+     */
+    public static WrenMDL fromJsonOrSmile(InputStream manifest, Executor executor)
+            throws IOException
+    {
+        InputStream input = manifest.markSupported() ? manifest : new BufferedInputStream(manifest);
+        input.mark(SMILE_HEADER.length);
+        byte[] header = input.readNBytes(SMILE_HEADER.length);
+        input.reset();
+        ObjectReader reader = Arrays.equals(header, SMILE_HEADER) ? MANIFEST_SMILE_READER : MANIFEST_READER;
+        return new WrenMDL(reader.readValue(input), executor);
     }
 
     public static WrenMDL fromManifest(Manifest manifest)
     {
-        return new WrenMDL(manifest);
+        return fromManifest(manifest, directExecutor());
+    }
+
+    /**
+     * Build the mdl with the models and metrics rendered in parallel by the given executor.
+     * The result is the same as building it sequentially.
+     */
+    public static WrenMDL fromManifest(Manifest manifest, Executor executor)
+    {
+        return new WrenMDL(manifest, executor);
+    }
+
+    /**
+     * Build the mdl of the manifest with the delta applied. The rendered models and metrics which aren't changed by the
+     * delta are reused unless the macros are changed.
+     */
+    public WrenMDL withDelta(ManifestDelta delta, Executor executor)
+    {
+        return new WrenMDL(delta.apply(original), executor, Optional.of(this));
     }
 
-    private WrenMDL(Manifest manifest)
+    private WrenMDL(Manifest manifest, Executor executor)
+    {
+        this(manifest, executor, Optional.empty());
+    }
+
+    private WrenMDL(Manifest manifest, Executor executor, Optional<WrenMDL> previous)
     {
         requireNonNull(manifest, "manifest is null");
-        this.manifest = renderManifest(manifest);
+        requireNonNull(executor, "executor is null");
+        this.original = manifest;
+        this.manifest = renderManifest(manifest, executor, previous.filter(mdl -> mdl.original.getMacros().equals(manifest.getMacros())));
         this.catalog = manifest.getCatalog();
         this.schema = manifest.getSchema();
         this.models = listModels().stream().collect(toImmutableMap(Model::getName, identity()));
         this.metrics = listMetrics().stream().collect(toImmutableMap(Metric::getName, identity()));
         this.cumulativeMetrics = listCumulativeMetrics().stream().collect(toImmutableMap(CumulativeMetric::getName, identity()));
         this.relationships = listRelationships().stream().collect(toImmutableMap(Relationship::getName, identity()));
+        // the first one wins if the names are duplicate, which is the same as finding them in the list
+        this.views = indexByName(listViews().stream(), View::getName);
+        this.enums = indexByName(listEnums().stream(), EnumDefinition::getName);
+        this.cacheInfos = indexByName(listCached().stream(), CacheInfo::getName);
+        this.columns = ImmutableMap.<String, Map<String, Column>>builder()
+                .putAll(Maps.transformValues(metrics, metric -> indexByName(metric.getColumns().stream(), Column::getName)))
+                // the model wins if there is a metric with the same name
+                .putAll(Maps.transformValues(models, model -> indexByName(model.getColumns().stream(), Column::getName)))
+                .buildKeepingLast();
+        this.objectKinds = collectObjectKinds();
+    }
+
+    private static <T> Map<String, T> indexByName(Stream<T> objects, Function<T, String> name)
+    {
+        Map<String, T> index = new HashMap<>();
+        objects.forEach(object -> index.putIfAbsent(name.apply(object), object));
+        return ImmutableMap.copyOf(index);
+    }
+
+    private Map<String, ObjectKind> collectObjectKinds()
+    {
+        // a name belongs to the first kind in the order of model, metric, cumulative metric and view
+        Map<String, ObjectKind> objectKinds = new HashMap<>();
+        models.keySet().forEach(name -> objectKinds.putIfAbsent(name, ObjectKind.MODEL));
+        metrics.keySet().forEach(name -> objectKinds.putIfAbsent(name, ObjectKind.METRIC));
+        cumulativeMetrics.keySet().forEach(name -> objectKinds.putIfAbsent(name, ObjectKind.CUMULATIVE_METRIC));
+        views.keySet().forEach(name -> objectKinds.putIfAbsent(name, ObjectKind.VIEW));
+        return ImmutableMap.copyOf(objectKinds);
     }
 
-    private Manifest renderManifest(Manifest original)
+    private Manifest renderManifest(Manifest original, Executor executor, Optional<WrenMDL> previous)
     {
         String macroTags = original.getMacros().stream()
                 .filter(macro -> macro.getParameters().stream().noneMatch(parameter -> parameter.getType() == MACRO))
                 .map(JinjavaUtils::getMacroTag).collect(joining("\n"));
-        List<Model> renderedModels = original.getModels().stream().map(model -> {
-            List<io.wren.base.dto.Column> processed = model.getColumns().stream().map(column -> renderExpression(column, macroTags, original)).collect(toList());
-            return new Model(
-                    model.getName(),
-                    model.getRefSql(),
-                    model.getBaseObject(),
-                    model.getTableReference(),
-                    processed,
-                    model.getPrimaryKey(),
-                    model.isCached(),
-                    model.getRefreshTime(),
-                    model.getProperties());
+        CompiledMacros compiledMacros = CompiledMacros.compile(original.getMacros());
+        // the columns of each model or metric are rendered in a task, and the results are collected in the original order
+        Map<String, Model> previousModels = previous.map(mdl -> indexByName(mdl.original.getModels().stream(), Model::getName)).orElseGet(ImmutableMap::of);
+        List<CompletableFuture<Model>> renderedModels = original.getModels().stream().map(model -> {
+            if (model.equals(previousModels.get(model.getName()))) {
+                return completedFuture(previous.get().models.get(model.getName()));
+            }
+            return supplyAsync(() -> {
+                List<io.wren.base.dto.Column> processed = model.getColumns().stream().map(column -> renderExpression(column, compiledMacros, macroTags, original)).collect(toList());
+                if (sameElements(processed, model.getColumns())) {
+                    return model;
+                }
+                return new Model(
+                        model.getName(),
+                        model.getRefSql(),
+                        model.getBaseObject(),
+                        model.getTableReference(),
+                        processed,
+                        model.getPrimaryKey(),
+                        model.isCached(),
+                        model.getRefreshTime(),
+                        model.getProperties());
+            }, executor);
         }).collect(toList());
 
-        List<Metric> renderedMetrics = original.getMetrics().stream().map(metric ->
-                new Metric(metric.getName(),
+        Map<String, Metric> previousMetrics = previous.map(mdl -> indexByName(mdl.original.getMetrics().stream(), Metric::getName)).orElseGet(ImmutableMap::of);
+        List<CompletableFuture<Metric>> renderedMetrics = original.getMetrics().stream().map(metric -> {
+            if (metric.equals(previousMetrics.get(metric.getName()))) {
+                return completedFuture(previous.get().metrics.get(metric.getName()));
+            }
+            return supplyAsync(() -> {
+                List<io.wren.base.dto.Column> dimension = metric.getDimension().stream().map(column -> renderExpression(column, compiledMacros, macroTags, original)).collect(toList());
+                List<io.wren.base.dto.Column> measure = metric.getMeasure().stream().map(column -> renderExpression(column, compiledMacros, macroTags, original)).collect(toList());
+                if (sameElements(dimension, metric.getDimension()) && sameElements(measure, metric.getMeasure())) {
+                    return metric;
+                }
+                return new Metric(metric.getName(),
                         metric.getBaseObject(),
-                        metric.getDimension().stream().map(column -> renderExpression(column, macroTags, original)).collect(toList()),
-                        metric.getMeasure().stream().map(column -> renderExpression(column, macroTags, original)).collect(toList()),
+                        dimension,
+                        measure,
                         metric.getTimeGrain(),
                         metric.isCached(),
                         metric.getRefreshTime(),
-                        metric.getProperties())
-        ).collect(toList());
+                        metric.getProperties());
+            }, executor);
+        }).collect(toList());
 
+        List<Model> models = getAll(renderedModels);
+        List<Metric> metrics = getAll(renderedMetrics);
+        // share the manifest rather than keeping an equal copy of it
+        if (sameElements(models, original.getModels()) && sameElements(metrics, original.getMetrics())) {
+            return original;
+        }
         return Manifest.builder(original)
-                .setModels(renderedModels)
-                .setMetrics(renderedMetrics)
+                .setModels(models)
+                .setMetrics(metrics)
                 .build();
     }
 
-    private io.wren.base.dto.Column renderExpression(io.wren.base.dto.Column original, String macroTags, Manifest unProcessedManifest)
+    private static <T> boolean sameElements(List<T> rendered, List<T> original)
+    {
+        for (int i = 0; i < rendered.size(); i++) {
+            if (rendered.get(i) != original.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> List<T> getAll(List<CompletableFuture<T>> futures)
+    {
+        try {
+            return futures.stream().map(CompletableFuture::join).collect(toList());
+        }
+        catch (CompletionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private io.wren.base.dto.Column renderExpression(io.wren.base.dto.Column original, CompiledMacros compiledMacros, String macroTags, Manifest unProcessedManifest)
     {
         if (original.getExpression().isEmpty()) {
             return original;
         }
 
-        String withTag = macroTags + JinjavaExpressionProcessor.process(original.getSqlExpression(), unProcessedManifest.getMacros());
-        String expression = JINJAVA.render(withTag, ImmutableMap.of());
+        String processed = JinjavaExpressionProcessor.process(original.getSqlExpression(), unProcessedManifest.getMacros());
+        String expression = compiledMacros.render(processed)
+                .orElseGet(() -> JINJAVA.render(macroTags + processed, ImmutableMap.of()));
+        if (expression.equals(original.getExpression().get())) {
+            return original;
+        }
         return new io.wren.base.dto.Column(original.getName(),
                 original.getType(),
                 original.getRelationship().orElse(null),
@@ -136,6 +309,14 @@ public class WrenMDL
                 original.getProperties());
     }
 
+    /**
+     * @return true if rendering changed the manifest, so the manifest before rendering is kept as well.
+     */
+    public boolean isRendered()
+    {
+        return manifest != original;
+    }
+
     public String getCatalog()
     {
         return catalog;
@@ -178,9 +359,7 @@ public class WrenMDL
 
     public Optional<EnumDefinition> getEnum(String name)
     {
-        return manifest.getEnumDefinitions().stream()
-                .filter(enumField -> enumField.getName().equals(name))
-                .findAny();
+        return Optional.ofNullable(enums.get(name));
     }
 
     public List<Metric> listMetrics()
@@ -198,9 +377,7 @@ public class WrenMDL
     public Optional<CacheInfo> getCacheInfo(CatalogSchemaTableName name)
     {
         if (catalog.equals(name.getCatalogName()) && schema.equals(name.getSchemaTableName().getSchemaName())) {
-            return listCached().stream()
-                    .filter(cacheInfo -> cacheInfo.getName().equals(name.getSchemaTableName().getTableName()))
-                    .findAny();
+            return Optional.ofNullable(cacheInfos.get(name.getSchemaTableName().getTableName()));
         }
         return Optional.empty();
     }
@@ -238,9 +415,7 @@ public class WrenMDL
 
     public Optional<View> getView(String name)
     {
-        return manifest.getViews().stream()
-                .filter(view -> view.getName().equals(name))
-                .findAny();
+        return Optional.ofNullable(views.get(name));
     }
 
     public Optional<View> getView(CatalogSchemaTableName name)
@@ -271,34 +446,37 @@ public class WrenMDL
                 .findAny();
     }
 
+    /**
+     * @return the column of the model or metric.
+     */
+    public Optional<Column> getColumn(String objectName, String columnName)
+    {
+        return Optional.ofNullable(columns.get(objectName))
+                .map(objectColumns -> objectColumns.get(columnName));
+    }
+
     public Optional<String> getColumnType(String objectName, String columnName)
     {
-        if (!isObjectExist(objectName)) {
+        ObjectKind objectKind = objectName == null ? null : objectKinds.get(objectName);
+        if (objectKind == null) {
             throw new IllegalArgumentException("Dataset " + objectName + " not found");
         }
-        if (getModel(objectName).isPresent()) {
-            return getModel(objectName).get().getColumns().stream()
-                    .filter(column -> columnName.equals(column.getName()))
-                    .map(io.wren.base.dto.Column::getType)
-                    .findAny();
-        }
-        else if (getMetric(objectName).isPresent()) {
-            return getMetric(objectName).get().getColumns().stream()
-                    .filter(column -> columnName.equals(column.getName()))
-                    .map(Column::getType)
-                    .findAny();
-        }
-        else if (getCumulativeMetric(objectName).isPresent()) {
-            CumulativeMetric cumulativeMetric = getCumulativeMetric(objectName).get();
-            if (cumulativeMetric.getMeasure().getName().equals(columnName)) {
-                return Optional.of(cumulativeMetric.getMeasure().getType());
+        switch (objectKind) {
+            case MODEL, METRIC -> {
+                return Optional.ofNullable(columns.get(objectName).get(columnName)).map(Column::getType);
             }
-            if (cumulativeMetric.getWindow().getName().equals(columnName)) {
-                return getColumnType(cumulativeMetric.getBaseObject(), cumulativeMetric.getWindow().getRefColumn());
+            case CUMULATIVE_METRIC -> {
+                CumulativeMetric cumulativeMetric = cumulativeMetrics.get(objectName);
+                if (cumulativeMetric.getMeasure().getName().equals(columnName)) {
+                    return Optional.of(cumulativeMetric.getMeasure().getType());
+                }
+                if (cumulativeMetric.getWindow().getName().equals(columnName)) {
+                    return getColumnType(cumulativeMetric.getBaseObject(), cumulativeMetric.getWindow().getRefColumn());
+                }
+            }
+            case VIEW -> {
+                return Optional.empty();
             }
-        }
-        else if (getView(objectName).isPresent()) {
-            return Optional.empty();
         }
         throw new IllegalArgumentException("Dataset " + objectName + " is not a model, metric, cumulative metric or view");
     }
@@ -313,10 +491,41 @@ public class WrenMDL
         if (name == null) {
             return false;
         }
-        return getModel(name).isPresent()
-                || getMetric(name).isPresent()
-                || getCumulativeMetric(name).isPresent()
-                || getView(name).isPresent();
+        return objectKinds.containsKey(name);
+    }
+
+    /**
+     * @return the names of the models, metrics, cumulative metrics and views which are added, removed or changed since
+     * the previous mdl. A changed relationship is treated as a change of its models.
+     */
+    public Set<String> getChangedObjects(WrenMDL previous)
+    {
+        Set<String> changedObjects = new HashSet<>();
+        changedObjects.addAll(getChangedObjects(previous.listModels(), listModels(), model -> List.of(model.getName())));
+        changedObjects.addAll(getChangedObjects(previous.listMetrics(), listMetrics(), metric -> List.of(metric.getName())));
+        changedObjects.addAll(getChangedObjects(previous.listCumulativeMetrics(), listCumulativeMetrics(), metric -> List.of(metric.getName())));
+        changedObjects.addAll(getChangedObjects(previous.listViews(), listViews(), view -> List.of(view.getName())));
+        changedObjects.addAll(getChangedObjects(previous.listRelationships(), listRelationships(), Relationship::getModels));
+        return changedObjects;
+    }
+
+    private static <T> Set<String> getChangedObjects(List<T> previous, List<T> current, Function<T, List<String>> names)
+    {
+        Set<T> previousObjects = ImmutableSet.copyOf(previous);
+        Set<T> currentObjects = ImmutableSet.copyOf(current);
+        return Stream.concat(
+                        previous.stream().filter(object -> !currentObjects.contains(object)),
+                        current.stream().filter(object -> !previousObjects.contains(object)))
+                .flatMap(object -> names.apply(object).stream())
+                .collect(toImmutableSet());
+    }
+
+    private enum ObjectKind
+    {
+        MODEL,
+        METRIC,
+        CUMULATIVE_METRIC,
+        VIEW,
     }
 
     public Optional<Relationable> getRelationable(String name)
@@ -37,14 +37,26 @@ public abstract class BaseJdbcRecordIterator<T>
     protected final ResultSet resultSet;
     private final ResultSetMetaData resultSetMetaData;
     protected final int columnCount;
+    private final String sql;
+    private final long poolWaitNanos;
+    private final QueryEvent event = new QueryEvent();
+    // the rows are timed only if the event is recorded
+    private final boolean recording = event.isEnabled();
 
     private boolean hasNext;
+    private long rowCount;
+    private long fetchNanos;
+    private boolean closed;
 
     public BaseJdbcRecordIterator(Client client, String sql, List<Parameter> parameters)
             throws SQLException
     {
         requireNonNull(client, "client is null");
+        this.sql = requireNonNull(sql, "sql is null");
+        event.begin();
+        long start = System.nanoTime();
         connection = client.createConnection();
+        poolWaitNanos = System.nanoTime() - start;
         try {
             statement = connection.prepareStatement(sql);
             setParameter(parameters);
@@ -53,7 +65,11 @@ public abstract class BaseJdbcRecordIterator<T>
             this.resultSetMetaData = resultSet.getMetaData();
             this.columnCount = resultSetMetaData.getColumnCount();
 
+            start = recording ? System.nanoTime() : 0;
             hasNext = resultSet.next();
+            if (recording) {
+                fetchNanos += System.nanoTime() - start;
+            }
         }
         catch (SQLException e) {
             connection.close();
@@ -82,6 +98,7 @@ public abstract class BaseJdbcRecordIterator<T>
             throw new NoSuchElementException();
         }
         T currentResult;
+        long start = recording ? System.nanoTime() : 0;
         try {
             currentResult = getCurrentRecord();
             // move to next row
@@ -90,6 +107,10 @@ public abstract class BaseJdbcRecordIterator<T>
         catch (SQLException e) {
             throw new RuntimeException(e);
         }
+        if (recording) {
+            fetchNanos += System.nanoTime() - start;
+        }
+        rowCount++;
         return currentResult;
     }
 
@@ -97,6 +118,10 @@ public abstract class BaseJdbcRecordIterator<T>
     public void close()
             throws Exception
     {
+        if (!closed) {
+            closed = true;
+            event.end(sql, connection, poolWaitNanos, rowCount, fetchNanos);
+        }
         // use try with resources to close everything properly
         try (Connection connection = this.connection;
                 Statement statement = this.statement;
@@ -18,9 +18,10 @@ import io.wren.base.Parameter;
 import io.wren.base.client.Client;
 
 import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Collections.emptyList;
@@ -28,6 +29,9 @@ import static java.util.Collections.emptyList;
 public class JdbcRecordIterator
         extends BaseJdbcRecordIterator<Object[]>
 {
+    // chosen once by the column types, so a row is read without looking up the metadata
+    private final ColumnReader[] readers;
+
     public static JdbcRecordIterator of(Client client, String sql)
 
             throws SQLException
@@ -45,26 +49,52 @@ public class JdbcRecordIterator
             throws SQLException
     {
         super(client, sql, parameters);
+        this.readers = compileReaders(getResultSetMetaData());
+    }
+
+    private static ColumnReader[] compileReaders(ResultSetMetaData metaData)
+            throws SQLException
+    {
+        ColumnReader[] readers = new ColumnReader[metaData.getColumnCount()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = switch (metaData.getColumnType(i + 1)) {
+                case Types.BLOB -> JdbcRecordIterator::readBlob;
+                case Types.SMALLINT -> JdbcRecordIterator::readSmallint;
+                default -> ResultSet::getObject;
+            };
+        }
+        return readers;
     }
 
     @Override
     public Object[] getCurrentRecord()
             throws SQLException
     {
-        List<Object> builder = new ArrayList<>(columnCount);
-        for (int i = 1; i <= columnCount; i++) {
-            if (resultSet.getMetaData().getColumnType(i) == Types.BLOB) {
-                Blob blob = resultSet.getBlob(i);
-                builder.add(blob == null ? null : blob.getBytes(1, (int) blob.length()));
-            }
-            else if (resultSet.getMetaData().getColumnType(i) == Types.SMALLINT) {
-                short value = resultSet.getShort(i);
-                builder.add(resultSet.wasNull() ? null : value);
-            }
-            else {
-                builder.add(resultSet.getObject(i));
-            }
+        Object[] record = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            record[i] = readers[i].read(resultSet, i + 1);
         }
-        return builder.toArray();
+        return record;
+    }
+
+    private static Object readBlob(ResultSet resultSet, int column)
+            throws SQLException
+    {
+        Blob blob = resultSet.getBlob(column);
+        return blob == null ? null : blob.getBytes(1, (int) blob.length());
+    }
+
+    private static Object readSmallint(ResultSet resultSet, int column)
+            throws SQLException
+    {
+        short value = resultSet.getShort(column);
+        return resultSet.wasNull() ? null : value;
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader
+    {
+        Object read(ResultSet resultSet, int column)
+                throws SQLException;
     }
 }
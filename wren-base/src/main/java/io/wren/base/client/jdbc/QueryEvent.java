@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.client.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static io.wren.base.Utils.sqlHash;
+import static java.lang.Integer.toHexString;
+import static java.lang.System.identityHashCode;
+
+/**
+ * A JDK Flight Recorder event of a query sent to DuckDB, from acquiring the connection until the result is closed.
+ * The event is recorded only if it's enabled in the recording.
+ */
+@Name("io.wren.Query")
+@Label("Query")
+@Category("Wren")
+@Description("A query sent to DuckDB, from acquiring the connection until the result is closed")
+@StackTrace(false)
+public class QueryEvent
+        extends Event
+{
+    @Label("SQL Hash")
+    String sqlHash;
+
+    @Label("Row Count")
+    long rowCount;
+
+    @Label("Fetch Time")
+    @Description("The time of fetching the rows from the result")
+    @Timespan
+    long fetchTime;
+
+    @Label("Pool Wait Time")
+    @Description("The time of waiting for a connection from the pool")
+    @Timespan
+    long poolWaitTime;
+
+    @Label("Connection Id")
+    String connectionId;
+
+    /**
+     * End the event of the query on the connection, and commit it if it's recorded.
+     */
+    public void end(String sql, Connection connection, long poolWaitNanos, long rowCount, long fetchNanos)
+    {
+        end();
+        if (shouldCommit()) {
+            this.sqlHash = sqlHash(sql);
+            this.rowCount = rowCount;
+            this.fetchTime = fetchNanos;
+            this.poolWaitTime = poolWaitNanos;
+            this.connectionId = connectionId(connection);
+            commit();
+        }
+    }
+
+    /**
+     * @return the id of the physical connection behind the pooled connection, which is the same whenever it's reused.
+     */
+    private static String connectionId(Connection connection)
+    {
+        try {
+            return toHexString(identityHashCode(connection.unwrap(Connection.class)));
+        }
+        catch (SQLException e) {
+            return toHexString(identityHashCode(connection));
+        }
+    }
+}
@@ -19,6 +19,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.inject.Inject;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
 import io.wren.base.WrenException;
 import io.wren.base.client.duckdb.DuckDBConfig;
 import io.wren.base.client.duckdb.DuckDBConnectorConfig;
@@ -102,6 +103,14 @@ public class ConfigManager
         initConfig(WrenConfig.WREN_DIRECTORY, wrenConfig.getWrenMDLDirectory().getPath(), false, true);
         initConfig(WrenConfig.WREN_DATASOURCE_TYPE, Optional.ofNullable(wrenConfig.getDataSourceType()).map(Enum::name).orElse(null), true, false);
         initConfig(WrenConfig.WREN_ENABLE_DYNAMIC_FIELDS, Boolean.toString(wrenConfig.getEnableDynamicFields()), false, false);
+        initConfig(WrenConfig.WREN_ENABLE_AST_RULE_CHAINING, Boolean.toString(wrenConfig.getEnableAstRuleChaining()), false, false);
+        initConfig(WrenConfig.WREN_MDL_CACHE_MAX_SIZE, Integer.toString(wrenConfig.getMdlCacheMaxSize()), false, true);
+        initConfig(WrenConfig.WREN_MDL_CACHE_MAX_MEMORY, wrenConfig.getMdlCacheMaxMemory().toString(), false, true);
+        initConfig(WrenConfig.WREN_MDL_LOAD_THREADS, Integer.toString(wrenConfig.getMdlLoadThreads()), false, true);
+        initConfig(WrenConfig.WREN_PLAN_CACHE_MAX_SIZE, Long.toString(wrenConfig.getPlanCacheMaxSize()), false, true);
+        initConfig(WrenConfig.WREN_PLAN_CACHE_TTL, wrenConfig.getPlanCacheTtl().toString(), false, true);
+        initConfig(WrenConfig.WREN_PLAN_CACHE_PARAMETERIZE_LITERALS, Boolean.toString(wrenConfig.getPlanCacheParameterizeLiterals()), false, false);
+        initConfig(WrenConfig.WREN_SERVER_TIMING_ENABLED, Boolean.toString(wrenConfig.getServerTimingEnabled()), false, false);
         initConfig(DUCKDB_MEMORY_LIMIT, duckDBConfig.getMemoryLimit().toString(), true, false);
         initConfig(DUCKDB_HOME_DIRECTORY, duckDBConfig.getHomeDirectory(), true, false);
         initConfig(DUCKDB_TEMP_DIRECTORY, duckDBConfig.getTempDirectory(), true, false);
@@ -160,6 +169,14 @@ public class ConfigManager
                 .ifPresent(directory -> result.setWrenMDLDirectory(new File(directory)));
         result.setDataSourceType(WrenConfig.DataSourceType.valueOf(configs.get(WrenConfig.WREN_DATASOURCE_TYPE).toUpperCase(Locale.ROOT)));
         result.setEnableDynamicFields(Boolean.parseBoolean(configs.get(WrenConfig.WREN_ENABLE_DYNAMIC_FIELDS)));
+        result.setEnableAstRuleChaining(Boolean.parseBoolean(configs.get(WrenConfig.WREN_ENABLE_AST_RULE_CHAINING)));
+        result.setMdlCacheMaxSize(Integer.parseInt(configs.get(WrenConfig.WREN_MDL_CACHE_MAX_SIZE)));
+        result.setMdlCacheMaxMemory(DataSize.valueOf(configs.get(WrenConfig.WREN_MDL_CACHE_MAX_MEMORY)));
+        result.setMdlLoadThreads(Integer.parseInt(configs.get(WrenConfig.WREN_MDL_LOAD_THREADS)));
+        result.setPlanCacheMaxSize(Long.parseLong(configs.get(WrenConfig.WREN_PLAN_CACHE_MAX_SIZE)));
+        result.setPlanCacheTtl(Duration.valueOf(configs.get(WrenConfig.WREN_PLAN_CACHE_TTL)));
+        result.setPlanCacheParameterizeLiterals(Boolean.parseBoolean(configs.get(WrenConfig.WREN_PLAN_CACHE_PARAMETERIZE_LITERALS)));
+        result.setServerTimingEnabled(Boolean.parseBoolean(configs.get(WrenConfig.WREN_SERVER_TIMING_ENABLED)));
         return result;
     }
 
@@ -15,15 +15,29 @@
 package io.wren.base.config;
 
 import io.airlift.configuration.Config;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 import java.io.File;
 
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
 public class WrenConfig
 {
     public static final String WREN_DIRECTORY = "wren.directory";
     public static final String WREN_DATASOURCE_TYPE = "wren.datasource.type";
     public static final String WREN_ENABLE_DYNAMIC_FIELDS = "wren.experimental-enable-dynamic-fields";
+    public static final String WREN_ENABLE_AST_RULE_CHAINING = "wren.experimental-enable-ast-rule-chaining";
+    public static final String WREN_MDL_CACHE_MAX_SIZE = "wren.mdl-cache.max-size";
+    public static final String WREN_MDL_CACHE_MAX_MEMORY = "wren.mdl-cache.max-memory";
+    public static final String WREN_MDL_LOAD_THREADS = "wren.mdl-load.threads";
+    public static final String WREN_PLAN_CACHE_MAX_SIZE = "wren.plan-cache.max-size";
+    public static final String WREN_PLAN_CACHE_TTL = "wren.plan-cache.ttl";
+    public static final String WREN_PLAN_CACHE_PARAMETERIZE_LITERALS = "wren.plan-cache.parameterize-literals";
+    public static final String WREN_SERVER_TIMING_ENABLED = "wren.server-timing.enabled";
 
     public enum DataSourceType
     {
@@ -36,6 +50,14 @@ public class WrenConfig
     private File wrenMDLDirectory = new File("etc/mdl");
     private DataSourceType dataSourceType = DataSourceType.DUCKDB;
     private boolean enableDynamicFields;
+    private boolean enableAstRuleChaining;
+    private int mdlCacheMaxSize = 64;
+    private DataSize mdlCacheMaxMemory = DataSize.of(512, MEGABYTE);
+    private int mdlLoadThreads = Runtime.getRuntime().availableProcessors();
+    private long planCacheMaxSize = 10_000;
+    private Duration planCacheTtl = new Duration(10, MINUTES);
+    private boolean planCacheParameterizeLiterals = true;
+    private boolean serverTimingEnabled;
 
     @NotNull
     public File getWrenMDLDirectory()
@@ -73,4 +95,105 @@ public class WrenConfig
         this.enableDynamicFields = enableDynamicFields;
         return this;
     }
+
+    public boolean getEnableAstRuleChaining()
+    {
+        return enableAstRuleChaining;
+    }
+
+    @Config(WREN_ENABLE_AST_RULE_CHAINING)
+    public WrenConfig setEnableAstRuleChaining(boolean enableAstRuleChaining)
+    {
+        this.enableAstRuleChaining = enableAstRuleChaining;
+        return this;
+    }
+
+    @Min(1)
+    public int getMdlCacheMaxSize()
+    {
+        return mdlCacheMaxSize;
+    }
+
+    @Config(WREN_MDL_CACHE_MAX_SIZE)
+    public WrenConfig setMdlCacheMaxSize(int mdlCacheMaxSize)
+    {
+        this.mdlCacheMaxSize = mdlCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMdlCacheMaxMemory()
+    {
+        return mdlCacheMaxMemory;
+    }
+
+    @Config(WREN_MDL_CACHE_MAX_MEMORY)
+    public WrenConfig setMdlCacheMaxMemory(DataSize mdlCacheMaxMemory)
+    {
+        this.mdlCacheMaxMemory = mdlCacheMaxMemory;
+        return this;
+    }
+
+    @Min(1)
+    public int getMdlLoadThreads()
+    {
+        return mdlLoadThreads;
+    }
+
+    @Config(WREN_MDL_LOAD_THREADS)
+    public WrenConfig setMdlLoadThreads(int mdlLoadThreads)
+    {
+        this.mdlLoadThreads = mdlLoadThreads;
+        return this;
+    }
+
+    @Min(0)
+    public long getPlanCacheMaxSize()
+    {
+        return planCacheMaxSize;
+    }
+
+    @Config(WREN_PLAN_CACHE_MAX_SIZE)
+    public WrenConfig setPlanCacheMaxSize(long planCacheMaxSize)
+    {
+        this.planCacheMaxSize = planCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getPlanCacheTtl()
+    {
+        return planCacheTtl;
+    }
+
+    @Config(WREN_PLAN_CACHE_TTL)
+    public WrenConfig setPlanCacheTtl(Duration planCacheTtl)
+    {
+        this.planCacheTtl = planCacheTtl;
+        return this;
+    }
+
+    public boolean getPlanCacheParameterizeLiterals()
+    {
+        return planCacheParameterizeLiterals;
+    }
+
+    @Config(WREN_PLAN_CACHE_PARAMETERIZE_LITERALS)
+    public WrenConfig setPlanCacheParameterizeLiterals(boolean planCacheParameterizeLiterals)
+    {
+        this.planCacheParameterizeLiterals = planCacheParameterizeLiterals;
+        return this;
+    }
+
+    public boolean getServerTimingEnabled()
+    {
+        return serverTimingEnabled;
+    }
+
+    @Config(WREN_SERVER_TIMING_ENABLED)
+    public WrenConfig setServerTimingEnabled(boolean serverTimingEnabled)
+    {
+        this.serverTimingEnabled = serverTimingEnabled;
+        return this;
+    }
 }
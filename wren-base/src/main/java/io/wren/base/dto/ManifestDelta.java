@@ -0,0 +1,385 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import io.airlift.json.JsonCodec;
+import io.wren.base.WrenException;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.wren.base.metadata.StandardErrorCode.GENERIC_USER_ERROR;
+import static java.lang.String.format;
+
+/**
+ * The changes of a manifest. An object in the delta replaces the object with the same name in the manifest, or it's
+ * added to the end of the list if there is no such object. The removed objects are given by their names.
+ */
+public class ManifestDelta
+{
+    public static final JsonCodec<ManifestDelta> MANIFEST_DELTA_JSON_CODEC = JsonCodec.jsonCodec(ManifestDelta.class);
+
+    private final List<Model> models;
+    private final List<Metric> metrics;
+    private final List<CumulativeMetric> cumulativeMetrics;
+    private final List<Relationship> relationships;
+    private final List<View> views;
+    private final List<Macro> macros;
+    private final List<String> removedModels;
+    private final List<String> removedMetrics;
+    private final List<String> removedCumulativeMetrics;
+    private final List<String> removedRelationships;
+    private final List<String> removedViews;
+    private final List<String> removedMacros;
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    @JsonCreator
+    public ManifestDelta(
+            @JsonProperty("models") List<Model> models,
+            @JsonProperty("metrics") List<Metric> metrics,
+            @JsonProperty("cumulativeMetrics") List<CumulativeMetric> cumulativeMetrics,
+            @JsonProperty("relationships") List<Relationship> relationships,
+            @JsonProperty("views") List<View> views,
+            @JsonProperty("macros") List<Macro> macros,
+            @JsonProperty("removedModels") List<String> removedModels,
+            @JsonProperty("removedMetrics") List<String> removedMetrics,
+            @JsonProperty("removedCumulativeMetrics") List<String> removedCumulativeMetrics,
+            @JsonProperty("removedRelationships") List<String> removedRelationships,
+            @JsonProperty("removedViews") List<String> removedViews,
+            @JsonProperty("removedMacros") List<String> removedMacros)
+    {
+        this.models = models == null ? List.of() : models;
+        this.metrics = metrics == null ? List.of() : metrics;
+        this.cumulativeMetrics = cumulativeMetrics == null ? List.of() : cumulativeMetrics;
+        this.relationships = relationships == null ? List.of() : relationships;
+        this.views = views == null ? List.of() : views;
+        this.macros = macros == null ? List.of() : macros;
+        this.removedModels = removedModels == null ? List.of() : removedModels;
+        this.removedMetrics = removedMetrics == null ? List.of() : removedMetrics;
+        this.removedCumulativeMetrics = removedCumulativeMetrics == null ? List.of() : removedCumulativeMetrics;
+        this.removedRelationships = removedRelationships == null ? List.of() : removedRelationships;
+        this.removedViews = removedViews == null ? List.of() : removedViews;
+        this.removedMacros = removedMacros == null ? List.of() : removedMacros;
+    }
+
+    @JsonProperty
+    public List<Model> getModels()
+    {
+        return models;
+    }
+
+    @JsonProperty
+    public List<Metric> getMetrics()
+    {
+        return metrics;
+    }
+
+    @JsonProperty
+    public List<CumulativeMetric> getCumulativeMetrics()
+    {
+        return cumulativeMetrics;
+    }
+
+    @JsonProperty
+    public List<Relationship> getRelationships()
+    {
+        return relationships;
+    }
+
+    @JsonProperty
+    public List<View> getViews()
+    {
+        return views;
+    }
+
+    @JsonProperty
+    public List<Macro> getMacros()
+    {
+        return macros;
+    }
+
+    @JsonProperty
+    public List<String> getRemovedModels()
+    {
+        return removedModels;
+    }
+
+    @JsonProperty
+    public List<String> getRemovedMetrics()
+    {
+        return removedMetrics;
+    }
+
+    @JsonProperty
+    public List<String> getRemovedCumulativeMetrics()
+    {
+        return removedCumulativeMetrics;
+    }
+
+    @JsonProperty
+    public List<String> getRemovedRelationships()
+    {
+        return removedRelationships;
+    }
+
+    @JsonProperty
+    public List<String> getRemovedViews()
+    {
+        return removedViews;
+    }
+
+    @JsonProperty
+    public List<String> getRemovedMacros()
+    {
+        return removedMacros;
+    }
+
+    /**
+     * @return the manifest with the changes applied. The unchanged objects are kept as they are and in the same order.
+     */
+    public Manifest apply(Manifest manifest)
+    {
+        return Manifest.builder(manifest)
+                .setModels(apply("model", manifest.getModels(), models, removedModels, Model::getName))
+                .setMetrics(apply("metric", manifest.getMetrics(), metrics, removedMetrics, Metric::getName))
+                .setCumulativeMetrics(apply("cumulative metric", manifest.getCumulativeMetrics(), cumulativeMetrics, removedCumulativeMetrics, CumulativeMetric::getName))
+                .setRelationships(apply("relationship", manifest.getRelationships(), relationships, removedRelationships, Relationship::getName))
+                .setViews(apply("view", manifest.getViews(), views, removedViews, View::getName))
+                .setMacros(apply("macro", manifest.getMacros(), macros, removedMacros, Macro::getName))
+                .build();
+    }
+
+    private static <T> List<T> apply(String kind, List<T> objects, List<T> changed, List<String> removed, Function<T, String> name)
+    {
+        Map<String, T> changedByName = new LinkedHashMap<>();
+        for (T object : changed) {
+            checkDelta(changedByName.put(name.apply(object), object) == null, "duplicate %s in delta: %s", kind, name.apply(object));
+        }
+        Set<String> removedNames = new HashSet<>(removed);
+        for (String removedName : removed) {
+            checkDelta(!changedByName.containsKey(removedName), "%s is both changed and removed: %s", kind, removedName);
+            checkDelta(objects.stream().anyMatch(object -> name.apply(object).equals(removedName)), "%s not found: %s", kind, removedName);
+        }
+
+        ImmutableList.Builder<T> result = ImmutableList.builder();
+        Set<String> replaced = new HashSet<>();
+        for (T object : objects) {
+            String objectName = name.apply(object);
+            if (changedByName.containsKey(objectName)) {
+                // the first object with the name is replaced, and the others are dropped
+                if (replaced.add(objectName)) {
+                    result.add(changedByName.get(objectName));
+                }
+            }
+            else if (!removedNames.contains(objectName)) {
+                result.add(object);
+            }
+        }
+        changedByName.forEach((objectName, object) -> {
+            if (!replaced.contains(objectName)) {
+                result.add(object);
+            }
+        });
+        return result.build();
+    }
+
+    private static void checkDelta(boolean expression, String errorMessagePattern, Object... errorMessageArgs)
+    {
+        if (!expression) {
+            throw new WrenException(GENERIC_USER_ERROR, format(errorMessagePattern, errorMessageArgs));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ManifestDelta that = (ManifestDelta) o;
+        return Objects.equals(models, that.models) &&
+                Objects.equals(metrics, that.metrics) &&
+                Objects.equals(cumulativeMetrics, that.cumulativeMetrics) &&
+                Objects.equals(relationships, that.relationships) &&
+                Objects.equals(views, that.views) &&
+                Objects.equals(macros, that.macros) &&
+                Objects.equals(removedModels, that.removedModels) &&
+                Objects.equals(removedMetrics, that.removedMetrics) &&
+                Objects.equals(removedCumulativeMetrics, that.removedCumulativeMetrics) &&
+                Objects.equals(removedRelationships, that.removedRelationships) &&
+                Objects.equals(removedViews, that.removedViews) &&
+                Objects.equals(removedMacros, that.removedMacros);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(
+                models,
+                metrics,
+                cumulativeMetrics,
+                relationships,
+                views,
+                macros,
+                removedModels,
+                removedMetrics,
+                removedCumulativeMetrics,
+                removedRelationships,
+                removedViews,
+                removedMacros);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("models", models)
+                .add("metrics", metrics)
+                .add("cumulativeMetrics", cumulativeMetrics)
+                .add("relationships", relationships)
+                .add("views", views)
+                .add("macros", macros)
+                .add("removedModels", removedModels)
+                .add("removedMetrics", removedMetrics)
+                .add("removedCumulativeMetrics", removedCumulativeMetrics)
+                .add("removedRelationships", removedRelationships)
+                .add("removedViews", removedViews)
+                .add("removedMacros", removedMacros)
+                .toString();
+    }
+
+    public static class Builder
+    {
+        private List<Model> models;
+        private List<Metric> metrics;
+        private List<CumulativeMetric> cumulativeMetrics;
+        private List<Relationship> relationships;
+        private List<View> views;
+        private List<Macro> macros;
+        private List<String> removedModels;
+        private List<String> removedMetrics;
+        private List<String> removedCumulativeMetrics;
+        private List<String> removedRelationships;
+        private List<String> removedViews;
+        private List<String> removedMacros;
+
+        private Builder() {}
+
+        public Builder setModels(List<Model> models)
+        {
+            this.models = models;
+            return this;
+        }
+
+        public Builder setMetrics(List<Metric> metrics)
+        {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public Builder setCumulativeMetrics(List<CumulativeMetric> cumulativeMetrics)
+        {
+            this.cumulativeMetrics = cumulativeMetrics;
+            return this;
+        }
+
+        public Builder setRelationships(List<Relationship> relationships)
+        {
+            this.relationships = relationships;
+            return this;
+        }
+
+        public Builder setViews(List<View> views)
+        {
+            this.views = views;
+            return this;
+        }
+
+        public Builder setMacros(List<Macro> macros)
+        {
+            this.macros = macros;
+            return this;
+        }
+
+        public Builder setRemovedModels(List<String> removedModels)
+        {
+            this.removedModels = removedModels;
+            return this;
+        }
+
+        public Builder setRemovedMetrics(List<String> removedMetrics)
+        {
+            this.removedMetrics = removedMetrics;
+            return this;
+        }
+
+        public Builder setRemovedCumulativeMetrics(List<String> removedCumulativeMetrics)
+        {
+            this.removedCumulativeMetrics = removedCumulativeMetrics;
+            return this;
+        }
+
+        public Builder setRemovedRelationships(List<String> removedRelationships)
+        {
+            this.removedRelationships = removedRelationships;
+            return this;
+        }
+
+        public Builder setRemovedViews(List<String> removedViews)
+        {
+            this.removedViews = removedViews;
+            return this;
+        }
+
+        public Builder setRemovedMacros(List<String> removedMacros)
+        {
+            this.removedMacros = removedMacros;
+            return this;
+        }
+
+        public ManifestDelta build()
+        {
+            return new ManifestDelta(
+                    models,
+                    metrics,
+                    cumulativeMetrics,
+                    relationships,
+                    views,
+                    macros,
+                    removedModels,
+                    removedMetrics,
+                    removedCumulativeMetrics,
+                    removedRelationships,
+                    removedViews,
+                    removedMacros);
+        }
+    }
+}
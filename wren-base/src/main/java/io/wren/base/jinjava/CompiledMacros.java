@@ -0,0 +1,350 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.jinjava;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.wren.base.dto.Macro;
+import io.wren.base.macro.Parameter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.CharMatcher.whitespace;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.wren.base.macro.Parameter.TYPE.MACRO;
+
+/**
+ * The macros of a manifest compiled once into templates which are expanded without a template engine.
+ * <p>
+ * Only the subset of jinjava the macros are written in is supported: plain text and {@code {{ }}} outputs of
+ * string literals, integer literals, parameters and macro calls. {@link #render(String)} returns empty for anything
+ * else, and the caller should render the source with jinjava instead. The output is the same as rendering the source
+ * after the tags of the macros with jinjava.
+ */
+public final class CompiledMacros
+{
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Set<String> RESERVED_WORDS = Set.of(
+            "true", "false", "none", "null", "True", "False", "None",
+            "and", "or", "not", "in", "is", "if", "else", "elif", "empty",
+            "div", "mod", "eq", "ne", "lt", "gt", "le", "ge", "instanceof",
+            "loop", "caller", "varargs", "kwargs", "super", "self", "range");
+    private static final Object UNDEFINED = new Object();
+
+    private final Map<String, CompiledMacro> macros;
+    private final boolean enabled;
+
+    public static CompiledMacros compile(List<Macro> macros)
+    {
+        return new CompiledMacros(macros);
+    }
+
+    private CompiledMacros(List<Macro> macros)
+    {
+        Map<String, CompiledMacro> compiled = new HashMap<>();
+        boolean enabled = true;
+        for (Macro macro : macros) {
+            // the macros which take another macro are inlined by JinjavaExpressionProcessor, so no tag is generated for them
+            if (macro.getParameters().stream().anyMatch(parameter -> parameter.getType() == MACRO)) {
+                continue;
+            }
+            List<String> parameters = macro.getParameters().stream().map(Parameter::getName).collect(toImmutableList());
+            if (!isIdentifier(macro.getName()) || !parameters.stream().allMatch(CompiledMacros::isIdentifier)) {
+                enabled = false;
+                break;
+            }
+            // a later macro overrides the earlier one with the same name, and a call to a macro which can't be compiled is left to jinjava
+            compiled.put(macro.getName(), new CompiledMacro(parameters, parse(macro.getBody())));
+        }
+        this.macros = ImmutableMap.copyOf(compiled);
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the rendered source, or empty if the source or a macro it calls can't be rendered without jinjava.
+     */
+    public Optional<String> render(String source)
+    {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<List<Segment>> segments = parse(source);
+        if (segments.isEmpty()) {
+            return Optional.empty();
+        }
+        StringBuilder output = new StringBuilder(source.length());
+        try {
+            render(trimLeadingText(segments.get()), Map.of(), new ArrayDeque<>(), output);
+        }
+        catch (UnsupportedTemplateException e) {
+            return Optional.empty();
+        }
+        return Optional.of(output.toString());
+    }
+
+    /**
+     * The trailing '-%}' of the macro tags strips the leading whitespace of the first text of the source only,
+     * not the output rendered after it.
+     */
+    private List<Segment> trimLeadingText(List<Segment> segments)
+    {
+        if (macros.isEmpty() || segments.isEmpty() || !(segments.get(0) instanceof Text text)) {
+            return segments;
+        }
+        String trimmed = whitespace().trimLeadingFrom(text.value());
+        ImmutableList.Builder<Segment> builder = ImmutableList.builder();
+        if (!trimmed.isEmpty()) {
+            builder.add(new Text(trimmed));
+        }
+        return builder.addAll(segments.subList(1, segments.size())).build();
+    }
+
+    private void render(List<Segment> segments, Map<String, Object> scope, Deque<String> callStack, StringBuilder output)
+    {
+        for (Segment segment : segments) {
+            if (segment instanceof Text text) {
+                output.append(text.value());
+            }
+            else {
+                Object value = evaluate(((Output) segment).node(), scope, callStack);
+                if (value != UNDEFINED) {
+                    output.append(value);
+                }
+            }
+        }
+    }
+
+    private Object evaluate(Node node, Map<String, Object> scope, Deque<String> callStack)
+    {
+        if (node instanceof Literal literal) {
+            return literal.value();
+        }
+        if (node instanceof Variable variable) {
+            if (scope.containsKey(variable.name())) {
+                return scope.get(variable.name());
+            }
+            if (macros.containsKey(variable.name())) {
+                throw new UnsupportedTemplateException();
+            }
+            return UNDEFINED;
+        }
+        Call call = (Call) node;
+        CompiledMacro callee = macros.get(call.name());
+        if (callee == null || callee.body().isEmpty() || scope.containsKey(call.name()) || callStack.contains(call.name())
+                || call.arguments().size() > callee.parameters().size()) {
+            throw new UnsupportedTemplateException();
+        }
+        Map<String, Object> calleeScope = new HashMap<>();
+        for (int i = 0; i < callee.parameters().size(); i++) {
+            calleeScope.put(callee.parameters().get(i), i < call.arguments().size() ? evaluate(call.arguments().get(i), scope, callStack) : UNDEFINED);
+        }
+        StringBuilder output = new StringBuilder();
+        callStack.push(call.name());
+        render(callee.body().get(), calleeScope, callStack, output);
+        callStack.pop();
+        return output.toString();
+    }
+
+    private static boolean isIdentifier(String name)
+    {
+        return IDENTIFIER.matcher(name).matches() && !RESERVED_WORDS.contains(name);
+    }
+
+    private static Optional<List<Segment>> parse(String template)
+    {
+        ImmutableList.Builder<Segment> segments = ImmutableList.builder();
+        int position = 0;
+        while (position < template.length()) {
+            int start = findTagStart(template, position);
+            if (start < 0) {
+                segments.add(new Text(template.substring(position)));
+                break;
+            }
+            if (start > position) {
+                segments.add(new Text(template.substring(position, start)));
+            }
+            if (template.charAt(start + 1) != '{') {
+                // statements and comments are left to jinjava
+                return Optional.empty();
+            }
+            ExpressionParser parser = new ExpressionParser(template, start + 2);
+            Optional<Node> node = parser.parseOutput();
+            if (node.isEmpty()) {
+                return Optional.empty();
+            }
+            segments.add(new Output(node.get()));
+            position = parser.position;
+        }
+        return Optional.of(segments.build());
+    }
+
+    private static int findTagStart(String template, int from)
+    {
+        for (int i = template.indexOf('{', from); i >= 0 && i + 1 < template.length(); i = template.indexOf('{', i + 1)) {
+            char next = template.charAt(i + 1);
+            if (next == '{' || next == '%' || next == '#') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class ExpressionParser
+    {
+        private final String template;
+        private int position;
+
+        private ExpressionParser(String template, int position)
+        {
+            this.template = template;
+            this.position = position;
+        }
+
+        /**
+         * Parse the expression of an output and the closing braces. Whitespace control and any operator are not supported.
+         */
+        private Optional<Node> parseOutput()
+        {
+            if (peek() == '-' || peek() == '+') {
+                return Optional.empty();
+            }
+            Optional<Node> node = parseExpression();
+            skipWhitespace();
+            if (node.isEmpty() || !template.startsWith("}}", position)) {
+                return Optional.empty();
+            }
+            position += 2;
+            return node;
+        }
+
+        private Optional<Node> parseExpression()
+        {
+            skipWhitespace();
+            char c = peek();
+            if (c == '\'' || c == '"') {
+                int end = template.indexOf(c, position + 1);
+                if (end < 0) {
+                    return Optional.empty();
+                }
+                String value = template.substring(position + 1, end);
+                if (value.indexOf('\\') >= 0) {
+                    return Optional.empty();
+                }
+                position = end + 1;
+                return Optional.of(new Literal(value));
+            }
+            if (Character.isDigit(c)) {
+                int start = position;
+                while (Character.isDigit(peek())) {
+                    position++;
+                }
+                // leave long numbers, floats and attribute access to jinjava
+                if (position - start > 18 || Character.isLetter(peek()) || peek() == '.' || peek() == '_') {
+                    return Optional.empty();
+                }
+                return Optional.of(new Literal(Long.parseLong(template.substring(start, position))));
+            }
+            if (!Character.isLetter(c) && c != '_') {
+                return Optional.empty();
+            }
+            int start = position;
+            while (Character.isLetterOrDigit(peek()) || peek() == '_') {
+                position++;
+            }
+            String name = template.substring(start, position);
+            if (!isIdentifier(name)) {
+                return Optional.empty();
+            }
+            skipWhitespace();
+            if (peek() != '(') {
+                return Optional.of(new Variable(name));
+            }
+            position++;
+            ImmutableList.Builder<Node> arguments = ImmutableList.builder();
+            skipWhitespace();
+            if (peek() == ')') {
+                position++;
+                return Optional.of(new Call(name, arguments.build()));
+            }
+            while (true) {
+                Optional<Node> argument = parseExpression();
+                if (argument.isEmpty()) {
+                    return Optional.empty();
+                }
+                arguments.add(argument.get());
+                skipWhitespace();
+                char next = peek();
+                position++;
+                if (next == ')') {
+                    return Optional.of(new Call(name, arguments.build()));
+                }
+                if (next != ',') {
+                    return Optional.empty();
+                }
+            }
+        }
+
+        private void skipWhitespace()
+        {
+            while (position < template.length() && Character.isWhitespace(template.charAt(position))) {
+                position++;
+            }
+        }
+
+        private char peek()
+        {
+            return position < template.length() ? template.charAt(position) : '\0';
+        }
+    }
+
+    private record CompiledMacro(List<String> parameters, Optional<List<Segment>> body) {}
+
+    private sealed interface Segment
+            permits Text, Output {}
+
+    private record Text(String value)
+            implements Segment {}
+
+    private record Output(Node node)
+            implements Segment {}
+
+    private sealed interface Node
+            permits Literal, Variable, Call {}
+
+    private record Literal(Object value)
+            implements Node {}
+
+    private record Variable(String name)
+            implements Node {}
+
+    private record Call(String name, List<Node> arguments)
+            implements Node {}
+
+    private static class UnsupportedTemplateException
+            extends RuntimeException
+    {
+        private UnsupportedTemplateException()
+        {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -32,6 +32,7 @@ import io.trino.sql.tree.DecimalLiteral;
 import io.trino.sql.tree.DereferenceExpression;
 import io.trino.sql.tree.DoubleLiteral;
 import io.trino.sql.tree.ExistsPredicate;
+import io.trino.sql.tree.FetchFirst;
 import io.trino.sql.tree.FieldReference;
 import io.trino.sql.tree.FunctionCall;
 import io.trino.sql.tree.GenericDataType;
@@ -47,6 +48,7 @@ import io.trino.sql.tree.IsNullPredicate;
 import io.trino.sql.tree.LambdaArgumentDeclaration;
 import io.trino.sql.tree.LambdaExpression;
 import io.trino.sql.tree.LikePredicate;
+import io.trino.sql.tree.Limit;
 import io.trino.sql.tree.Literal;
 import io.trino.sql.tree.LogicalExpression;
 import io.trino.sql.tree.LongLiteral;
@@ -55,6 +57,7 @@ import io.trino.sql.tree.NotExpression;
 import io.trino.sql.tree.NullIfExpression;
 import io.trino.sql.tree.NullLiteral;
 import io.trino.sql.tree.NumericParameter;
+import io.trino.sql.tree.Offset;
 import io.trino.sql.tree.Parameter;
 import io.trino.sql.tree.QuantifiedComparisonExpression;
 import io.trino.sql.tree.Row;
@@ -362,6 +365,27 @@ public class BaseRewriter<T>
         return super.visitLongLiteral(node, context);
     }
 
+    @Override
+    protected Node visitOffset(Offset node, T context)
+    {
+        return new Offset(node.getLocation(), visitAndCast(node.getRowCount(), context));
+    }
+
+    @Override
+    protected Node visitLimit(Limit node, T context)
+    {
+        return new Limit(node.getLocation(), visitAndCast(node.getRowCount(), context));
+    }
+
+    @Override
+    protected Node visitFetchFirst(FetchFirst node, T context)
+    {
+        return new FetchFirst(
+                node.getLocation(),
+                node.getRowCount().map(rowCount -> visitAndCast(rowCount, context)),
+                node.isWithTies());
+    }
+
     @Override
     protected Node visitParameter(Parameter node, T context)
     {
@@ -178,15 +178,15 @@ public class BaseTreeRewriter<T>
                     node.getWith().map(expression -> visitAndCast(expression, context)),
                     visitAndCast(node.getQueryBody(), context),
                     node.getOrderBy().map(expression -> visitAndCast(expression, context)),
-                    node.getOffset(),
-                    node.getLimit());
+                    node.getOffset().map(offset -> visitAndCast(offset, context)),
+                    node.getLimit().map(limit -> visitAndCast(limit, context)));
         }
         return new Query(
                 node.getWith().map(expression -> visitAndCast(expression, context)),
                 visitAndCast(node.getQueryBody(), context),
                 node.getOrderBy().map(expression -> visitAndCast(expression, context)),
-                node.getOffset(),
-                node.getLimit());
+                node.getOffset().map(offset -> visitAndCast(offset, context)),
+                node.getLimit().map(limit -> visitAndCast(limit, context)));
     }
 
     @Override
@@ -915,8 +915,8 @@ public class BaseTreeRewriter<T>
                     node.getHaving().map(expression -> visitAndCast(expression, context)),
                     visitNodes(node.getWindows(), context),
                     node.getOrderBy().map(expression -> visitAndCast(expression, context)),
-                    node.getOffset(),
-                    node.getLimit());
+                    node.getOffset().map(offset -> visitAndCast(offset, context)),
+                    node.getLimit().map(limit -> visitAndCast(limit, context)));
         }
         return new QuerySpecification(
                 visitAndCast(node.getSelect(), context),
@@ -926,8 +926,8 @@ public class BaseTreeRewriter<T>
                 node.getHaving().map(expression -> visitAndCast(expression, context)),
                 visitNodes(node.getWindows(), context),
                 node.getOrderBy().map(expression -> visitAndCast(expression, context)),
-                node.getOffset(),
-                node.getLimit());
+                node.getOffset().map(offset -> visitAndCast(offset, context)),
+                node.getLimit().map(limit -> visitAndCast(limit, context)));
     }
 
     @Override
@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import com.google.common.collect.ImmutableList;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.SessionContext;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * The dependency DAG between the objects of a manifest. The dependencies of each object are resolved once and kept in
+ * topological order, so a query only selects the objects it requires instead of expanding the dependencies again.
+ */
+public class DependencyGraph
+{
+    private final AnalyzedMDL analyzedMDL;
+    private final Map<Key, List<QueryDescriptor>> dependencies = new ConcurrentHashMap<>();
+
+    public DependencyGraph(AnalyzedMDL analyzedMDL)
+    {
+        this.analyzedMDL = requireNonNull(analyzedMDL, "analyzedMDL is null");
+    }
+
+    /**
+     * Keep the dependencies resolved by the graph of a previous mdl if none of the objects in them is changed.
+     */
+    public void reuse(DependencyGraph previous, Predicate<String> unchanged)
+    {
+        previous.dependencies.forEach((key, descriptors) -> {
+            if (descriptors.stream().map(QueryDescriptor::getName).allMatch(unchanged)) {
+                dependencies.putIfAbsent(key, descriptors);
+            }
+        });
+    }
+
+    /**
+     * Sort the given descriptors and all objects they depend on in topological order.
+     * If a given descriptor is also required by another one, the descriptor of the whole object is used.
+     */
+    public List<QueryDescriptor> sort(Collection<? extends QueryDescriptor> descriptors, SessionContext sessionContext)
+    {
+        return sort(descriptors, sessionContext, false);
+    }
+
+    /**
+     * Same as {@link #sort(Collection, SessionContext)}, but only the views required by the descriptors are followed.
+     */
+    public List<QueryDescriptor> sortViews(Collection<? extends QueryDescriptor> descriptors, SessionContext sessionContext)
+    {
+        return sort(descriptors, sessionContext, true);
+    }
+
+    private List<QueryDescriptor> sort(Collection<? extends QueryDescriptor> descriptors, SessionContext sessionContext, boolean viewOnly)
+    {
+        Map<String, QueryDescriptor> sorted = new LinkedHashMap<>();
+        for (QueryDescriptor descriptor : descriptors) {
+            for (String required : getRequiredObjects(descriptor, viewOnly)) {
+                checkNotLoop(descriptor.getName(), required, viewOnly);
+                getDependencies(required, sessionContext, viewOnly, new HashSet<>())
+                        .forEach(dependency -> sorted.putIfAbsent(dependency.getName(), dependency));
+            }
+        }
+        descriptors.forEach(descriptor -> sorted.putIfAbsent(descriptor.getName(), descriptor));
+        return ImmutableList.copyOf(sorted.values());
+    }
+
+    /**
+     * @return the descriptor of the object and the descriptors of its dependencies in topological order.
+     */
+    private List<QueryDescriptor> getDependencies(String name, SessionContext sessionContext, boolean viewOnly, Set<String> visiting)
+    {
+        Key key = new Key(name, sessionContext.getCatalog(), sessionContext.getSchema(), viewOnly);
+        List<QueryDescriptor> cached = dependencies.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (!visiting.add(name)) {
+            throw new IllegalArgumentException(viewOnly ? "found cycle in view" : "found cycle in models");
+        }
+
+        QueryDescriptor descriptor = QueryDescriptor.of(name, analyzedMDL, sessionContext);
+        Map<String, QueryDescriptor> sorted = new LinkedHashMap<>();
+        for (String required : getRequiredObjects(descriptor, viewOnly)) {
+            checkNotLoop(name, required, viewOnly);
+            getDependencies(required, sessionContext, viewOnly, visiting)
+                    .forEach(dependency -> sorted.putIfAbsent(dependency.getName(), dependency));
+        }
+        sorted.put(name, descriptor);
+        visiting.remove(name);
+
+        List<QueryDescriptor> result = ImmutableList.copyOf(sorted.values());
+        List<QueryDescriptor> previous = dependencies.putIfAbsent(key, result);
+        return previous != null ? previous : result;
+    }
+
+    private Set<String> getRequiredObjects(QueryDescriptor descriptor, boolean viewOnly)
+    {
+        if (!viewOnly) {
+            return descriptor.getRequiredObjects();
+        }
+        return descriptor.getRequiredObjects().stream()
+                .filter(name -> analyzedMDL.getWrenMDL().getView(name).isPresent())
+                .collect(toSet());
+    }
+
+    private static void checkNotLoop(String name, String required, boolean viewOnly)
+    {
+        if (name.equals(required)) {
+            IllegalArgumentException loop = new IllegalArgumentException("loops not allowed");
+            throw viewOnly ? new IllegalArgumentException("found issue in view", loop) : loop;
+        }
+    }
+
+    private record Key(String name, Optional<String> catalog, Optional<String> schema, boolean viewOnly) {}
+}
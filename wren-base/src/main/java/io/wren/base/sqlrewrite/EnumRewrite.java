@@ -50,6 +50,12 @@ public class EnumRewrite
         return (Statement) new Rewriter(analyzedMDL.getWrenMDL()).process(root);
     }
 
+    @Override
+    public boolean requireAnalysis()
+    {
+        return false;
+    }
+
     private static class Rewriter
             extends BaseRewriter<Void>
     {
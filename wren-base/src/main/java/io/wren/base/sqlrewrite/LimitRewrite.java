@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import io.trino.sql.tree.AllRows;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.FetchFirst;
+import io.trino.sql.tree.Limit;
+import io.trino.sql.tree.LongLiteral;
+import io.trino.sql.tree.Node;
+import io.trino.sql.tree.Query;
+import io.trino.sql.tree.QuerySpecification;
+import io.trino.sql.tree.Statement;
+
+import java.util.Optional;
+
+import static io.wren.base.Utils.checkArgument;
+
+/**
+ * Push the limit of a preview into the outermost query, so the engine can plan a top-n and stop reading early instead of
+ * the rows being dropped after they are fetched. The existing LIMIT or FETCH FIRST of the query is kept if it's smaller.
+ */
+public class LimitRewrite
+{
+    private LimitRewrite() {}
+
+    /**
+     * @return the statement with the limit, or the same instance if it isn't a query or its rows are limited already.
+     */
+    public static Statement apply(Statement statement, long limit)
+    {
+        checkArgument(limit >= 0, "limit must be non-negative: %s", limit);
+        if (!(statement instanceof Query query)) {
+            return statement;
+        }
+        // the parser puts the limit of a simple select into its query specification
+        if (query.getOrderBy().isEmpty() && query.getOffset().isEmpty() && query.getLimit().isEmpty()
+                && query.getQueryBody() instanceof QuerySpecification specification) {
+            return minLimit(specification.getLimit(), limit)
+                    .map(newLimit -> (Statement) new Query(
+                            query.getWith(),
+                            new QuerySpecification(
+                                    specification.getSelect(),
+                                    specification.getFrom(),
+                                    specification.getWhere(),
+                                    specification.getGroupBy(),
+                                    specification.getHaving(),
+                                    specification.getWindows(),
+                                    specification.getOrderBy(),
+                                    specification.getOffset(),
+                                    Optional.of(newLimit)),
+                            query.getOrderBy(),
+                            query.getOffset(),
+                            query.getLimit()))
+                    .orElse(statement);
+        }
+        return minLimit(query.getLimit(), limit)
+                .map(newLimit -> (Statement) new Query(query.getWith(), query.getQueryBody(), query.getOrderBy(), query.getOffset(), Optional.of(newLimit)))
+                .orElse(statement);
+    }
+
+    /**
+     * @return the new limit node, or empty if the existing one returns no more rows than the limit or can't be compared with it.
+     */
+    private static Optional<Node> minLimit(Optional<Node> existing, long limit)
+    {
+        if (existing.isEmpty()) {
+            return Optional.of(new Limit(new LongLiteral(String.valueOf(limit))));
+        }
+        if (existing.get() instanceof Limit node) {
+            if (node.getRowCount() instanceof AllRows || exceeds(node.getRowCount(), limit)) {
+                return Optional.of(new Limit(new LongLiteral(String.valueOf(limit))));
+            }
+            return Optional.empty();
+        }
+        // WITH TIES may return more rows than the count, and they are truncated after being fetched
+        if (existing.get() instanceof FetchFirst node && !node.isWithTies()
+                && node.getRowCount().isPresent() && exceeds(node.getRowCount().get(), limit)) {
+            return Optional.of(new FetchFirst(new LongLiteral(String.valueOf(limit))));
+        }
+        return Optional.empty();
+    }
+
+    // a parameter is unknown until it's bound, so it's never replaced
+    private static boolean exceeds(Expression rowCount, long limit)
+    {
+        return rowCount instanceof LongLiteral literal && literal.getValue() > limit;
+    }
+}
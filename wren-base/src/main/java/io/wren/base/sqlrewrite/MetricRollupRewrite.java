@@ -48,6 +48,9 @@ public class MetricRollupRewrite
     @Override
     public Statement apply(Statement root, SessionContext sessionContext, Analysis analysis, AnalyzedMDL analyzedMDL)
     {
+        if (analysis.getMetricRollups().isEmpty()) {
+            return root;
+        }
         return (Statement) new Rewriter(analysis).process(root);
     }
 
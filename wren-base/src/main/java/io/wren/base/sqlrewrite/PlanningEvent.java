@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import javax.annotation.Nullable;
+
+import java.util.function.Supplier;
+
+import static io.wren.base.Utils.sqlHash;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A JDK Flight Recorder event of a phase of planning a query. The event is recorded only if it's enabled in the
+ * recording, e.g. {@code jcmd <pid> JFR.start settings=profile +io.wren.Planning#enabled=true}.
+ */
+@Name("io.wren.Planning")
+@Label("Planning")
+@Category("Wren")
+@Description("A phase of planning a query: parse, analysis, a rule or format")
+@StackTrace(false)
+public class PlanningEvent
+        extends Event
+{
+    @Label("Manifest Fingerprint")
+    private String manifestFingerprint;
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("SQL Hash")
+    private String sqlHash;
+
+    /**
+     * @return a listener which records every phase of planning the sql as an event, and sends the time of the phase to the
+     * given listener as well.
+     */
+    public static PlanningListener recording(PlanningListener listener, @Nullable String manifestFingerprint, String sql)
+    {
+        return new Recorder(listener, manifestFingerprint, sql);
+    }
+
+    private static class Recorder
+            implements PlanningListener
+    {
+        private final PlanningListener listener;
+        private final String manifestFingerprint;
+        private final String sql;
+        private String sqlHash;
+
+        private Recorder(PlanningListener listener, String manifestFingerprint, String sql)
+        {
+            this.listener = requireNonNull(listener, "listener is null");
+            this.manifestFingerprint = manifestFingerprint;
+            this.sql = requireNonNull(sql, "sql is null");
+        }
+
+        @Override
+        public void phaseCompleted(String phase, long nanos)
+        {
+            listener.phaseCompleted(phase, nanos);
+        }
+
+        @Override
+        public <T> T time(String phase, Supplier<T> supplier)
+        {
+            PlanningEvent event = new PlanningEvent();
+            event.begin();
+            T result = listener.time(phase, supplier);
+            event.end();
+            if (event.shouldCommit()) {
+                // the sql is hashed only when an event is recorded
+                if (sqlHash == null) {
+                    sqlHash = sqlHash(sql);
+                }
+                event.manifestFingerprint = manifestFingerprint;
+                event.phase = phase;
+                event.sqlHash = sqlHash;
+                event.commit();
+            }
+            return result;
+        }
+    }
+}
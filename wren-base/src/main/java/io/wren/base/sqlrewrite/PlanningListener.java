@@ -0,0 +1,39 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import java.util.function.Supplier;
+
+/**
+ * Receive the time spent in every phase of planning a query: parsing, analysis, each rule and formatting.
+ */
+@FunctionalInterface
+public interface PlanningListener
+{
+    PlanningListener NOOP = (phase, nanos) -> {};
+
+    void phaseCompleted(String phase, long nanos);
+
+    /**
+     * Run the phase and send its time to {@link #phaseCompleted(String, long)}.
+     */
+    default <T> T time(String phase, Supplier<T> supplier)
+    {
+        long start = System.nanoTime();
+        T result = supplier.get();
+        phaseCompleted(phase, System.nanoTime() - start);
+        return result;
+    }
+}
@@ -39,22 +39,22 @@ public interface QueryDescriptor
         WrenMDL mdl = analyzedMDL.getWrenMDL();
         Optional<Model> model = mdl.getModel(name);
         if (model.isPresent()) {
-            return RelationInfo.get(model.get(), mdl);
+            return analyzedMDL.getRelationInfo(model.get(), Optional.empty());
         }
         Optional<Metric> metric = mdl.getMetric(name);
         if (metric.isPresent()) {
-            return RelationInfo.get(metric.get(), mdl);
+            return analyzedMDL.getRelationInfo(metric.get(), Optional.empty());
         }
         Optional<CumulativeMetric> cumulativeMetric = mdl.getCumulativeMetric(name);
         if (cumulativeMetric.isPresent()) {
-            return CumulativeMetricInfo.get(cumulativeMetric.get(), mdl);
+            return analyzedMDL.getCumulativeMetricInfo(cumulativeMetric.get());
         }
         Optional<View> view = mdl.getView(name);
         if (view.isPresent()) {
             return ViewInfo.get(view.get(), analyzedMDL, sessionContext);
         }
         if (name.equals(DateSpineInfo.NAME)) {
-            return DateSpineInfo.get(mdl.getDateSpine());
+            return analyzedMDL.getDateSpineInfo();
         }
         throw new IllegalArgumentException(name + " not found in wren mdl");
     }
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.Literal;
+import io.trino.sql.tree.LongLiteral;
+import io.trino.sql.tree.Node;
+import io.trino.sql.tree.NullLiteral;
+import io.trino.sql.tree.Parameter;
+import io.trino.sql.tree.SimpleGroupBy;
+import io.trino.sql.tree.SortItem;
+import io.trino.sql.tree.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A statement whose literals are replaced by {@link Parameter}s. Queries which differ only in their constants share the
+ * same template, so the template could be rewritten once and bound with the literals of each query.
+ * <p>
+ * The rules never look into the value of a literal, except the ordinals of ORDER BY and GROUP BY, which are kept in the template.
+ * The parameters are kept as the same nodes during the rewrite only when the rules are applied on the tree directly,
+ * see {@link WrenPlanner#rewrite(Statement, io.wren.base.SessionContext, io.wren.base.AnalyzedMDL, List)}.
+ */
+public final class StatementTemplate
+{
+    private final Statement statement;
+    private final List<Expression> parameters;
+
+    private StatementTemplate(Statement statement, List<Expression> parameters)
+    {
+        this.statement = requireNonNull(statement, "statement is null");
+        this.parameters = ImmutableList.copyOf(requireNonNull(parameters, "parameters is null"));
+    }
+
+    /**
+     * @return the template of the statement or empty if the statement already has parameters.
+     */
+    public static Optional<StatementTemplate> of(Statement statement)
+    {
+        if (containsParameter(statement)) {
+            return Optional.empty();
+        }
+        List<Expression> parameters = new ArrayList<>();
+        Statement template = (Statement) new Parameterizer().process(statement, parameters);
+        return Optional.of(new StatementTemplate(template, parameters));
+    }
+
+    public Statement getStatement()
+    {
+        return statement;
+    }
+
+    public List<Expression> getParameters()
+    {
+        return parameters;
+    }
+
+    /**
+     * Replace the parameters in the rewritten template with the literals of this template.
+     */
+    public Statement bind(Statement rewritten)
+    {
+        Statement bound = (Statement) new Binder(parameters).process(rewritten, null);
+        checkState(!containsParameter(bound), "there are unbound parameters in the rewritten template");
+        return bound;
+    }
+
+    private static boolean containsParameter(Node node)
+    {
+        return node instanceof Parameter || node.getChildren().stream().anyMatch(StatementTemplate::containsParameter);
+    }
+
+    private static class Parameterizer
+            extends BaseRewriter<List<Expression>>
+    {
+        @Override
+        protected Node visitLiteral(Literal node, List<Expression> context)
+        {
+            if (node instanceof NullLiteral) {
+                return node;
+            }
+            context.add(node);
+            return new Parameter(context.size() - 1);
+        }
+
+        @Override
+        protected Node visitSortItem(SortItem node, List<Expression> context)
+        {
+            if (node.getSortKey() instanceof LongLiteral) {
+                return node;
+            }
+            return super.visitSortItem(node, context);
+        }
+
+        @Override
+        protected Node visitSimpleGroupBy(SimpleGroupBy node, List<Expression> context)
+        {
+            List<Expression> expressions = node.getExpressions().stream()
+                    .map(expression -> expression instanceof LongLiteral ? expression : visitAndCast(expression, context))
+                    .collect(toList());
+            if (node.getLocation().isPresent()) {
+                return new SimpleGroupBy(node.getLocation().get(), expressions);
+            }
+            return new SimpleGroupBy(expressions);
+        }
+    }
+
+    private static class Binder
+            extends BaseRewriter<Void>
+    {
+        private final List<Expression> parameters;
+
+        private Binder(List<Expression> parameters)
+        {
+            this.parameters = parameters;
+        }
+
+        @Override
+        protected Node visitParameter(Parameter node, Void context)
+        {
+            return parameters.get(node.getPosition());
+        }
+    }
+}
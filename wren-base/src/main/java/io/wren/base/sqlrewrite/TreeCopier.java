@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import io.trino.sql.tree.Identifier;
+import io.trino.sql.tree.Node;
+
+/**
+ * Copy a sql tree into new node instances without changing its structure.
+ * <p>
+ * {@link io.wren.base.sqlrewrite.analyzer.Analysis} records its results by {@link io.trino.sql.tree.NodeRef}, so a tree
+ * which contains the same node instance in different places (e.g. a model query referenced by multiple rules) can't be
+ * analyzed correctly. Copying the tree gives every node a new identity, the same as formatting and parsing the sql again,
+ * but keeps the tree in memory. Literals are kept as is because analysis never records them.
+ */
+public final class TreeCopier
+        extends BaseRewriter<Void>
+{
+    private static final TreeCopier INSTANCE = new TreeCopier();
+
+    private TreeCopier() {}
+
+    @SuppressWarnings("unchecked")
+    public static <T extends Node> T copy(T node)
+    {
+        return (T) INSTANCE.process(node);
+    }
+
+    @Override
+    protected Node visitIdentifier(Identifier node, Void context)
+    {
+        if (node.getLocation().isPresent()) {
+            return new Identifier(node.getLocation().get(), node.getValue(), node.isDelimited());
+        }
+        return new Identifier(node.getValue(), node.isDelimited());
+    }
+}
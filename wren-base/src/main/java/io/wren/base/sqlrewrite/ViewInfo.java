@@ -34,6 +34,14 @@ public class ViewInfo
     private final Query query;
 
     public static ViewInfo get(View view, AnalyzedMDL analyzedMDL, SessionContext sessionContext)
+    {
+        return analyzedMDL.getViewInfo(view, sessionContext);
+    }
+
+    /**
+     * Analyze the view without the cache of {@link AnalyzedMDL}. Use {@link #get(View, AnalyzedMDL, SessionContext)} instead.
+     */
+    public static ViewInfo analyze(View view, AnalyzedMDL analyzedMDL, SessionContext sessionContext)
     {
         Query query = parseView(view.getStatement());
         Analysis analysis = new Analysis(query);
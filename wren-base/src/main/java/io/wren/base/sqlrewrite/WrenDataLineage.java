@@ -15,10 +15,15 @@
 package io.wren.base.sqlrewrite;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.trino.sql.tree.DefaultTraversalVisitor;
 import io.trino.sql.tree.DereferenceExpression;
 import io.trino.sql.tree.Expression;
@@ -37,14 +42,21 @@ import io.wren.base.sqlrewrite.analyzer.RelationshipColumnInfo;
 import org.jgrapht.graph.DirectedAcyclicGraph;
 import org.jgrapht.graph.GraphCycleProhibitedException;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static io.trino.sql.tree.DereferenceExpression.getQualifiedName;
 import static java.lang.String.format;
@@ -54,24 +66,77 @@ import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toSet;
 
 // TODO: take care view
+/**
+ * The lineage of each column is analyzed lazily when it's required by a query for the first time, and it's kept for
+ * the following queries.
+ */
 public class WrenDataLineage
 {
     public static final WrenDataLineage EMPTY = new WrenDataLineage(WrenMDL.EMPTY);
+    private static final int REQUIRED_TABLES_CACHE_SIZE = 1000;
+
     private final WrenMDL mdl;
+    // The dense ids of the columns in the mdl. The ids follow the iteration order of all columns in a HashSet,
+    // which keeps the order of the tables in getRequiredFields stable.
+    private final Map<QualifiedName, Integer> columnIds;
+    private final List<QualifiedName> columns;
+    // the columns referenced by the lineage but not defined in the mdl
+    private final Map<QualifiedName, Integer> extraColumnIds = new ConcurrentHashMap<>();
+    private final Map<Integer, QualifiedName> extraColumns = new ConcurrentHashMap<>();
+    private final AtomicInteger nextExtraColumnId;
     // key: column name, value: source columns name. format in QualifiedName is modelName.columnName
-    private final Map<QualifiedName, Set<QualifiedName>> sourceColumnsMap;
-    private final Map<QualifiedName, List<Vertex>> requiredFields;
+    private final Map<QualifiedName, Set<QualifiedName>> sourceColumnsMap = new ConcurrentHashMap<>();
+    private final Map<QualifiedName, ColumnLineage> columnLineages = new ConcurrentHashMap<>();
+    // key: the ids of the given columns
+    private final Cache<BitSet, RequiredTables> requiredTables = CacheBuilder.newBuilder()
+            .maximumSize(REQUIRED_TABLES_CACHE_SIZE)
+            .build();
 
     public static WrenDataLineage analyze(WrenMDL mdl)
     {
         return new WrenDataLineage(mdl);
     }
 
+    /**
+     * Analyze the lineage of the new mdl incrementally. The lineage of a column is reused if none of the objects in its
+     * lineage is changed. A changed relationship is treated as a change of its models.
+     */
+    public static WrenDataLineage analyze(WrenMDL mdl, WrenDataLineage previous)
+    {
+        WrenDataLineage dataLineage = new WrenDataLineage(mdl);
+        Set<String> changedObjects = mdl.getChangedObjects(previous.mdl);
+        previous.sourceColumnsMap.forEach((column, sourceColumns) -> {
+            if (dataLineage.columnIds.containsKey(column)
+                    && !changedObjects.contains(getTable(column))
+                    && sourceColumns.stream().map(WrenDataLineage::getTable).noneMatch(changedObjects::contains)) {
+                dataLineage.sourceColumnsMap.put(column, sourceColumns);
+            }
+        });
+        previous.columnLineages.forEach((column, lineage) -> {
+            if (dataLineage.columnIds.containsKey(column)
+                    && !changedObjects.contains(getTable(column))
+                    && lineage.tables().stream().noneMatch(changedObjects::contains)) {
+                // the ids of the columns are different in the new mdl
+                BitSet requiredColumns = new BitSet();
+                lineage.requiredColumns().stream()
+                        .mapToObj(previous::getColumnName)
+                        .forEach(name -> requiredColumns.set(dataLineage.getColumnId(name)));
+                dataLineage.columnLineages.put(column, new ColumnLineage(lineage.tables(), requiredColumns));
+            }
+        });
+        return dataLineage;
+    }
+
     private WrenDataLineage(WrenMDL mdl)
     {
         this.mdl = requireNonNull(mdl);
-        this.sourceColumnsMap = collectSourceColumns();
-        this.requiredFields = collectRequiredFieldsByColumn();
+        this.columns = collectColumns();
+        ImmutableMap.Builder<QualifiedName, Integer> columnIds = ImmutableMap.builderWithExpectedSize(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            columnIds.put(columns.get(i), i);
+        }
+        this.columnIds = columnIds.buildOrThrow();
+        this.nextExtraColumnId = new AtomicInteger(columns.size());
     }
 
     /**
@@ -83,12 +148,18 @@ public class WrenDataLineage
      */
     public Map<String, Set<String>> getSourceColumns(QualifiedName columnName)
     {
-        return Optional.ofNullable(sourceColumnsMap.get(columnName))
+        return getSourceColumnsOf(columnName)
                 .orElseGet(ImmutableSet::of)
                 .stream()
                 .collect(groupingBy(WrenDataLineage::getTable, mapping(WrenDataLineage::getColumn, toSet())));
     }
 
+    @VisibleForTesting
+    boolean isAnalyzed(QualifiedName columnName)
+    {
+        return columnLineages.containsKey(columnName);
+    }
+
     @VisibleForTesting
     LinkedHashMap<String, Set<String>> getRequiredFields(QualifiedName columnName)
     {
@@ -104,33 +175,18 @@ public class WrenDataLineage
      */
     public LinkedHashMap<String, Set<String>> getRequiredFields(List<QualifiedName> columnNames)
     {
-        // make sure there is no model dependency cycle in given columnNames.
-        DirectedAcyclicGraph<Vertex, Object> graph = new DirectedAcyclicGraph<>(Object.class);
-        Map<String, Vertex> vertexes = new HashMap<>();
-        requiredFields.entrySet().stream()
-                .filter(e -> columnNames.contains(e.getKey()))
-                .forEach(e -> {
-                    List<Vertex> nodes = ImmutableList.copyOf(e.getValue());
-                    for (int i = 1; i < nodes.size(); i++) {
-                        String from = nodes.get(i - 1).getName();
-                        String to = nodes.get(i).getName();
-                        Vertex vertexFrom = vertexes.computeIfAbsent(from, (ignored) -> new Vertex(from));
-                        Vertex vertexTo = vertexes.computeIfAbsent(to, (ignored) -> new Vertex(to));
-                        graph.addVertex(vertexFrom);
-                        graph.addVertex(vertexTo);
-                        try {
-                            graph.addEdge(vertexFrom, vertexTo);
-                        }
-                        catch (GraphCycleProhibitedException ex) {
-                            throw new IllegalArgumentException("found cycle in " + e.getKey());
-                        }
-                        vertexFrom.columnNames.addAll(nodes.get(i - 1).getColumnNames());
-                        vertexTo.columnNames.addAll(nodes.get(i).getColumnNames());
-                    }
-                });
+        BitSet columnIds = new BitSet();
+        columnNames.stream()
+                .map(this.columnIds::get)
+                .filter(Objects::nonNull)
+                .forEach(columnIds::set);
+        RequiredTables tables = getRequiredTables(columnIds);
 
         LinkedHashMap<String, Set<String>> result = new LinkedHashMap<>();
-        graph.iterator().forEachRemaining(vertex -> result.put(vertex.getName(), vertex.getColumnNames()));
+        tables.tables().forEach(table -> result.put(table, new HashSet<>()));
+        tables.requiredColumns().stream()
+                .mapToObj(this::getColumnName)
+                .forEach(columnName -> result.computeIfAbsent(getTable(columnName), ignored -> new HashSet<>()).add(getColumn(columnName)));
         // add back column names to requiredFields
         columnNames.forEach(fullColumnName -> {
             Set<String> names = Optional.ofNullable(result.get(getTable(fullColumnName))).orElseGet(HashSet::new);
@@ -140,64 +196,138 @@ public class WrenDataLineage
         return result;
     }
 
-    private Map<QualifiedName, Set<QualifiedName>> collectSourceColumns()
+    private RequiredTables getRequiredTables(BitSet columnIds)
+    {
+        try {
+            return requiredTables.get(columnIds, () -> collectRequiredTables(columnIds));
+        }
+        catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * The required columns are the union of the closures of the given columns. The order of the tables is decided by
+     * merging the lineages of the given columns, which makes sure there is no model dependency cycle in given columns.
+     */
+    private RequiredTables collectRequiredTables(BitSet columnIds)
+    {
+        DirectedAcyclicGraph<String, Object> graph = new DirectedAcyclicGraph<>(Object.class);
+        BitSet requiredColumns = new BitSet();
+        columnIds.stream().forEach(columnId -> {
+            QualifiedName columnName = columns.get(columnId);
+            ColumnLineage lineage = columnLineages.computeIfAbsent(columnName, this::collectColumnLineage);
+            List<String> tables = lineage.tables();
+            for (int i = 1; i < tables.size(); i++) {
+                graph.addVertex(tables.get(i - 1));
+                graph.addVertex(tables.get(i));
+                try {
+                    graph.addEdge(tables.get(i - 1), tables.get(i));
+                }
+                catch (GraphCycleProhibitedException ex) {
+                    throw new IllegalArgumentException("found cycle in " + columnName);
+                }
+            }
+            requiredColumns.or(lineage.requiredColumns());
+        });
+        return new RequiredTables(ImmutableList.copyOf(graph.iterator()), requiredColumns);
+    }
+
+    private int getColumnId(QualifiedName columnName)
     {
-        Map<QualifiedName, Set<QualifiedName>> sourceColumnsMap = new HashMap<>();
+        Integer columnId = columnIds.get(columnName);
+        if (columnId != null) {
+            return columnId;
+        }
+        return extraColumnIds.computeIfAbsent(columnName, ignored -> {
+            int extraColumnId = nextExtraColumnId.getAndIncrement();
+            extraColumns.put(extraColumnId, columnName);
+            return extraColumnId;
+        });
+    }
+
+    private QualifiedName getColumnName(int columnId)
+    {
+        if (columnId < columns.size()) {
+            return columns.get(columnId);
+        }
+        return requireNonNull(extraColumns.get(columnId), "column not found");
+    }
+
+    private List<QualifiedName> collectColumns()
+    {
+        Set<QualifiedName> columnNames = new HashSet<>();
         for (Model model : mdl.listModels()) {
             for (Column column : model.getColumns()) {
-                SetMultimap<String, String> sourceColumns = getSourceColumns(mdl, model, column);
-                sourceColumnsMap.put(
-                        QualifiedName.of(model.getName(), column.getName()),
-                        // TODO: maybe we can make getSourceColumns return Set<QualifiedName>
-                        sourceColumns.asMap().entrySet().stream()
-                                .map(e ->
-                                        e.getValue().stream()
-                                                .map(name -> QualifiedName.of(e.getKey(), name))
-                                                .collect(toImmutableSet()))
-                                .flatMap(Set::stream)
-                                .collect(toImmutableSet()));
+                columnNames.add(QualifiedName.of(model.getName(), column.getName()));
             }
         }
         for (Metric metric : mdl.listMetrics()) {
             for (Column column : metric.getColumns()) {
-                SetMultimap<String, String> sourceColumns = getSourceColumns(mdl, metric, column);
-                sourceColumnsMap.put(
-                        QualifiedName.of(metric.getName(), column.getName()),
-                        // TODO: maybe we can make getSourceColumns return Set<QualifiedName>
-                        sourceColumns.asMap().entrySet().stream()
-                                .map(e ->
-                                        e.getValue().stream()
-                                                .map(name -> QualifiedName.of(e.getKey(), name))
-                                                .collect(toImmutableSet()))
-                                .flatMap(Set::stream)
-                                .collect(toImmutableSet()));
+                columnNames.add(QualifiedName.of(metric.getName(), column.getName()));
             }
         }
         for (CumulativeMetric cumulativeMetric : mdl.listCumulativeMetrics()) {
             Utils.checkArgument(mdl.isObjectExist(cumulativeMetric.getBaseObject()), "cumulative metric base object %s not exist", cumulativeMetric.getBaseObject());
-            // handle measure
-            sourceColumnsMap.put(
-                    QualifiedName.of(cumulativeMetric.getName(), cumulativeMetric.getMeasure().getName()),
-                    ImmutableSet.of(QualifiedName.of(cumulativeMetric.getBaseObject(), cumulativeMetric.getMeasure().getRefColumn())));
-            // handle window
-            sourceColumnsMap.put(
-                    QualifiedName.of(cumulativeMetric.getName(), cumulativeMetric.getWindow().getName()),
-                    ImmutableSet.of(QualifiedName.of(cumulativeMetric.getBaseObject(), cumulativeMetric.getWindow().getRefColumn())));
-        }
-        return sourceColumnsMap;
+            columnNames.add(QualifiedName.of(cumulativeMetric.getName(), cumulativeMetric.getMeasure().getName()));
+            columnNames.add(QualifiedName.of(cumulativeMetric.getName(), cumulativeMetric.getWindow().getName()));
+        }
+        return ImmutableList.copyOf(columnNames);
     }
 
-    private Map<QualifiedName, List<Vertex>> collectRequiredFieldsByColumn()
+    private Optional<Set<QualifiedName>> getSourceColumnsOf(QualifiedName columnName)
     {
-        Map<QualifiedName, List<Vertex>> columnLineages = new HashMap<>();
-        sourceColumnsMap.forEach(((column, sourceColumns) -> {
-            DirectedAcyclicGraph<Vertex, Object> graph = new DirectedAcyclicGraph<>(Object.class);
-            Map<String, Vertex> vertexes = new HashMap<>();
-            collectRequiredFields(column, graph, vertexes);
-            columnLineages.put(column, ImmutableList.copyOf(graph.iterator()));
-        }));
-
-        return columnLineages;
+        if (!columnIds.containsKey(columnName)) {
+            return Optional.empty();
+        }
+        return Optional.of(sourceColumnsMap.computeIfAbsent(columnName, this::collectSourceColumns));
+    }
+
+    private Set<QualifiedName> collectSourceColumns(QualifiedName columnName)
+    {
+        String table = getTable(columnName);
+        String column = getColumn(columnName);
+        Optional<CumulativeMetric> cumulativeMetric = mdl.getCumulativeMetric(table);
+        if (cumulativeMetric.isPresent()) {
+            if (cumulativeMetric.get().getWindow().getName().equals(column)) {
+                return ImmutableSet.of(QualifiedName.of(cumulativeMetric.get().getBaseObject(), cumulativeMetric.get().getWindow().getRefColumn()));
+            }
+            return ImmutableSet.of(QualifiedName.of(cumulativeMetric.get().getBaseObject(), cumulativeMetric.get().getMeasure().getRefColumn()));
+        }
+        SetMultimap<String, String> sourceColumns = mdl.getMetric(table)
+                .map(metric -> getSourceColumns(mdl, metric, findColumn(metric.getColumns(), column)))
+                .orElseGet(() -> {
+                    Model model = mdl.getModel(table).orElseThrow(() -> new IllegalArgumentException(format("dataset not found: %s", table)));
+                    return getSourceColumns(mdl, model, findColumn(model.getColumns(), column));
+                });
+        // TODO: maybe we can make getSourceColumns return Set<QualifiedName>
+        return sourceColumns.entries().stream()
+                .map(e -> QualifiedName.of(e.getKey(), e.getValue()))
+                .collect(toImmutableSet());
+    }
+
+    private static Column findColumn(List<Column> columns, String name)
+    {
+        return columns.stream()
+                .filter(column -> column.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(format("column not found: %s", name)));
+    }
+
+    private ColumnLineage collectColumnLineage(QualifiedName columnName)
+    {
+        DirectedAcyclicGraph<Vertex, Object> graph = new DirectedAcyclicGraph<>(Object.class);
+        Map<String, Vertex> vertexes = new HashMap<>();
+        collectRequiredFields(columnName, graph, vertexes);
+        List<Vertex> lineage = ImmutableList.copyOf(graph.iterator());
+        BitSet requiredColumns = new BitSet();
+        // the columns in the same table are resolved by the table itself
+        if (lineage.size() > 1) {
+            lineage.forEach(vertex -> vertex.getColumnNames()
+                    .forEach(name -> requiredColumns.set(getColumnId(QualifiedName.of(vertex.getName(), name)))));
+        }
+        return new ColumnLineage(lineage.stream().map(Vertex::getName).collect(toImmutableList()), requiredColumns);
     }
 
     private void collectRequiredFields(
@@ -205,13 +335,14 @@ public class WrenDataLineage
             DirectedAcyclicGraph<Vertex, Object> graph,
             Map<String, Vertex> vertexes)
     {
-        if (!sourceColumnsMap.containsKey(qualifiedName)) {
+        Optional<Set<QualifiedName>> maybeSourceColumns = getSourceColumnsOf(qualifiedName);
+        if (maybeSourceColumns.isEmpty()) {
             return;
         }
 
         String targetTable = getTable(qualifiedName);
         String targetColumn = getColumn(qualifiedName);
-        Set<QualifiedName> sourceColumns = sourceColumnsMap.get(qualifiedName);
+        Set<QualifiedName> sourceColumns = maybeSourceColumns.get();
         Vertex targetVertex = vertexes.computeIfAbsent(targetTable, (ignored) -> new Vertex(targetTable));
         graph.addVertex(targetVertex);
         // sometimes we can't analyze lineage from column expression e.g. count(*), while the column itself may depend on another object (e.g. metric/model...)
@@ -266,6 +397,14 @@ public class WrenDataLineage
                 .anyMatch(Column::isCalculated);
     }
 
+    /**
+     * @param tables the tables in the lineage of the column in topological order
+     * @param requiredColumns the ids of the columns required by the column transitively
+     */
+    private record ColumnLineage(List<String> tables, BitSet requiredColumns) {}
+
+    private record RequiredTables(List<String> tables, BitSet requiredColumns) {}
+
     public static class Vertex
     {
         private final String name;
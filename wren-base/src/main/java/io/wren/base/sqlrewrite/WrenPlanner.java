@@ -19,8 +19,11 @@ import io.trino.sql.parser.SqlParser;
 import io.trino.sql.tree.Statement;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.SessionContext;
+import io.wren.base.sqlrewrite.analyzer.Analysis;
+import io.wren.base.sqlrewrite.analyzer.StatementAnalyzer;
 
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 import static io.wren.base.sqlrewrite.EnumRewrite.ENUM_REWRITE;
 import static io.wren.base.sqlrewrite.MetricRollupRewrite.METRIC_ROLLUP_REWRITE;
@@ -36,6 +39,10 @@ public class WrenPlanner
             ENUM_REWRITE);
     private static final SqlParser SQL_PARSER = new SqlParser();
 
+    public static final String PARSE_PHASE = "parse";
+    public static final String ANALYSIS_PHASE = "analysis";
+    public static final String FORMAT_PHASE = "format";
+
     private WrenPlanner() {}
 
     public static String rewrite(String sql, SessionContext sessionContext, AnalyzedMDL analyzedMDL)
@@ -45,11 +52,81 @@ public class WrenPlanner
 
     public static String rewrite(String sql, SessionContext sessionContext, AnalyzedMDL analyzedMDL, List<WrenRule> rules)
     {
-        Statement statement = parseSql(sql);
+        return rewrite(sql, sessionContext, analyzedMDL, rules, PlanningListener.NOOP);
+    }
+
+    /**
+     * Same as {@link #rewrite(String, SessionContext, AnalyzedMDL, List)}, and the time of every phase is sent to the listener.
+     * The phases are {@link #PARSE_PHASE}, {@link #ANALYSIS_PHASE}, the simple class name of each rule and {@link #FORMAT_PHASE}.
+     */
+    public static String rewrite(String sql, SessionContext sessionContext, AnalyzedMDL analyzedMDL, List<WrenRule> rules, PlanningListener listener)
+    {
+        Statement result = parseAndRewrite(sql, sessionContext, analyzedMDL, rules, listener);
+        return listener.time(FORMAT_PHASE, () -> SqlFormatter.formatSql(result));
+    }
+
+    /**
+     * Same as {@link #rewrite(String, SessionContext, AnalyzedMDL, List, PlanningListener)}, but the result isn't formatted,
+     * so the caller can rewrite it further before formatting it once.
+     */
+    public static Statement parseAndRewrite(String sql, SessionContext sessionContext, AnalyzedMDL analyzedMDL, List<WrenRule> rules, PlanningListener listener)
+    {
+        Statement statement = listener.time(PARSE_PHASE, () -> parseSql(sql));
+        if (sessionContext.isEnableAstRuleChaining()) {
+            return rewrite(statement, sessionContext, analyzedMDL, rules, TreeCopier::copy, listener);
+        }
+        // we will replace or rewrite sql node in sql rewrite, to avoid rewrite rules affect each other, format and parse sql before each analysis
+        return rewrite(statement, sessionContext, analyzedMDL, rules, node -> parseSql(SqlFormatter.formatSql(node)), listener);
+    }
+
+    /**
+     * Apply the rules on the sql tree directly. The output of a rule could share nodes with its input or contain the same node
+     * in different places, so the tree is copied before each analysis to give every node its own identity.
+     */
+    public static Statement rewrite(Statement statement, SessionContext sessionContext, AnalyzedMDL analyzedMDL, List<WrenRule> rules)
+    {
+        return rewrite(statement, sessionContext, analyzedMDL, rules, PlanningListener.NOOP);
+    }
+
+    public static Statement rewrite(Statement statement, SessionContext sessionContext, AnalyzedMDL analyzedMDL, List<WrenRule> rules, PlanningListener listener)
+    {
+        return rewrite(statement, sessionContext, analyzedMDL, rules, TreeCopier::copy, listener);
+    }
+
+    /**
+     * The analysis is shared by the rules until one of them replaces some nodes. Replacing a relation changes the scope of
+     * the query around it, so the whole statement is refreshed and analyzed again in that case. The refresh is a part of
+     * the analysis phase.
+     */
+    private static Statement rewrite(
+            Statement statement,
+            SessionContext sessionContext,
+            AnalyzedMDL analyzedMDL,
+            List<WrenRule> rules,
+            UnaryOperator<Statement> refresher,
+            PlanningListener listener)
+    {
+        Statement result = statement;
+        Analysis analysis = null;
         for (WrenRule rule : rules) {
-            // we will replace or rewrite sql node in sql rewrite, to avoid rewrite rules affect each other, format and parse sql before each rewrite
-            statement = rule.apply(parseSql(SqlFormatter.formatSql(statement)), sessionContext, analyzedMDL);
+            Statement input = result;
+            if (!rule.requireAnalysis()) {
+                result = listener.time(rule.getClass().getSimpleName(), () -> rule.apply(input, sessionContext, null, analyzedMDL));
+                continue;
+            }
+            if (analysis == null || analysis.getRoot() != result) {
+                analysis = listener.time(ANALYSIS_PHASE, () -> {
+                    Statement refreshed = refresher.apply(input);
+                    Analysis refreshedAnalysis = new Analysis(refreshed);
+                    StatementAnalyzer.analyze(refreshedAnalysis, refreshed, sessionContext, analyzedMDL.getWrenMDL());
+                    return refreshedAnalysis;
+                });
+                result = analysis.getRoot();
+            }
+            Statement analyzed = result;
+            Analysis ruleAnalysis = analysis;
+            result = listener.time(rule.getClass().getSimpleName(), () -> rule.apply(analyzed, sessionContext, ruleAnalysis, analyzedMDL));
         }
-        return SqlFormatter.formatSql(statement);
+        return result;
     }
 }
@@ -23,5 +23,14 @@ public interface WrenRule
 {
     Statement apply(Statement root, SessionContext sessionContext, AnalyzedMDL analyzedMDL);
 
+    /**
+     * Apply the rule with the analysis of the root. The rule should return the same root if nothing is replaced,
+     * so that the analysis could be shared with the next rule.
+     */
     Statement apply(Statement root, SessionContext sessionContext, Analysis analysis, AnalyzedMDL analyzedMDL);
+
+    default boolean requireAnalysis()
+    {
+        return true;
+    }
 }
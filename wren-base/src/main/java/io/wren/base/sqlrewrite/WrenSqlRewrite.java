@@ -26,7 +26,6 @@ import io.trino.sql.tree.WithQuery;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.CatalogSchemaTableName;
 import io.wren.base.SessionContext;
-import io.wren.base.Utils;
 import io.wren.base.WrenMDL;
 import io.wren.base.dto.Column;
 import io.wren.base.dto.CumulativeMetric;
@@ -35,12 +34,8 @@ import io.wren.base.dto.Model;
 import io.wren.base.dto.Relationable;
 import io.wren.base.sqlrewrite.analyzer.Analysis;
 import io.wren.base.sqlrewrite.analyzer.StatementAnalyzer;
-import org.jgrapht.graph.DirectedAcyclicGraph;
-import org.jgrapht.graph.GraphCycleProhibitedException;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -109,7 +104,7 @@ public class WrenSqlRewrite
 
             ImmutableList.Builder<QueryDescriptor> descriptorsBuilder = ImmutableList.builder();
             tableRequiredFields.forEach((name, value) -> {
-                addDescriptor(name, value, wrenMDL, descriptorsBuilder);
+                addDescriptor(name, value, analyzedMDL, descriptorsBuilder);
                 visitedTables.remove(toCatalogSchemaTableName(sessionContext, QualifiedName.of(name)));
             });
 
@@ -118,7 +113,7 @@ public class WrenSqlRewrite
             if (tableRequiredFields.keySet().stream()
                     .map(wrenMDL::getCumulativeMetric)
                     .anyMatch(Optional::isPresent)) {
-                withQueries.add(WithRewriter.getWithQuery(DateSpineInfo.get(wrenMDL.getDateSpine())));
+                withQueries.add(WithRewriter.getWithQuery(analyzedMDL.getDateSpineInfo()));
             }
             descriptorsBuilder.build().forEach(queryDescriptor -> withQueries.add(WithRewriter.getWithQuery(queryDescriptor)));
 
@@ -130,9 +125,9 @@ public class WrenSqlRewrite
             return (Statement) new Rewriter(wrenMDL, analysis).process(rewriteWith);
         }
         else {
-            Set<QueryDescriptor> modelDescriptors = analysis.getModels().stream().map(model -> RelationInfo.get(model, wrenMDL)).collect(toSet());
-            Set<QueryDescriptor> metricDescriptors = analysis.getMetrics().stream().map(metric -> RelationInfo.get(metric, wrenMDL)).collect(toSet());
-            Set<QueryDescriptor> cumulativeMetricDescriptors = analysis.getCumulativeMetrics().stream().map(metric -> CumulativeMetricInfo.get(metric, wrenMDL)).collect(toSet());
+            Set<QueryDescriptor> modelDescriptors = analysis.getModels().stream().map(model -> analyzedMDL.getRelationInfo(model, Optional.empty())).collect(toSet());
+            Set<QueryDescriptor> metricDescriptors = analysis.getMetrics().stream().map(metric -> analyzedMDL.getRelationInfo(metric, Optional.empty())).collect(toSet());
+            Set<QueryDescriptor> cumulativeMetricDescriptors = analysis.getCumulativeMetrics().stream().map(analyzedMDL::getCumulativeMetricInfo).collect(toSet());
             allDescriptors = ImmutableSet.<QueryDescriptor>builder()
                     .addAll(modelDescriptors)
                     .addAll(metricDescriptors)
@@ -142,36 +137,30 @@ public class WrenSqlRewrite
         }
     }
 
-    private void addDescriptor(String name, Set<String> requiredFields, WrenMDL wrenMDL, ImmutableList.Builder<QueryDescriptor> descriptorsBuilder)
+    private void addDescriptor(String name, Set<String> requiredFields, AnalyzedMDL analyzedMDL, ImmutableList.Builder<QueryDescriptor> descriptorsBuilder)
     {
-        if (wrenMDL.getModel(name).isPresent()) {
-            Model model = wrenMDL.getModel(name).get();
-            descriptorsBuilder.add(RelationInfo.get(model, wrenMDL, requiredFields));
-        }
-        else if (wrenMDL.getMetric(name).isPresent()) {
-            Metric metric = wrenMDL.getMetric(name).get();
-            descriptorsBuilder.add(RelationInfo.get(metric, wrenMDL, requiredFields));
-        }
-        else if (wrenMDL.getCumulativeMetric(name).isPresent()) {
-            CumulativeMetric cumulativeMetric = wrenMDL.getCumulativeMetric(name).get();
-            descriptorsBuilder.add(CumulativeMetricInfo.get(cumulativeMetric, wrenMDL));
-        }
-        // If the table is not found in mdl, it could be a remote table or a CTE.
+        addDescriptor(name, Optional.of(requiredFields), analyzedMDL, descriptorsBuilder);
+    }
+
+    private void addDescriptor(String name, AnalyzedMDL analyzedMDL, ImmutableList.Builder<QueryDescriptor> descriptorsBuilder)
+    {
+        addDescriptor(name, Optional.empty(), analyzedMDL, descriptorsBuilder);
     }
 
-    private void addDescriptor(String name, WrenMDL wrenMDL, ImmutableList.Builder<QueryDescriptor> descriptorsBuilder)
+    private void addDescriptor(String name, Optional<Set<String>> requiredFields, AnalyzedMDL analyzedMDL, ImmutableList.Builder<QueryDescriptor> descriptorsBuilder)
     {
+        WrenMDL wrenMDL = analyzedMDL.getWrenMDL();
         if (wrenMDL.getModel(name).isPresent()) {
             Model model = wrenMDL.getModel(name).get();
-            descriptorsBuilder.add(RelationInfo.get(model, wrenMDL));
+            descriptorsBuilder.add(analyzedMDL.getRelationInfo(model, requiredFields));
         }
         else if (wrenMDL.getMetric(name).isPresent()) {
             Metric metric = wrenMDL.getMetric(name).get();
-            descriptorsBuilder.add(RelationInfo.get(metric, wrenMDL));
+            descriptorsBuilder.add(analyzedMDL.getRelationInfo(metric, requiredFields));
         }
         else if (wrenMDL.getCumulativeMetric(name).isPresent()) {
             CumulativeMetric cumulativeMetric = wrenMDL.getCumulativeMetric(name).get();
-            descriptorsBuilder.add(CumulativeMetricInfo.get(cumulativeMetric, wrenMDL));
+            descriptorsBuilder.add(analyzedMDL.getCumulativeMetricInfo(cumulativeMetric));
         }
         // If the table is not found in mdl, it could be a remote table or a CTE.
     }
@@ -183,54 +172,14 @@ public class WrenSqlRewrite
             AnalyzedMDL analyzedMDL,
             Set<QueryDescriptor> allDescriptors)
     {
-        DirectedAcyclicGraph<String, Object> graph = new DirectedAcyclicGraph<>(Object.class);
-        Set<QueryDescriptor> requiredQueryDescriptors = new HashSet<>();
-        // add to graph
-        allDescriptors.forEach(queryDescriptor -> addSqlDescriptorToGraph(queryDescriptor, graph, analyzedMDL, requiredQueryDescriptors, sessionContext));
-
-        Map<String, QueryDescriptor> descriptorMap = new HashMap<>();
-        allDescriptors.forEach(queryDescriptor -> descriptorMap.put(queryDescriptor.getName(), queryDescriptor));
-        requiredQueryDescriptors.forEach(queryDescriptor -> descriptorMap.put(queryDescriptor.getName(), queryDescriptor));
-
-        List<WithQuery> withQueries = new ArrayList<>();
-        graph.iterator().forEachRemaining(objectName -> {
-            QueryDescriptor queryDescriptor = descriptorMap.get(objectName);
-            Utils.checkArgument(queryDescriptor != null, objectName + " not found in query descriptors");
-            withQueries.add(WithRewriter.getWithQuery(queryDescriptor));
-        });
+        List<WithQuery> withQueries = analyzedMDL.getDependencyGraph().sort(allDescriptors, sessionContext).stream()
+                .map(WithRewriter::getWithQuery)
+                .collect(toImmutableList());
 
         Node rewriteWith = new WithRewriter(withQueries).process(root);
         return (Statement) new Rewriter(analyzedMDL.getWrenMDL(), analysis).process(rewriteWith);
     }
 
-    private static void addSqlDescriptorToGraph(
-            QueryDescriptor queryDescriptor,
-            DirectedAcyclicGraph<String, Object> graph,
-            AnalyzedMDL analyzedMDL,
-            Set<QueryDescriptor> queryDescriptors,
-            SessionContext sessionContext)
-    {
-        // add vertex
-        graph.addVertex(queryDescriptor.getName());
-        queryDescriptor.getRequiredObjects().forEach(graph::addVertex);
-
-        //add edge
-        try {
-            queryDescriptor.getRequiredObjects().forEach(modelName ->
-                    graph.addEdge(modelName, queryDescriptor.getName()));
-        }
-        catch (GraphCycleProhibitedException ex) {
-            throw new IllegalArgumentException("found cycle in models", ex);
-        }
-
-        // add required models to graph
-        for (String objectName : queryDescriptor.getRequiredObjects()) {
-            QueryDescriptor descriptor = QueryDescriptor.of(objectName, analyzedMDL, sessionContext);
-            queryDescriptors.add(descriptor);
-            addSqlDescriptorToGraph(descriptor, graph, analyzedMDL, queryDescriptors, sessionContext);
-        }
-    }
-
     private static class Rewriter
             extends BaseRewriter<Void>
     {
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base;
+
+import io.wren.base.sqlrewrite.WrenPlanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static io.wren.base.dto.Manifest.MANIFEST_JSON_CODEC;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load the manifests of {@link ManifestSize}: parse the json, build the analyzed mdl, and plan the queries on a new
+ * analyzed mdl, which renders and analyzes the objects required by the queries for the first time.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BenchmarkManifestLoading
+{
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private ManifestSize size = ManifestSize.SMALL;
+
+    private String json;
+    private WrenMDL mdl;
+    private SessionContext sessionContext;
+    private List<String> queries;
+
+    @Setup
+    public void setup()
+    {
+        json = MANIFEST_JSON_CODEC.toJson(size.manifest());
+        mdl = WrenMDL.fromManifest(size.manifest());
+        sessionContext = SessionContext.builder()
+                .setCatalog("wren")
+                .setSchema("benchmark")
+                .build();
+        queries = size.queries();
+    }
+
+    @Benchmark
+    public WrenMDL fromJson()
+            throws IOException
+    {
+        return WrenMDL.fromJson(json);
+    }
+
+    @Benchmark
+    public AnalyzedMDL analyzedMDL()
+    {
+        return new AnalyzedMDL(mdl, null);
+    }
+
+    @Benchmark
+    public void planOnNewAnalyzedMDL(Blackhole blackhole)
+    {
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(mdl, null);
+        for (String sql : queries) {
+            blackhole.consume(WrenPlanner.rewrite(sql, sessionContext, analyzedMDL));
+        }
+    }
+
+    @Test
+    public void verify()
+            throws IOException
+    {
+        BenchmarkManifestLoading benchmark = new BenchmarkManifestLoading();
+        benchmark.setup();
+        assertThat(benchmark.fromJson().listModels()).isEqualTo(benchmark.mdl.listModels());
+        assertThat(benchmark.analyzedMDL().getWrenMDL()).isSameAs(benchmark.mdl);
+        assertThat(benchmark.mdl.listModels()).hasSize(ManifestSize.SMALL.getModels());
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkManifestLoading.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base;
+
+import io.trino.sql.tree.QualifiedName;
+import io.wren.base.sqlrewrite.WrenDataLineage;
+import io.wren.base.sqlrewrite.WrenPlanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.wren.base.ManifestGenerator.modelName;
+import static io.wren.base.dto.Manifest.MANIFEST_JSON_CODEC;
+import static java.lang.Math.log;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Run every phase of planning on the manifests of {@link ManifestGenerator} of increasing sizes. Run the main method to
+ * report how the time and the allocation of each phase grow with the number of models, e.g. linear or quadratic.
+ * The growth is the slope of the scores against the sizes on a log-log scale.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BenchmarkScaling
+{
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    @Param({"250", "500", "1000", "2000"})
+    private int models = 10;
+
+    private ManifestGenerator generator;
+    private String json;
+    private WrenMDL mdl;
+    private AnalyzedMDL analyzedMDL;
+    private SessionContext sessionContext;
+    private List<String> queries;
+    private List<QualifiedName> calculatedFields;
+
+    @Setup
+    public void setup()
+    {
+        generator = generator(models);
+        json = MANIFEST_JSON_CODEC.toJson(generator.generate());
+        mdl = WrenMDL.fromManifest(generator.generate());
+        analyzedMDL = new AnalyzedMDL(mdl, null);
+        sessionContext = SessionContext.builder()
+                .setCatalog(ManifestGenerator.CATALOG)
+                .setSchema(ManifestGenerator.SCHEMA)
+                .build();
+        queries = generator.queries();
+        int last = models - 1;
+        calculatedFields = generator.calculatedFields(last).stream()
+                .map(field -> QualifiedName.of(modelName(last), field))
+                .collect(toImmutableList());
+        // plan once, so the planning benchmark only measures the planning on an analyzed mdl
+        queries.forEach(sql -> WrenPlanner.rewrite(sql, sessionContext, analyzedMDL));
+    }
+
+    private static ManifestGenerator generator(int models)
+    {
+        return new ManifestGenerator()
+                .setModels(models)
+                .setColumns(20)
+                .setCalculatedFields(2)
+                .setCalculatedFieldDepth(3)
+                .setToManyRelationships(true)
+                .setDiamonds(true)
+                .setMetrics(Math.max(1, models / 10))
+                .setCumulativeMetrics(Math.max(1, models / 50))
+                .setViews(Math.max(1, models / 10))
+                .setMacros(5);
+    }
+
+    @State(Scope.Thread)
+    public static class NewAnalyzedMDL
+    {
+        private AnalyzedMDL analyzedMDL;
+
+        @Setup(Level.Invocation)
+        public void setup(BenchmarkScaling benchmark)
+        {
+            analyzedMDL = new AnalyzedMDL(benchmark.mdl, null);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class NewLineage
+    {
+        private WrenDataLineage lineage;
+
+        @Setup(Level.Invocation)
+        public void setup(BenchmarkScaling benchmark)
+        {
+            lineage = WrenDataLineage.analyze(benchmark.mdl);
+        }
+    }
+
+    @Benchmark
+    public WrenMDL load()
+            throws IOException
+    {
+        return WrenMDL.fromJson(json);
+    }
+
+    @Benchmark
+    public AnalyzedMDL analyze()
+    {
+        return new AnalyzedMDL(mdl, null);
+    }
+
+    @Benchmark
+    public void firstPlan(NewAnalyzedMDL state, Blackhole blackhole)
+    {
+        for (String sql : queries) {
+            blackhole.consume(WrenPlanner.rewrite(sql, sessionContext, state.analyzedMDL));
+        }
+    }
+
+    @Benchmark
+    public void plan(Blackhole blackhole)
+    {
+        for (String sql : queries) {
+            blackhole.consume(WrenPlanner.rewrite(sql, sessionContext, analyzedMDL));
+        }
+    }
+
+    // a new lineage every time, so the required fields are not found in its cache of the previous invocation
+    @Benchmark
+    public Map<String, ?> requiredFields(NewLineage state)
+    {
+        return state.lineage.getRequiredFields(calculatedFields);
+    }
+
+    /**
+     * @return the slope of the least squares line of log(score) against log(size), which is k of O(n^k).
+     */
+    static double growthExponent(SortedMap<Integer, Double> scores)
+    {
+        int count = scores.size();
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            double x = log(entry.getKey());
+            double y = log(entry.getValue());
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        return (count * sumXY - sumX * sumY) / (count * sumXX - sumX * sumX);
+    }
+
+    static String growthOrder(double exponent)
+    {
+        if (Double.isNaN(exponent)) {
+            return "unknown";
+        }
+        long order = Math.max(0, Math.round(exponent));
+        return switch ((int) order) {
+            case 0 -> "constant";
+            case 1 -> "linear";
+            case 2 -> "quadratic";
+            case 3 -> "cubic";
+            default -> "n^" + order;
+        };
+    }
+
+    /**
+     * @param scores the scores of every size by the phase
+     */
+    static String report(String metric, Map<String, SortedMap<Integer, Double>> scores)
+    {
+        StringBuilder builder = new StringBuilder(format("%-16s", metric));
+        scores.values().stream()
+                .flatMap(sizes -> sizes.keySet().stream())
+                .distinct()
+                .sorted()
+                .forEach(size -> builder.append(format("%14s", size)));
+        builder.append("  growth\n");
+        scores.forEach((phase, sizes) -> {
+            builder.append(format("%-16s", phase));
+            sizes.values().forEach(score -> builder.append(format("%14.3f", score)));
+            double exponent = growthExponent(sizes);
+            builder.append(format("  %s (%.2f)%n", growthOrder(exponent), exponent));
+        });
+        return builder.toString();
+    }
+
+    private static void report(Collection<RunResult> results)
+    {
+        Map<String, SortedMap<Integer, Double>> times = new TreeMap<>();
+        Map<String, SortedMap<Integer, Double>> allocations = new TreeMap<>();
+        String unit = "";
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            String phase = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            int size = Integer.parseInt(result.getParams().getParam("models"));
+            unit = result.getPrimaryResult().getScoreUnit();
+            times.computeIfAbsent(phase, ignored -> new TreeMap<>()).put(size, result.getPrimaryResult().getScore());
+            Result<?> allocation = result.getSecondaryResults().get(ALLOCATION);
+            if (allocation != null) {
+                allocations.computeIfAbsent(phase, ignored -> new TreeMap<>()).put(size, allocation.getScore());
+            }
+        }
+        System.out.println();
+        System.out.println(report(unit, times));
+        if (!allocations.isEmpty()) {
+            System.out.println(report("B/op", allocations));
+        }
+    }
+
+    @Test
+    public void verify()
+            throws IOException
+    {
+        BenchmarkScaling benchmark = new BenchmarkScaling();
+        benchmark.setup();
+        assertThat(benchmark.load().listModels()).hasSize(10);
+        assertThat(benchmark.analyze().getWrenMDL()).isSameAs(benchmark.mdl);
+        NewLineage lineage = new NewLineage();
+        lineage.setup(benchmark);
+        assertThat(benchmark.requiredFields(lineage)).containsKeys(modelName(6), modelName(7), modelName(8), modelName(9));
+
+        SortedMap<Integer, Double> quadratic = new TreeMap<>(Map.of(100, 1.0, 200, 4.0, 400, 16.0));
+        assertThat(growthExponent(quadratic)).isCloseTo(2.0, within(1e-9));
+        assertThat(growthOrder(growthExponent(quadratic))).isEqualTo("quadratic");
+        assertThat(growthOrder(0.1)).isEqualTo("constant");
+        assertThat(growthOrder(1.2)).isEqualTo("linear");
+        assertThat(growthOrder(3.6)).isEqualTo("n^4");
+        assertThat(growthOrder(growthExponent(new TreeMap<>(Map.of(100, 1.0))))).isEqualTo("unknown");
+        assertThat(report("ms/op", Map.of("plan", quadratic)))
+                .contains("plan")
+                .contains("quadratic (2.00)");
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(".*" + BenchmarkScaling.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class);
+        if (args.length > 0) {
+            builder.param("models", args);
+        }
+        Options options = builder.build();
+        report(new Runner(options).run());
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base;
+
+import io.wren.base.dto.View;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+import static io.wren.base.CatalogSchemaTableName.catalogSchemaTableName;
+import static io.wren.base.ManifestGenerator.CATALOG;
+import static io.wren.base.ManifestGenerator.SCHEMA;
+import static io.wren.base.ManifestGenerator.enumName;
+import static io.wren.base.ManifestGenerator.modelName;
+import static io.wren.base.ManifestGenerator.viewName;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@State(Scope.Thread)
+@OutputTimeUnit(NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BenchmarkWrenMDL
+{
+    private static final int COLUMNS = 20;
+    private static final int LOOKUPS = 1024;
+
+    @Param("5000")
+    private int models = 5000;
+
+    private WrenMDL mdl;
+    private String[] objectNames;
+    private String[] columnNames;
+    private String[] enumNames;
+    private CatalogSchemaTableName[] cacheNames;
+
+    @Setup
+    public void setup()
+    {
+        mdl = WrenMDL.fromManifest(new ManifestGenerator()
+                .setModels(models)
+                .setColumns(COLUMNS)
+                .setViews(models)
+                .setEnums(models)
+                .setCachedModels(true)
+                .generate());
+
+        Random random = new Random(42);
+        objectNames = new String[LOOKUPS];
+        columnNames = new String[LOOKUPS];
+        enumNames = new String[LOOKUPS];
+        cacheNames = new CatalogSchemaTableName[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            int index = random.nextInt(models);
+            // half of the lookups are views, which isObjectExist used to check after all other kinds
+            objectNames[i] = i % 2 == 0 ? modelName(index) : viewName(index);
+            columnNames[i] = "c" + random.nextInt(COLUMNS);
+            enumNames[i] = enumName(index);
+            cacheNames[i] = catalogSchemaTableName(CATALOG, SCHEMA, modelName(index));
+        }
+    }
+
+    @Benchmark
+    public void isObjectExist(Blackhole blackhole)
+    {
+        for (String name : objectNames) {
+            blackhole.consume(mdl.isObjectExist(name));
+        }
+    }
+
+    @Benchmark
+    public void getView(Blackhole blackhole)
+    {
+        for (String name : objectNames) {
+            blackhole.consume(mdl.getView(name));
+        }
+    }
+
+    @Benchmark
+    public void getEnum(Blackhole blackhole)
+    {
+        for (String name : enumNames) {
+            blackhole.consume(mdl.getEnum(name));
+        }
+    }
+
+    @Benchmark
+    public void getCacheInfo(Blackhole blackhole)
+    {
+        for (CatalogSchemaTableName name : cacheNames) {
+            blackhole.consume(mdl.getCacheInfo(name));
+        }
+    }
+
+    @Benchmark
+    public void getColumnType(Blackhole blackhole)
+    {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(mdl.getColumnType(objectNames[i], columnNames[i]));
+        }
+    }
+
+    @Test
+    public void verify()
+    {
+        BenchmarkWrenMDL benchmark = new BenchmarkWrenMDL();
+        benchmark.models = 100;
+        benchmark.setup();
+        WrenMDL mdl = benchmark.mdl;
+        for (int i = 0; i < LOOKUPS; i++) {
+            String name = benchmark.objectNames[i];
+            boolean isView = name.startsWith("view_");
+            assertThat(mdl.isObjectExist(name)).isTrue();
+            assertThat(mdl.getView(name).map(View::getName)).isEqualTo(isView ? Optional.of(name) : Optional.empty());
+            assertThat(mdl.getColumnType(name, benchmark.columnNames[i])).isEqualTo(isView ? Optional.empty() : Optional.of("integer"));
+            assertThat(mdl.getEnum(benchmark.enumNames[i])).isPresent();
+            String cacheName = benchmark.cacheNames[i].getSchemaTableName().getTableName();
+            assertThat(mdl.getCacheInfo(benchmark.cacheNames[i]).isPresent()).isEqualTo(mdl.getModel(cacheName).orElseThrow().isCached());
+        }
+        assertThat(mdl.isObjectExist("not_found")).isFalse();
+        assertThat(mdl.getColumnType(modelName(0), "not_found")).isEmpty();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkWrenMDL.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.CumulativeMetric;
+import io.wren.base.dto.EnumDefinition;
+import io.wren.base.dto.JoinType;
+import io.wren.base.dto.Macro;
+import io.wren.base.dto.Manifest;
+import io.wren.base.dto.Measure;
+import io.wren.base.dto.Metric;
+import io.wren.base.dto.Model;
+import io.wren.base.dto.Relationship;
+import io.wren.base.dto.TimeGrain;
+import io.wren.base.dto.TimeUnit;
+import io.wren.base.dto.View;
+import io.wren.base.dto.Window;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.wren.base.dto.EnumValue.enumValue;
+import static java.lang.String.format;
+
+/**
+ * Generate valid manifests of any size for the benchmarks. The models form a to-one chain: model_i refers to model_(i-1)
+ * by the column parent. The shape of the manifest is configured by
+ * <ul>
+ *     <li>columns: the plain columns c0, c1, ... of a model. c0 is the primary key and c1 is the join key of parent.</li>
+ *     <li>calculatedFields: the calculated fields parent_c0, parent_c1, ... of a model.</li>
+ *     <li>calculatedFieldDepth: a model also has ancestor_2_c0 = parent.parent.c0 and so on up to the depth.</li>
+ *     <li>toManyRelationships: model_i also has many model_(i-1) by the column children, and children_total = sum(children.c1).</li>
+ *     <li>diamonds: every even model also refers to model_(i-2) by the column grandparent, so it reaches model_(i-2) by two paths.</li>
+ *     <li>metrics, cumulativeMetrics: spread evenly over the models. A metric has the dimension c1 and the measure total = sum(c2).</li>
+ *     <li>views: a view on a metric, or on a model if there is no metric, and every odd view is on the previous view.</li>
+ *     <li>macros: macro_k adds 1 to macro_(k-1), and the columns from c2 on are rendered by them.</li>
+ *     <li>enums: the enums enum_0, enum_1, ... besides Status, which the column status uses.</li>
+ *     <li>cachedModels: every even model is cached.</li>
+ * </ul>
+ * All relationships go from a model to the models before it, so the models don't depend on each other in a cycle.
+ */
+public class ManifestGenerator
+{
+    public static final String CATALOG = "wren";
+    public static final String SCHEMA = "benchmark";
+
+    private int models = 10;
+    private int columns = 10;
+    private int calculatedFields = 1;
+    private int calculatedFieldDepth = 1;
+    private boolean toManyRelationships;
+    private boolean diamonds;
+    private int metrics;
+    private int cumulativeMetrics;
+    private int views;
+    private int macros;
+    private int enums;
+    private boolean cachedModels;
+
+    public ManifestGenerator setModels(int models)
+    {
+        checkArgument(models > 0, "models must be positive");
+        this.models = models;
+        return this;
+    }
+
+    public ManifestGenerator setColumns(int columns)
+    {
+        checkArgument(columns >= 3, "a model requires at least 3 columns");
+        this.columns = columns;
+        return this;
+    }
+
+    public ManifestGenerator setCalculatedFields(int calculatedFields)
+    {
+        checkArgument(calculatedFields >= 0, "calculatedFields is negative");
+        this.calculatedFields = calculatedFields;
+        return this;
+    }
+
+    public ManifestGenerator setCalculatedFieldDepth(int calculatedFieldDepth)
+    {
+        checkArgument(calculatedFieldDepth > 0, "calculatedFieldDepth must be positive");
+        this.calculatedFieldDepth = calculatedFieldDepth;
+        return this;
+    }
+
+    public ManifestGenerator setToManyRelationships(boolean toManyRelationships)
+    {
+        this.toManyRelationships = toManyRelationships;
+        return this;
+    }
+
+    public ManifestGenerator setDiamonds(boolean diamonds)
+    {
+        this.diamonds = diamonds;
+        return this;
+    }
+
+    public ManifestGenerator setMetrics(int metrics)
+    {
+        checkArgument(metrics >= 0, "metrics is negative");
+        this.metrics = metrics;
+        return this;
+    }
+
+    public ManifestGenerator setCumulativeMetrics(int cumulativeMetrics)
+    {
+        checkArgument(cumulativeMetrics >= 0, "cumulativeMetrics is negative");
+        this.cumulativeMetrics = cumulativeMetrics;
+        return this;
+    }
+
+    public ManifestGenerator setViews(int views)
+    {
+        checkArgument(views >= 0, "views is negative");
+        this.views = views;
+        return this;
+    }
+
+    public ManifestGenerator setMacros(int macros)
+    {
+        checkArgument(macros >= 0, "macros is negative");
+        this.macros = macros;
+        return this;
+    }
+
+    public ManifestGenerator setEnums(int enums)
+    {
+        checkArgument(enums >= 0, "enums is negative");
+        this.enums = enums;
+        return this;
+    }
+
+    public ManifestGenerator setCachedModels(boolean cachedModels)
+    {
+        this.cachedModels = cachedModels;
+        return this;
+    }
+
+    public int getModels()
+    {
+        return models;
+    }
+
+    public Manifest generate()
+    {
+        checkArgument(calculatedFields <= columns, "calculatedFields is more than columns");
+        checkArgument(metrics <= models, "metrics is more than models");
+        checkArgument(cumulativeMetrics <= models, "cumulativeMetrics is more than models");
+
+        List<Model> modelList = new ArrayList<>();
+        List<Relationship> relationships = new ArrayList<>();
+        for (int i = 0; i < models; i++) {
+            modelList.add(new Model(modelName(i), "SELECT * FROM main.table_" + i, null, null, modelColumns(i), "c0", cachedModels && i % 2 == 0, null, ImmutableMap.of()));
+            if (i > 0) {
+                relationships.add(Relationship.relationship(parentRelationship(i), List.of(modelName(i), modelName(i - 1)), JoinType.MANY_TO_ONE,
+                        format("%s.c1 = %s.c0", modelName(i), modelName(i - 1))));
+            }
+            if (toManyRelationships && i > 0) {
+                relationships.add(Relationship.relationship(childrenRelationship(i), List.of(modelName(i), modelName(i - 1)), JoinType.ONE_TO_MANY,
+                        format("%s.c0 = %s.c2", modelName(i), modelName(i - 1))));
+            }
+            if (hasGrandparent(i)) {
+                relationships.add(Relationship.relationship(grandparentRelationship(i), List.of(modelName(i), modelName(i - 2)), JoinType.MANY_TO_ONE,
+                        format("%s.c2 = %s.c0", modelName(i), modelName(i - 2))));
+            }
+        }
+
+        List<Metric> metricList = new ArrayList<>();
+        for (int k = 0; k < metrics; k++) {
+            metricList.add(Metric.metric(metricName(k), modelName(spread(k, metrics)),
+                    List.of(Column.column("c1", WrenTypes.INTEGER, null, false)),
+                    List.of(Column.column("total", WrenTypes.BIGINT, null, false, "sum(c2)")),
+                    List.of(TimeGrain.timeGrain("order_date", "order_date", List.of(TimeUnit.DAY, TimeUnit.MONTH, TimeUnit.YEAR)))));
+        }
+
+        List<CumulativeMetric> cumulativeMetricList = new ArrayList<>();
+        for (int k = 0; k < cumulativeMetrics; k++) {
+            cumulativeMetricList.add(CumulativeMetric.cumulativeMetric(cumulativeMetricName(k), modelName(spread(k, cumulativeMetrics)),
+                    Measure.measure("total", WrenTypes.BIGINT, "sum", "c2"),
+                    Window.window("order_date", "order_date", TimeUnit.MONTH, "2024-01-01", "2024-12-31")));
+        }
+
+        List<View> viewList = new ArrayList<>();
+        for (int k = 0; k < views; k++) {
+            String statement;
+            if (k % 2 == 1) {
+                statement = format("SELECT * FROM %s WHERE c1 > 0", viewName(k - 1));
+            }
+            else if (metrics > 0) {
+                statement = format("SELECT c1, total FROM %s", metricName(k % metrics));
+            }
+            else {
+                statement = format("SELECT c0, c1 FROM %s", modelName(k % models));
+            }
+            viewList.add(View.view(viewName(k), statement));
+        }
+
+        List<Macro> macroList = new ArrayList<>();
+        for (int k = 0; k < macros; k++) {
+            macroList.add(Macro.macro(macroName(k), k == 0 ? "(a: Expression) => {{ a }} + 1" : format("(a: Expression) => {{ %s(a) }} + 1", macroName(k - 1))));
+        }
+
+        List<EnumDefinition> enumList = new ArrayList<>();
+        enumList.add(EnumDefinition.enumDefinition("Status", List.of(enumValue("ACTIVE"), enumValue("INACTIVE"))));
+        for (int k = 0; k < enums; k++) {
+            enumList.add(EnumDefinition.enumDefinition(enumName(k), List.of(enumValue("A"), enumValue("B"))));
+        }
+
+        return Manifest.builder()
+                .setCatalog(CATALOG)
+                .setSchema(SCHEMA)
+                .setModels(modelList)
+                .setRelationships(relationships)
+                .setMetrics(metricList)
+                .setCumulativeMetrics(cumulativeMetricList)
+                .setViews(viewList)
+                .setMacros(macroList)
+                .setEnumDefinitions(enumList)
+                .build();
+    }
+
+    private List<Column> modelColumns(int i)
+    {
+        List<Column> columnList = new ArrayList<>();
+        for (int j = 0; j < columns; j++) {
+            String expression = j >= 2 && macros > 0 ? format("{{ %s('c_%s') }}", macroName(j % macros), j) : "c_" + j;
+            columnList.add(Column.column("c" + j, WrenTypes.INTEGER, null, false, expression));
+        }
+        columnList.add(Column.column("status", "Status", null, false));
+        columnList.add(Column.column("order_date", WrenTypes.DATE, null, false));
+        if (i > 0) {
+            columnList.add(Column.column("parent", modelName(i - 1), parentRelationship(i), false));
+            for (int j = 0; j < calculatedFields; j++) {
+                columnList.add(Column.caluclatedColumn("parent_c" + j, WrenTypes.INTEGER, "parent.c" + j));
+            }
+        }
+        for (int depth = 2; depth <= calculatedFieldDepth && depth <= i; depth++) {
+            columnList.add(Column.caluclatedColumn(format("ancestor_%s_c0", depth), WrenTypes.INTEGER, "parent.".repeat(depth) + "c0"));
+        }
+        if (toManyRelationships && i > 0) {
+            columnList.add(Column.column("children", modelName(i - 1), childrenRelationship(i), false));
+            columnList.add(Column.caluclatedColumn("children_total", WrenTypes.BIGINT, "sum(children.c1)"));
+        }
+        if (hasGrandparent(i)) {
+            columnList.add(Column.column("grandparent", modelName(i - 2), grandparentRelationship(i), false));
+            columnList.add(Column.caluclatedColumn("grandparent_c0", WrenTypes.INTEGER, "grandparent.c0"));
+        }
+        return columnList;
+    }
+
+    private boolean hasGrandparent(int i)
+    {
+        return diamonds && i >= 2 && i % 2 == 0;
+    }
+
+    /**
+     * The calculated fields of a model, which are the deepest fields of the lineage.
+     */
+    public List<String> calculatedFields(int i)
+    {
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        if (i > 0) {
+            for (int j = 0; j < calculatedFields; j++) {
+                builder.add("parent_c" + j);
+            }
+        }
+        for (int depth = 2; depth <= calculatedFieldDepth && depth <= i; depth++) {
+            builder.add(format("ancestor_%s_c0", depth));
+        }
+        if (toManyRelationships && i > 0) {
+            builder.add("children_total");
+        }
+        if (hasGrandparent(i)) {
+            builder.add("grandparent_c0");
+        }
+        return builder.build();
+    }
+
+    /**
+     * The queries on the objects at the end of the manifest, which are the last ones found by a linear search.
+     */
+    public List<String> queries()
+    {
+        int last = models - 1;
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        List<String> selected = ImmutableList.<String>builder()
+                .add("c0")
+                .addAll(calculatedFields(last))
+                .build();
+        builder.add(format("SELECT %s FROM %s WHERE status = Status.ACTIVE", String.join(", ", selected), modelName(last)));
+        if (models > 1) {
+            builder.add(format("SELECT m.c0, p.c2 FROM %s m JOIN %s p ON m.c1 = p.c0", modelName(last), modelName(last - 1)));
+        }
+        if (cumulativeMetrics > 0) {
+            builder.add(format("SELECT * FROM %s", cumulativeMetricName(cumulativeMetrics - 1)));
+        }
+        if (views > 0) {
+            builder.add(format("SELECT * FROM %s WHERE c1 > 10", viewName(views - 1)));
+        }
+        return builder.build();
+    }
+
+    public String rollUpQuery()
+    {
+        checkArgument(metrics > 0, "there is no metric to roll up");
+        return format("SELECT * FROM roll_up(%s, order_date, MONTH)", metricName(metrics - 1));
+    }
+
+    // the k-th of n objects is on the model k * models / n
+    private int spread(int k, int n)
+    {
+        return (int) ((long) k * models / n);
+    }
+
+    public static String modelName(int i)
+    {
+        return "model_" + i;
+    }
+
+    public static String metricName(int k)
+    {
+        return "metric_" + k;
+    }
+
+    public static String cumulativeMetricName(int k)
+    {
+        return "cumulative_metric_" + k;
+    }
+
+    public static String viewName(int k)
+    {
+        return "view_" + k;
+    }
+
+    public static String macroName(int k)
+    {
+        return "macro_" + k;
+    }
+
+    public static String enumName(int k)
+    {
+        return "enum_" + k;
+    }
+
+    private static String parentRelationship(int i)
+    {
+        return format("%s_%s", modelName(i), modelName(i - 1));
+    }
+
+    private static String childrenRelationship(int i)
+    {
+        return format("%s_children", modelName(i));
+    }
+
+    private static String grandparentRelationship(int i)
+    {
+        return format("%s_%s", modelName(i), modelName(i - 2));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base;
+
+import io.wren.base.dto.Manifest;
+
+import java.util.List;
+
+/**
+ * The manifests of the benchmarks. Every model refers to the previous one by a relationship and a calculated field,
+ * and every tenth model has a metric and a view. The queries and the roll-up query go through all rules of the planner.
+ */
+public enum ManifestSize
+{
+    SMALL(10),
+    MEDIUM(200),
+    HUGE(3000);
+
+    private static final int COLUMNS = 20;
+    private static final int METRIC_INTERVAL = 10;
+
+    private final ManifestGenerator generator;
+
+    ManifestSize(int models)
+    {
+        int metrics = (models + METRIC_INTERVAL - 1) / METRIC_INTERVAL;
+        this.generator = new ManifestGenerator()
+                .setModels(models)
+                .setColumns(COLUMNS)
+                .setMetrics(metrics)
+                .setViews(metrics);
+    }
+
+    public int getModels()
+    {
+        return generator.getModels();
+    }
+
+    public Manifest manifest()
+    {
+        return generator.generate();
+    }
+
+    public List<String> queries()
+    {
+        return generator.queries();
+    }
+
+    public String rollUpQuery()
+    {
+        return generator.rollUpQuery();
+    }
+}
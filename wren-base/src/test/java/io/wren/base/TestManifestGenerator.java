@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base;
+
+import io.trino.sql.tree.QualifiedName;
+import io.wren.base.dto.Manifest;
+import io.wren.base.sqlrewrite.WrenDataLineage;
+import io.wren.base.sqlrewrite.WrenPlanner;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static io.wren.base.ManifestGenerator.modelName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestManifestGenerator
+{
+    private static final SessionContext SESSION_CONTEXT = SessionContext.builder()
+            .setCatalog(ManifestGenerator.CATALOG)
+            .setSchema(ManifestGenerator.SCHEMA)
+            .build();
+
+    private final ManifestGenerator generator = new ManifestGenerator()
+            .setModels(9)
+            .setColumns(5)
+            .setCalculatedFields(2)
+            .setCalculatedFieldDepth(3)
+            .setToManyRelationships(true)
+            .setDiamonds(true)
+            .setMetrics(3)
+            .setCumulativeMetrics(2)
+            .setViews(4)
+            .setMacros(2);
+
+    @Test
+    public void testGenerate()
+    {
+        Manifest manifest = generator.generate();
+        assertThat(manifest.getModels()).hasSize(9);
+        // a to-one and a to-many chain of 8 relationships, and a diamond on every even model from model_2
+        assertThat(manifest.getRelationships()).hasSize(8 + 8 + 4);
+        assertThat(manifest.getMetrics()).hasSize(3);
+        assertThat(manifest.getCumulativeMetrics()).hasSize(2);
+        assertThat(manifest.getViews()).hasSize(4);
+        assertThat(manifest.getMacros()).hasSize(2);
+
+        WrenMDL mdl = WrenMDL.fromManifest(manifest);
+        assertThat(mdl.getModel(modelName(4)).orElseThrow().getColumns())
+                .extracting("name")
+                .containsExactly("c0", "c1", "c2", "c3", "c4", "status", "order_date", "parent", "parent_c0", "parent_c1",
+                        "ancestor_2_c0", "ancestor_3_c0", "children", "children_total", "grandparent", "grandparent_c0");
+        // c3 is rendered by macro_1, which calls macro_0
+        assertThat(mdl.getModel(modelName(4)).orElseThrow().getColumns().get(3).getExpression()).hasValue("c_3 + 1 + 1");
+        assertThat(generator.calculatedFields(4)).containsExactly("parent_c0", "parent_c1", "ancestor_2_c0", "ancestor_3_c0", "children_total", "grandparent_c0");
+        assertThat(generator.calculatedFields(0)).isEmpty();
+        assertThat(generator.calculatedFields(3)).containsExactly("parent_c0", "parent_c1", "ancestor_2_c0", "ancestor_3_c0", "children_total");
+    }
+
+    @Test
+    public void testLineage()
+    {
+        WrenDataLineage lineage = WrenDataLineage.analyze(WrenMDL.fromManifest(generator.generate()));
+        assertThat(lineage.getRequiredFields(List.of(QualifiedName.of(modelName(4), "ancestor_3_c0"))).keySet())
+                .containsExactlyInAnyOrder(modelName(1), modelName(2), modelName(3), modelName(4));
+        assertThat(lineage.getRequiredFields(List.of(QualifiedName.of(modelName(4), "grandparent_c0"))).keySet())
+                .containsExactlyInAnyOrder(modelName(2), modelName(4));
+        assertThat(lineage.getRequiredFields(List.of(QualifiedName.of(modelName(4), "children_total"))).keySet())
+                .containsExactlyInAnyOrder(modelName(3), modelName(4));
+    }
+
+    @Test
+    public void testPlan()
+    {
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(WrenMDL.fromManifest(generator.generate()), null);
+        assertThat(generator.queries()).hasSize(4);
+        for (String sql : generator.queries()) {
+            assertThat(WrenPlanner.rewrite(sql, SESSION_CONTEXT, analyzedMDL)).isNotBlank();
+        }
+        assertThat(WrenPlanner.rewrite(generator.rollUpQuery(), SESSION_CONTEXT, analyzedMDL)).isNotBlank();
+        for (int i = 1; i < generator.getModels(); i++) {
+            String sql = String.format("SELECT %s FROM %s", String.join(", ", generator.calculatedFields(i)), modelName(i));
+            assertThat(WrenPlanner.rewrite(sql, SESSION_CONTEXT, analyzedMDL)).isNotBlank();
+        }
+    }
+
+    @Test
+    public void testInvalidConfig()
+    {
+        assertThatThrownBy(() -> new ManifestGenerator().setColumns(2))
+                .hasMessage("a model requires at least 3 columns");
+        assertThatThrownBy(() -> new ManifestGenerator().setColumns(3).setCalculatedFields(4).generate())
+                .hasMessage("calculatedFields is more than columns");
+        assertThatThrownBy(() -> new ManifestGenerator().setModels(2).setMetrics(3).generate())
+                .hasMessage("metrics is more than models");
+        assertThatThrownBy(() -> new ManifestGenerator().rollUpQuery())
+                .hasMessage("there is no metric to roll up");
+    }
+}
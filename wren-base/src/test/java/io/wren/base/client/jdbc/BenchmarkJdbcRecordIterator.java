@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.client.jdbc;
+
+import io.wren.base.client.duckdb.DuckDBConfig;
+import io.wren.base.client.duckdb.DuckDBSettingSQL;
+import io.wren.base.client.duckdb.DuckdbClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scan a million rows of DuckDB by {@link JdbcRecordIterator}, whose column readers are chosen once per result set,
+ * and by reading the metadata of every cell as it used to. Run the main method to report the allocation as well.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BenchmarkJdbcRecordIterator
+{
+    @Param("1000000")
+    private int rows = 1_000_000;
+
+    private DuckdbClient client;
+    private String sql;
+
+    @Setup
+    public void setup()
+    {
+        client = new DuckdbClient(new DuckDBConfig(), new DuckDBSettingSQL());
+        sql = format("""
+                SELECT range AS id,
+                       CAST(range %% 100 AS SMALLINT) AS quantity,
+                       CASE WHEN range %% 10 = 0 THEN NULL ELSE CAST(range %% 7 AS SMALLINT) END AS discount,
+                       'name_' || range AS name,
+                       range * 0.5 AS price,
+                       DATE '2024-01-01' + CAST(range %% 365 AS INTEGER) AS day
+                FROM range(%s)""", rows);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        client.close();
+    }
+
+    @Benchmark
+    public void scanCompiled(Blackhole blackhole)
+            throws Exception
+    {
+        scanCompiled(blackhole::consume);
+    }
+
+    @Benchmark
+    public void scanPerCellMetadata(Blackhole blackhole)
+            throws SQLException
+    {
+        scanPerCellMetadata(blackhole::consume);
+    }
+
+    private void scanCompiled(Consumer<Object[]> consumer)
+            throws Exception
+    {
+        try (JdbcRecordIterator iterator = JdbcRecordIterator.of(client, sql)) {
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+            }
+        }
+    }
+
+    private void scanPerCellMetadata(Consumer<Object[]> consumer)
+            throws SQLException
+    {
+        try (Connection connection = client.createConnection();
+                PreparedStatement statement = connection.prepareStatement(sql);
+                ResultSet resultSet = statement.executeQuery()) {
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                List<Object> builder = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    if (resultSet.getMetaData().getColumnType(i) == Types.BLOB) {
+                        Blob blob = resultSet.getBlob(i);
+                        builder.add(blob == null ? null : blob.getBytes(1, (int) blob.length()));
+                    }
+                    else if (resultSet.getMetaData().getColumnType(i) == Types.SMALLINT) {
+                        short value = resultSet.getShort(i);
+                        builder.add(resultSet.wasNull() ? null : value);
+                    }
+                    else {
+                        builder.add(resultSet.getObject(i));
+                    }
+                }
+                consumer.accept(builder.toArray());
+            }
+        }
+    }
+
+    @Test
+    public void verify()
+            throws Exception
+    {
+        BenchmarkJdbcRecordIterator benchmark = new BenchmarkJdbcRecordIterator();
+        benchmark.rows = 1000;
+        benchmark.setup();
+        try {
+            List<Object[]> compiled = new ArrayList<>();
+            benchmark.scanCompiled(compiled::add);
+            List<Object[]> perCellMetadata = new ArrayList<>();
+            benchmark.scanPerCellMetadata(perCellMetadata::add);
+            assertThat(compiled).hasSize(1000).containsExactlyElementsOf(perCellMetadata);
+            assertThat(compiled.get(1)).startsWith(1L, (short) 1, (short) 1, "name_1");
+            assertThat(compiled.get(10)[2]).isNull();
+        }
+        finally {
+            benchmark.tearDown();
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkJdbcRecordIterator.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.airlift.json.ObjectMapperProvider;
+import io.wren.base.ManifestGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static io.wren.base.dto.Manifest.MANIFEST_JSON_CODEC;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare decoding a large manifest from json and from Smile. Run the main method to report the allocation as well.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BenchmarkManifestDecoding
+{
+    private static final int COLUMNS = 20;
+    // the same configuration as the readers of WrenMDL
+    private static final ObjectReader JSON_READER = new ObjectMapper().disable(FAIL_ON_UNKNOWN_PROPERTIES).readerFor(Manifest.class);
+    private static final ObjectReader SMILE_READER = new ObjectMapper(new SmileFactory()).disable(FAIL_ON_UNKNOWN_PROPERTIES).readerFor(Manifest.class);
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapperProvider(new SmileFactory()).get();
+
+    @Param("3000")
+    private int models = 3000;
+
+    private Manifest manifest;
+    private byte[] json;
+    private byte[] smile;
+
+    @Setup
+    public void setup()
+            throws IOException
+    {
+        manifest = new ManifestGenerator()
+                .setModels(models)
+                .setColumns(COLUMNS)
+                .generate();
+        json = MANIFEST_JSON_CODEC.toJsonBytes(manifest);
+        smile = SMILE_MAPPER.writeValueAsBytes(manifest);
+    }
+
+    @Benchmark
+    public Manifest decodeJson()
+            throws IOException
+    {
+        return JSON_READER.readValue(json);
+    }
+
+    @Benchmark
+    public Manifest decodeSmile()
+            throws IOException
+    {
+        return SMILE_READER.readValue(smile);
+    }
+
+    @Test
+    public void verify()
+            throws IOException
+    {
+        BenchmarkManifestDecoding benchmark = new BenchmarkManifestDecoding();
+        benchmark.models = 10;
+        benchmark.setup();
+        // the values of the enums are decoded as their names, so compare the models
+        assertThat(benchmark.decodeJson().getModels()).isEqualTo(benchmark.manifest.getModels());
+        assertThat(benchmark.decodeSmile()).isEqualTo(benchmark.decodeJson());
+        assertThat(benchmark.smile.length).isLessThan(benchmark.json.length);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkManifestDecoding.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -14,6 +14,7 @@
 
 package io.wren.base.dto;
 
+import io.wren.base.WrenException;
 import io.wren.base.WrenMDL;
 import io.wren.base.WrenTypes;
 import io.wren.base.macro.ParsingException;
@@ -21,9 +22,13 @@ import org.testng.annotations.Test;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.IntStream;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.wren.base.macro.Parameter.expressionType;
 import static io.wren.base.macro.Parameter.macroType;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -159,4 +164,44 @@ public class TestMacro
         assertThat(modelOptional.get().getColumns().get(2).getExpression().get()).isEqualTo("standardTime");
         assertThat(modelOptional.get().getColumns().get(2).getExpression().get()).isEqualTo("standardTime");
     }
+
+    @Test
+    public void testRenderInParallel()
+    {
+        List<Macro> macros = List.of(
+                Macro.macro("addOne", "(text: Expression) => {{ text }} + 1"),
+                Macro.macro("pass1Macro", "(text: Expression, rule: Macro) => {{rule(text)}}"));
+        Manifest manifest = Manifest.builder()
+                .setCatalog("test")
+                .setSchema("test")
+                .setModels(IntStream.range(0, 100)
+                        .mapToObj(i -> Model.model("Model" + i,
+                                "select * from main.customer",
+                                List.of(
+                                        Column.column("custkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("custkey_addOne", WrenTypes.INTEGER, null, true, "{{addOne('custkey')}}"),
+                                        Column.column("custkey_pass1Macro", WrenTypes.INTEGER, null, true, "{{pass1Macro('custkey', addOne)}}"))))
+                        .collect(toImmutableList()))
+                .setMetrics(List.of(Metric.metric("Metric", "Model0",
+                        List.of(Column.column("custkey", WrenTypes.INTEGER, null, true, "{{addOne('custkey')}}")),
+                        List.of(Column.column("count", WrenTypes.INTEGER, null, true, "count(*)")))))
+                .setMacros(macros)
+                .build();
+
+        ExecutorService executor = newFixedThreadPool(4);
+        try {
+            assertThat(WrenMDL.fromManifest(manifest, executor).getManifest()).isEqualTo(WrenMDL.fromManifest(manifest).getManifest());
+
+            Manifest invalid = Manifest.builder(manifest)
+                    .setModels(List.of(Model.model("Invalid", "select 1", List.of(Column.column("a", WrenTypes.INTEGER, null, true, "{{ addOne('a') }}}}")))))
+                    .setMetrics(List.of())
+                    .build();
+            assertThatThrownBy(() -> WrenMDL.fromManifest(invalid, executor))
+                    .isInstanceOf(WrenException.class)
+                    .hasMessageContaining("Unmatched }}");
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.dto;
+
+import io.wren.base.WrenException;
+import io.wren.base.WrenTypes;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static io.wren.base.dto.Manifest.MANIFEST_JSON_CODEC;
+import static io.wren.base.dto.ManifestDelta.MANIFEST_DELTA_JSON_CODEC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestManifestDelta
+{
+    private final Model orders = Model.model("Orders", "select * from main.orders", List.of(Column.column("orderkey", WrenTypes.INTEGER, null, true)), "orderkey");
+    private final Model customer = Model.model("Customer", "select * from main.customer", List.of(Column.column("custkey", WrenTypes.INTEGER, null, true)), "custkey");
+    private final Model lineitem = Model.model("Lineitem", "select * from main.lineitem", List.of(Column.column("orderkey", WrenTypes.INTEGER, null, true)));
+    private final Manifest manifest = Manifest.builder()
+            .setCatalog("wren")
+            .setSchema("test")
+            .setModels(List.of(orders, customer))
+            .setViews(List.of(View.view("view1", "select * from Orders")))
+            .setMacros(List.of(Macro.macro("addOne", "(a: Expression) => {{ a }} + 1")))
+            .build();
+
+    @Test
+    public void testApply()
+    {
+        Model changedOrders = Model.model("Orders", "select * from main.orders", List.of(Column.column("orderkey", WrenTypes.BIGINT, null, true)), "orderkey");
+        ManifestDelta delta = ManifestDelta.builder()
+                .setModels(List.of(lineitem, changedOrders))
+                .setRemovedViews(List.of("view1"))
+                .setMacros(List.of(Macro.macro("addTwo", "(a: Expression) => {{ a }} + 2")))
+                .build();
+        Manifest applied = delta.apply(manifest);
+        // the changed object stays in its place, and the added one is appended
+        assertThat(applied.getModels()).containsExactly(changedOrders, customer, lineitem);
+        assertThat(applied.getViews()).isEmpty();
+        assertThat(applied.getMacros()).extracting(Macro::getName).containsExactly("addOne", "addTwo");
+        assertThat(applied.getCatalog()).isEqualTo("wren");
+        assertThat(applied.getSchema()).isEqualTo("test");
+
+        assertThat(ManifestDelta.builder().build().apply(manifest)).isEqualTo(manifest);
+    }
+
+    @Test
+    public void testInvalidDelta()
+    {
+        assertThatThrownBy(() -> ManifestDelta.builder().setRemovedModels(List.of("notFound")).build().apply(manifest))
+                .isInstanceOf(WrenException.class)
+                .hasMessage("model not found: notFound");
+        assertThatThrownBy(() -> ManifestDelta.builder().setModels(List.of(lineitem, lineitem)).build().apply(manifest))
+                .isInstanceOf(WrenException.class)
+                .hasMessage("duplicate model in delta: Lineitem");
+        assertThatThrownBy(() -> ManifestDelta.builder().setModels(List.of(orders)).setRemovedModels(List.of("Orders")).build().apply(manifest))
+                .isInstanceOf(WrenException.class)
+                .hasMessage("model is both changed and removed: Orders");
+    }
+
+    @Test
+    public void testSerDe()
+    {
+        ManifestDelta delta = ManifestDelta.builder()
+                .setModels(List.of(lineitem))
+                .setRelationships(List.of(Relationship.relationship("OrdersLineitem", List.of("Orders", "Lineitem"), JoinType.ONE_TO_MANY, "Orders.orderkey = Lineitem.orderkey")))
+                .setRemovedModels(List.of("Customer"))
+                .build();
+        assertThat(MANIFEST_DELTA_JSON_CODEC.fromJson(MANIFEST_DELTA_JSON_CODEC.toJson(delta))).isEqualTo(delta);
+        assertThat(MANIFEST_JSON_CODEC.fromJson(MANIFEST_JSON_CODEC.toJson(delta.apply(manifest)))).isEqualTo(delta.apply(manifest));
+    }
+}
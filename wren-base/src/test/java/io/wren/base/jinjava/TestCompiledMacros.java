@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.jinjava;
+
+import com.google.common.collect.ImmutableMap;
+import com.hubspot.jinjava.Jinjava;
+import io.wren.base.dto.Macro;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static io.wren.base.macro.Parameter.TYPE.MACRO;
+import static java.util.stream.Collectors.joining;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestCompiledMacros
+{
+    private static final Jinjava JINJAVA = new Jinjava();
+
+    private final List<Macro> macros = List.of(
+            Macro.macro("standardTime", "() => standardTime"),
+            Macro.macro("callStandardTime", "() => {{ standardTime() }}"),
+            Macro.macro("addOne", "(a: Expression) => {{ a }} + 1"),
+            Macro.macro("addTwo", "(a: Expression) => {{a}} + 2"),
+            Macro.macro("callAddOne", "(a: Expression) => {{ addOne(a) }} + 3"),
+            Macro.macro("concat", "(a: Expression, b: Expression) => {{ a }} || {{ b }}"),
+            Macro.macro("addPrefixOne", "(text: Expression) => {{ concat(\"'1'\", text) }}"),
+            Macro.macro("nested", "(a: Expression) => {{ concat(addOne(a), addTwo( a )) }}"),
+            Macro.macro("undefined", "(a: Expression) => {{ b }}-{{ a }}"),
+            Macro.macro("passMacro", "(a: Expression, f: Macro) => {{ f(a) }} + 4"),
+            Macro.macro("conditional", "(a: Expression) => {% if a %}{{ a }}{% endif %} + 5"),
+            Macro.macro("filter", "(a: Expression) => {{ a | upper }}"),
+            Macro.macro("addOne", "(a: Expression) => {{ a }} + 1 + 1"));
+
+    @DataProvider
+    public Object[][] sources()
+    {
+        return new Object[][] {
+                {"custkey"},
+                {"  custkey + 1 "},
+                {""},
+                {"{{ addOne('custkey') }}"},
+                {"  {{ addOne('custkey') }} * 2"},
+                {"{{addTwo(\"sum(custkey)\")}}"},
+                {"{{ addOne(1) }} + {{ addTwo(007) }}"},
+                {"{{ callAddOne('custkey') }}"},
+                {"{{ concat('custkey', 'name') }}"},
+                {"{{ concat('custkey') }}"},
+                {"{{ addPrefixOne('custkey') }}"},
+                {"{{ nested('custkey') }}"},
+                {"{{ standardTime() }}"},
+                {"{{ callStandardTime() }}"},
+                {"{{ undefined('custkey') }}"},
+                {"{{ custkey }}"},
+                {"case when a = '{' then '}' end"},
+                {"  {{ addOne(' custkey') }}"},
+                {"  {{ '' }}  x"},
+        };
+    }
+
+    @DataProvider
+    public Object[][] fallbackSources()
+    {
+        return new Object[][] {
+                {"{{ addOne('a', 'b') }}"},
+                {"{{ conditional('custkey') }}"},
+                {"{{ filter('custkey') }}"},
+                {"{{ addOne('custkey') + 1 }}"},
+                {"{{- addOne('custkey') }}"},
+                {"{% if true %}custkey{% endif %}"},
+                {"{# comment #}custkey"},
+                // jinjava fails to render it as well
+                {"{{ notFound('custkey') }}"},
+        };
+    }
+
+    @Test(dataProvider = "sources")
+    public void testRenderSameAsJinjava(String source)
+    {
+        String macroTags = macros.stream()
+                .filter(macro -> macro.getParameters().stream().noneMatch(parameter -> parameter.getType() == MACRO))
+                .map(JinjavaUtils::getMacroTag).collect(joining("\n"));
+        String expected = JINJAVA.render(macroTags + source, ImmutableMap.of());
+        assertThat(CompiledMacros.compile(macros).render(source)).hasValue(expected);
+    }
+
+    @Test(dataProvider = "fallbackSources")
+    public void testFallBackToJinjava(String source)
+    {
+        assertThat(CompiledMacros.compile(macros).render(source)).isEmpty();
+    }
+
+    @Test
+    public void testRender()
+    {
+        CompiledMacros compiled = CompiledMacros.compile(macros);
+        assertThat(compiled.render("{{ addPrefixOne('custkey') }}")).hasValue("'1' || custkey");
+        assertThat(compiled.render("  {{ nested('custkey') }}")).hasValue("custkey + 1 + 1 || custkey + 2");
+        assertThat(compiled.render("{{ undefined('custkey') }}")).hasValue("-custkey");
+        // left to jinjava
+        assertThat(compiled.render("{{ conditional('custkey') }}")).isEmpty();
+        assertThat(compiled.render("{{ addOne('custkey') + 1 }}")).isEmpty();
+        assertThat(compiled.render("{% if true %}custkey{% endif %}")).isEmpty();
+
+        assertThat(CompiledMacros.compile(List.of()).render("  custkey")).hasValue("  custkey");
+        assertThat(CompiledMacros.compile(List.of(Macro.macro("broken", "() => {% if %}"))).render("{{ broken() }}")).isEmpty();
+    }
+}
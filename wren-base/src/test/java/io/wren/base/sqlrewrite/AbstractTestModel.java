@@ -28,7 +28,10 @@ import io.wren.base.dto.TableReference;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static io.wren.base.sqlrewrite.WrenSqlRewrite.WREN_SQL_REWRITE;
 import static java.util.Objects.requireNonNull;
@@ -354,6 +357,24 @@ public abstract class AbstractTestModel
                 .doesNotThrowAnyException();
     }
 
+    @Test
+    public void testRelationInfoMemoized()
+    {
+        Manifest manifest = withDefaultCatalogSchema()
+                .setModels(List.of(customer, orders, lineitem))
+                .setRelationships(List.of(ordersCustomer, ordersLineitem))
+                .build();
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(WrenMDL.fromManifest(manifest), null);
+        RelationInfo all = analyzedMDL.getRelationInfo(orders, Optional.empty());
+        assertThat(analyzedMDL.getRelationInfo(orders, Optional.empty())).isSameAs(all);
+
+        // the required fields are compared by their content
+        RelationInfo required = analyzedMDL.getRelationInfo(orders, Optional.of(new HashSet<>(List.of("orderkey", "custkey"))));
+        assertThat(analyzedMDL.getRelationInfo(orders, Optional.of(Set.of("custkey", "orderkey")))).isSameAs(required);
+        assertThat(required).isNotSameAs(all);
+        assertThat(required.getQuery()).isEqualTo(RelationInfo.get(orders, analyzedMDL.getWrenMDL(), Set.of("orderkey", "custkey")).getQuery());
+    }
+
     @Test
     public void testSelectNotFound()
     {
@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.sql.tree.Statement;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.ManifestSize;
+import io.wren.base.SessionContext;
+import io.wren.base.WrenMDL;
+import io.wren.base.sqlrewrite.analyzer.decisionpoint.DecisionPointAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static io.wren.base.sqlrewrite.Utils.parseSql;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan the queries of {@link ManifestSize} with all rules, and analyze their decision points. The mdl is analyzed before
+ * the benchmark, so it measures the planning of a manifest that has been queried already. Run the main method to report
+ * the allocation as well.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BenchmarkWrenPlanner
+{
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private ManifestSize size = ManifestSize.SMALL;
+
+    @Param({"true", "false"})
+    private boolean enableDynamicFields = true;
+
+    private AnalyzedMDL analyzedMDL;
+    private SessionContext sessionContext;
+    private List<String> queries;
+    private List<Statement> statements;
+
+    @Setup
+    public void setup()
+    {
+        analyzedMDL = new AnalyzedMDL(WrenMDL.fromManifest(size.manifest()), null);
+        sessionContext = SessionContext.builder()
+                .setCatalog("wren")
+                .setSchema("benchmark")
+                .setEnableDynamic(enableDynamicFields)
+                .build();
+        queries = ImmutableList.<String>builder().addAll(size.queries()).add(size.rollUpQuery()).build();
+        // the decision point analyzer doesn't support roll-up
+        statements = size.queries().stream().map(Utils::parseSql).toList();
+        queries.forEach(sql -> WrenPlanner.rewrite(sql, sessionContext, analyzedMDL));
+    }
+
+    @Benchmark
+    public void rewrite(Blackhole blackhole)
+    {
+        for (String sql : queries) {
+            blackhole.consume(WrenPlanner.rewrite(sql, sessionContext, analyzedMDL));
+        }
+    }
+
+    @Benchmark
+    public void analyzeDecisionPoints(Blackhole blackhole)
+    {
+        for (Statement statement : statements) {
+            blackhole.consume(DecisionPointAnalyzer.analyze(statement, sessionContext, analyzedMDL.getWrenMDL()));
+        }
+    }
+
+    @Test
+    public void verify()
+    {
+        for (boolean enableDynamicFields : List.of(true, false)) {
+            BenchmarkWrenPlanner benchmark = new BenchmarkWrenPlanner();
+            benchmark.enableDynamicFields = enableDynamicFields;
+            benchmark.setup();
+            for (String sql : benchmark.queries) {
+                String planned = WrenPlanner.rewrite(sql, benchmark.sessionContext, benchmark.analyzedMDL);
+                // every wren object is replaced by its sql
+                parseSql(planned);
+                assertThat(planned).doesNotContain("Status.ACTIVE", "roll_up");
+            }
+            for (Statement statement : benchmark.statements) {
+                assertThat(DecisionPointAnalyzer.analyze(statement, benchmark.sessionContext, benchmark.analyzedMDL.getWrenMDL())).hasSize(1);
+            }
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkWrenPlanner.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import io.trino.sql.tree.Statement;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.ManifestSize;
+import io.wren.base.SessionContext;
+import io.wren.base.WrenMDL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.wren.base.sqlrewrite.WrenPlanner.ALL_RULES;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Apply each rule of the planner on its own. The input of a rule is the output of the rules before it, so every rule
+ * sees the same statements as it does in {@link WrenPlanner#rewrite(String, SessionContext, AnalyzedMDL)}. The
+ * statements are analyzed by the rule, which is included in the result.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BenchmarkWrenRule
+{
+    @Param({"GenerateViewRewrite", "MetricRollupRewrite", "WrenSqlRewrite", "EnumRewrite"})
+    private String rule = "GenerateViewRewrite";
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private ManifestSize size = ManifestSize.SMALL;
+
+    @Param({"true", "false"})
+    private boolean enableDynamicFields = true;
+
+    private WrenRule wrenRule;
+    private AnalyzedMDL analyzedMDL;
+    private SessionContext sessionContext;
+    private List<Statement> statements;
+
+    @Setup
+    public void setup()
+    {
+        int index = ALL_RULES.stream().map(wrenRule -> wrenRule.getClass().getSimpleName()).toList().indexOf(rule);
+        checkArgument(index >= 0, "rule not found: %s", rule);
+        wrenRule = ALL_RULES.get(index);
+        analyzedMDL = new AnalyzedMDL(WrenMDL.fromManifest(size.manifest()), null);
+        sessionContext = SessionContext.builder()
+                .setCatalog("wren")
+                .setSchema("benchmark")
+                .setEnableDynamic(enableDynamicFields)
+                .build();
+        statements = Stream.concat(size.queries().stream(), Stream.of(size.rollUpQuery()))
+                .map(sql -> WrenPlanner.rewrite(Utils.parseSql(sql), sessionContext, analyzedMDL, ALL_RULES.subList(0, index)))
+                .toList();
+        statements.forEach(statement -> wrenRule.apply(statement, sessionContext, analyzedMDL));
+    }
+
+    @Benchmark
+    public void apply(Blackhole blackhole)
+    {
+        for (Statement statement : statements) {
+            blackhole.consume(wrenRule.apply(statement, sessionContext, analyzedMDL));
+        }
+    }
+
+    @Test
+    public void verify()
+    {
+        for (WrenRule rule : ALL_RULES) {
+            BenchmarkWrenRule benchmark = new BenchmarkWrenRule();
+            benchmark.rule = rule.getClass().getSimpleName();
+            benchmark.setup();
+            assertThat(benchmark.wrenRule).isSameAs(rule);
+            assertThat(benchmark.statements).hasSize(ManifestSize.SMALL.queries().size() + 1);
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkWrenRule.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -16,6 +16,7 @@ package io.wren.base.sqlrewrite;
 
 import io.trino.sql.tree.Statement;
 import io.wren.base.AnalyzedMDL;
+import io.wren.base.SessionContext;
 import io.wren.base.WrenMDL;
 import io.wren.base.WrenTypes;
 import io.wren.base.dto.Column;
@@ -26,12 +27,21 @@ import io.wren.base.dto.Metric;
 import io.wren.base.dto.Model;
 import io.wren.base.dto.Relationship;
 import io.wren.base.dto.View;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static io.trino.sql.SqlFormatter.formatSql;
+import static io.wren.base.Utils.sqlHash;
 import static io.wren.base.sqlrewrite.Utils.parseSql;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -158,6 +168,133 @@ public class TestAllRulesRewrite
         assertThat(rewrite(original)).isEqualTo(formatSql(expectedState));
     }
 
+    @Test(dataProvider = "astRuleChainingCases")
+    public void testAstRuleChaining(String original)
+    {
+        SessionContext astRuleChaining = SessionContext.builder()
+                .setCatalog(DEFAULT_SESSION_CONTEXT.getCatalog().orElseThrow())
+                .setSchema(DEFAULT_SESSION_CONTEXT.getSchema().orElseThrow())
+                .setEnableAstRuleChaining(true)
+                .build();
+        assertThat(WrenPlanner.rewrite(original, astRuleChaining, new AnalyzedMDL(wrenMDL, null)))
+                .isEqualTo(rewrite(original));
+    }
+
+    @DataProvider
+    public Object[][] astRuleChainingCases()
+    {
+        return Stream.concat(
+                        Arrays.stream(wrenUsedCases()).map(testCase -> new Object[] {testCase[0]}),
+                        Arrays.stream(noRewriteCase()))
+                .toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "statementTemplateCases")
+    public void testStatementTemplate(String original)
+    {
+        StatementTemplate template = StatementTemplate.of(parseSql(original)).orElseThrow();
+        Statement rewritten = WrenPlanner.rewrite(template.getStatement(), DEFAULT_SESSION_CONTEXT, new AnalyzedMDL(wrenMDL, null), WrenPlanner.ALL_RULES);
+        assertThat(formatSql(template.bind(rewritten))).isEqualTo(rewrite(original));
+    }
+
+    @DataProvider
+    public Object[][] statementTemplateCases()
+    {
+        return Stream.concat(
+                        Arrays.stream(astRuleChainingCases()),
+                        Stream.of(
+                                new Object[] {"select name, price from Album where price > 2000 and name like 'G%' order by 2 desc limit 2"},
+                                new Object[] {"select bandId, count(*) from Album where id in (1, 2, 3) group by 1"},
+                                new Object[] {"select * from \"Order\" order by orderkey offset 1 limit 3"},
+                                new Object[] {"select name from Album where price between 1000 and 3000 fetch first 1 rows only"},
+                                new Object[] {"select name, DATE '2024-01-01', null from Album where name is not null"}))
+                .toArray(Object[][]::new);
+    }
+
+    @Test
+    public void testStatementTemplateSharedByConstants()
+    {
+        StatementTemplate first = StatementTemplate.of(parseSql("select name from Album where price > 1000 and name = 'Gusare' limit 10")).orElseThrow();
+        StatementTemplate second = StatementTemplate.of(parseSql("select name from Album where price > 2500 and name = 'Sakura' limit 1")).orElseThrow();
+        assertThat(formatSql(first.getStatement())).isEqualTo(formatSql(second.getStatement()));
+        assertThat(first.getParameters()).hasSize(3).isNotEqualTo(second.getParameters());
+
+        assertThat(StatementTemplate.of(parseSql("select name from Album where price > ?"))).isEmpty();
+    }
+
+    @Test
+    public void testPlanningListener()
+    {
+        List<String> phases = new ArrayList<>();
+        String sql = "select name, price from Album where status = Inventory.IN_STOCK";
+        String planned = WrenPlanner.rewrite(sql, DEFAULT_SESSION_CONTEXT, new AnalyzedMDL(wrenMDL, null), WrenPlanner.ALL_RULES, (phase, nanos) -> {
+            assertThat(nanos).isNotNegative();
+            phases.add(phase);
+        });
+        assertThat(planned).isEqualTo(rewrite(sql));
+        // the analysis is shared by the rules
+        assertThat(phases).containsExactly(
+                "parse",
+                "analysis",
+                "GenerateViewRewrite",
+                "MetricRollupRewrite",
+                "WrenSqlRewrite",
+                "EnumRewrite",
+                "format");
+    }
+
+    @Test
+    public void testFlightRecorderEvents()
+            throws Exception
+    {
+        String sql = "select name, price from Album where status = Inventory.IN_STOCK";
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("io.wren.Planning").withoutThreshold();
+            recording.enable("io.wren.Query").withoutThreshold();
+            recording.start();
+            String planned = WrenPlanner.rewrite(sql, DEFAULT_SESSION_CONTEXT, new AnalyzedMDL(wrenMDL, "fingerprint"), WrenPlanner.ALL_RULES,
+                    PlanningEvent.recording(PlanningListener.NOOP, "fingerprint", sql));
+            assertThat(query(planned)).hasSize(2);
+            recording.stop();
+            Path file = Files.createTempFile("wren", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            }
+            finally {
+                Files.delete(file);
+            }
+        }
+
+        List<RecordedEvent> planningEvents = events.stream().filter(event -> event.getEventType().getName().equals("io.wren.Planning")).toList();
+        assertThat(planningEvents).extracting(event -> event.getString("phase")).containsExactly(
+                "parse",
+                "analysis",
+                "GenerateViewRewrite",
+                "MetricRollupRewrite",
+                "WrenSqlRewrite",
+                "EnumRewrite",
+                "format");
+        assertThat(planningEvents).allSatisfy(event -> {
+            assertThat(event.getString("manifestFingerprint")).isEqualTo("fingerprint");
+            assertThat(event.getString("sqlHash")).isEqualTo(sqlHash(sql));
+        });
+
+        // the recording is global, so the queries of the tests running in parallel are recorded as well
+        List<RecordedEvent> queryEvents = events.stream()
+                .filter(event -> event.getEventType().getName().equals("io.wren.Query"))
+                .filter(event -> event.getThread().getJavaThreadId() == Thread.currentThread().threadId())
+                .toList();
+        assertThat(queryEvents).hasSize(1);
+        RecordedEvent queryEvent = queryEvents.get(0);
+        assertThat(queryEvent.getLong("rowCount")).isEqualTo(2);
+        assertThat(queryEvent.getDuration("fetchTime")).isPositive();
+        assertThat(queryEvent.getDuration("poolWaitTime")).isPositive();
+        assertThat(queryEvent.getString("connectionId")).isNotEmpty();
+        assertThat(queryEvent.getDuration()).isGreaterThanOrEqualTo(queryEvent.getDuration("fetchTime"));
+    }
+
     // TODO: The scope of QuerySpecification is wrong. Enable it after fixing the scope.
     @Test(enabled = false)
     public void testSetOperationColumnNoMatch()
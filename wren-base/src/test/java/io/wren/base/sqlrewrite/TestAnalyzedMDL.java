@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.WrenMDL;
+import io.wren.base.WrenTypes;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.JoinType;
+import io.wren.base.dto.Macro;
+import io.wren.base.dto.ManifestDelta;
+import io.wren.base.dto.Model;
+import io.wren.base.dto.Relationship;
+import io.wren.base.dto.View;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.wren.base.sqlrewrite.AbstractTestFramework.DEFAULT_SESSION_CONTEXT;
+import static io.wren.base.sqlrewrite.AbstractTestFramework.addColumnsToModel;
+import static io.wren.base.sqlrewrite.AbstractTestFramework.withDefaultCatalogSchema;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestAnalyzedMDL
+{
+    private static final List<String> QUERIES = List.of(
+            "select * from Orders",
+            "select customer_name from Orders",
+            "select * from customer_view",
+            "select * from lineitem_view");
+
+    private final Model customer;
+    private final Model orders;
+    private final Model lineitem;
+    private final WrenMDL mdl;
+
+    public TestAnalyzedMDL()
+    {
+        customer = Model.model("Customer",
+                "select * from main.customer",
+                List.of(
+                        Column.column("custkey", WrenTypes.INTEGER, null, true),
+                        Column.column("name", WrenTypes.VARCHAR, null, true)),
+                "custkey");
+        orders = Model.model("Orders",
+                "select * from main.orders",
+                List.of(
+                        Column.column("orderkey", WrenTypes.INTEGER, null, true),
+                        Column.column("custkey", WrenTypes.INTEGER, null, true),
+                        Column.column("customer", "Customer", "OrdersCustomer", true),
+                        Column.caluclatedColumn("customer_name", WrenTypes.VARCHAR, "customer.name")),
+                "orderkey");
+        lineitem = Model.model("Lineitem",
+                "select * from main.lineitem",
+                List.of(
+                        Column.column("orderkey", WrenTypes.INTEGER, null, true),
+                        Column.column("linenumber", WrenTypes.INTEGER, null, true),
+                        Column.column("price", WrenTypes.INTEGER, null, true, "{{ addOne('extendedprice') }}")));
+        mdl = WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(List.of(customer, orders, lineitem))
+                .setRelationships(List.of(Relationship.relationship("OrdersCustomer", List.of("Orders", "Customer"), JoinType.MANY_TO_ONE, "Orders.custkey = Customer.custkey")))
+                .setViews(List.of(
+                        View.view("customer_view", "select * from Customer"),
+                        View.view("lineitem_view", "select * from Lineitem")))
+                .setMacros(List.of(Macro.macro("addOne", "(a: Expression) => {{ a }} + 1")))
+                .build());
+    }
+
+    @Test
+    public void testAnalyzeIncrementally()
+    {
+        AnalyzedMDL analyzedMDL = analyze(mdl);
+        WrenMDL changedMdl = mdl.withDelta(ManifestDelta.builder()
+                        .setModels(List.of(addColumnsToModel(customer, Column.column("phone", WrenTypes.VARCHAR, null, true))))
+                        .build(),
+                directExecutor());
+        AnalyzedMDL changed = new AnalyzedMDL(changedMdl, analyzedMDL, null);
+
+        // the unchanged model is neither rendered nor analyzed again
+        assertThat(changedMdl.getModel("Lineitem")).containsSame(mdl.getModel("Lineitem").orElseThrow());
+        assertThat(getRelationInfo(changed, "Lineitem")).isSameAs(getRelationInfo(analyzedMDL, "Lineitem"));
+        assertThat(getViewInfo(changed, "lineitem_view")).isSameAs(getViewInfo(analyzedMDL, "lineitem_view"));
+        // the changed model and the objects depending on it are analyzed again
+        assertThat(getRelationInfo(changed, "Customer")).isNotSameAs(getRelationInfo(analyzedMDL, "Customer"));
+        assertThat(getRelationInfo(changed, "Orders")).isNotSameAs(getRelationInfo(analyzedMDL, "Orders"));
+        assertThat(getViewInfo(changed, "customer_view")).isNotSameAs(getViewInfo(analyzedMDL, "customer_view"));
+
+        assertSameRewrite(changed, new AnalyzedMDL(changedMdl, null));
+    }
+
+    @Test
+    public void testRemoveAndAddObjects()
+    {
+        AnalyzedMDL analyzedMDL = analyze(mdl);
+        WrenMDL changedMdl = mdl.withDelta(ManifestDelta.builder()
+                        .setRemovedViews(List.of("customer_view"))
+                        .setModels(List.of(Model.model("Nation", "select * from main.nation", List.of(Column.column("nationkey", WrenTypes.INTEGER, null, true)))))
+                        .build(),
+                directExecutor());
+        AnalyzedMDL changed = new AnalyzedMDL(changedMdl, analyzedMDL, null);
+
+        assertThat(changedMdl.getView("customer_view")).isEmpty();
+        assertThat(getRelationInfo(changed, "Orders")).isSameAs(getRelationInfo(analyzedMDL, "Orders"));
+        // a view could refer to the added object
+        assertThat(getViewInfo(changed, "lineitem_view")).isNotSameAs(getViewInfo(analyzedMDL, "lineitem_view"));
+        assertThat(WrenPlanner.rewrite("select * from lineitem_view", DEFAULT_SESSION_CONTEXT, changed))
+                .isEqualTo(WrenPlanner.rewrite("select * from lineitem_view", DEFAULT_SESSION_CONTEXT, new AnalyzedMDL(changedMdl, null)));
+    }
+
+    @Test
+    public void testShareUnrenderedManifest()
+    {
+        assertThat(mdl.isRendered()).isTrue();
+        WrenMDL withoutMacros = mdl.withDelta(ManifestDelta.builder().setRemovedModels(List.of("Lineitem")).build(), directExecutor());
+        assertThat(withoutMacros.isRendered()).isFalse();
+        assertThat(WrenMDL.fromManifest(withDefaultCatalogSchema().setModels(List.of(customer, orders)).build()).isRendered()).isFalse();
+    }
+
+    @Test
+    public void testChangeMacros()
+    {
+        AnalyzedMDL analyzedMDL = analyze(mdl);
+        WrenMDL changedMdl = mdl.withDelta(ManifestDelta.builder()
+                        .setMacros(List.of(Macro.macro("addOne", "(a: Expression) => {{ a }} + 1 + 0")))
+                        .build(),
+                directExecutor());
+        AnalyzedMDL changed = new AnalyzedMDL(changedMdl, analyzedMDL, null);
+
+        // all models are rendered again, but only the one whose columns are changed is analyzed again.
+        // A model which isn't changed by rendering is kept as it is in the manifest.
+        assertThat(changedMdl.getModel("Customer").orElseThrow()).isSameAs(mdl.getModel("Customer").orElseThrow());
+        assertThat(changedMdl.getModel("Lineitem").orElseThrow()).isNotSameAs(mdl.getModel("Lineitem").orElseThrow());
+        assertThat(changedMdl.getModel("Lineitem").orElseThrow().getColumns().get(2).getSqlExpression()).isEqualTo("extendedprice + 1 + 0");
+        assertThat(getRelationInfo(changed, "Customer")).isSameAs(getRelationInfo(analyzedMDL, "Customer"));
+        assertThat(getRelationInfo(changed, "Lineitem")).isNotSameAs(getRelationInfo(analyzedMDL, "Lineitem"));
+
+        assertSameRewrite(changed, new AnalyzedMDL(changedMdl, null));
+    }
+
+    private static AnalyzedMDL analyze(WrenMDL mdl)
+    {
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(mdl, null);
+        QUERIES.forEach(sql -> WrenPlanner.rewrite(sql, DEFAULT_SESSION_CONTEXT, analyzedMDL));
+        return analyzedMDL;
+    }
+
+    private static void assertSameRewrite(AnalyzedMDL actual, AnalyzedMDL expected)
+    {
+        for (String sql : QUERIES) {
+            assertThat(WrenPlanner.rewrite(sql, DEFAULT_SESSION_CONTEXT, actual))
+                    .isEqualTo(WrenPlanner.rewrite(sql, DEFAULT_SESSION_CONTEXT, expected));
+        }
+    }
+
+    private static RelationInfo getRelationInfo(AnalyzedMDL analyzedMDL, String name)
+    {
+        return analyzedMDL.getRelationInfo(analyzedMDL.getWrenMDL().getModel(name).orElseThrow(), Optional.empty());
+    }
+
+    private static ViewInfo getViewInfo(AnalyzedMDL analyzedMDL, String name)
+    {
+        return analyzedMDL.getViewInfo(analyzedMDL.getWrenMDL().getView(name).orElseThrow(), DEFAULT_SESSION_CONTEXT);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import io.trino.sql.tree.Statement;
+import org.testng.annotations.Test;
+
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.wren.base.sqlrewrite.Utils.parseSql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestLimitRewrite
+{
+    @Test
+    public void testPushLimit()
+    {
+        assertLimit("SELECT * FROM t", "SELECT * FROM t LIMIT 10");
+        assertLimit("SELECT * FROM t ORDER BY a", "SELECT * FROM t ORDER BY a LIMIT 10");
+        assertLimit("SELECT * FROM t OFFSET 5", "SELECT * FROM t OFFSET 5 LIMIT 10");
+        assertLimit("SELECT * FROM t LIMIT 100", "SELECT * FROM t LIMIT 10");
+        assertLimit("SELECT * FROM t LIMIT ALL", "SELECT * FROM t LIMIT 10");
+        assertLimit("SELECT * FROM t FETCH FIRST 100 ROWS ONLY", "SELECT * FROM t FETCH FIRST 10 ROWS ONLY");
+        assertLimit("WITH s AS (SELECT * FROM t LIMIT 100) SELECT * FROM s", "WITH s AS (SELECT * FROM t LIMIT 100) SELECT * FROM s LIMIT 10");
+        assertLimit("SELECT a FROM t UNION ALL SELECT a FROM u", "SELECT a FROM t UNION ALL SELECT a FROM u LIMIT 10");
+        assertLimit("(SELECT a FROM t LIMIT 100) ORDER BY a", "(SELECT a FROM t LIMIT 100) ORDER BY a LIMIT 10");
+        assertLimit("VALUES 1, 2, 3", "VALUES 1, 2, 3 LIMIT 10");
+    }
+
+    @Test
+    public void testKeepSmallerLimit()
+    {
+        assertNoRewrite("SELECT * FROM t LIMIT 10");
+        assertNoRewrite("SELECT * FROM t LIMIT 5");
+        assertNoRewrite("SELECT * FROM t FETCH FIRST 5 ROWS ONLY");
+        assertNoRewrite("SELECT * FROM t FETCH FIRST ROW ONLY");
+        assertNoRewrite("SELECT * FROM t ORDER BY a FETCH FIRST 100 ROWS WITH TIES");
+        assertNoRewrite("SELECT * FROM t LIMIT ?");
+        assertNoRewrite("SHOW TABLES");
+    }
+
+    @Test
+    public void testInvalidLimit()
+    {
+        assertThatThrownBy(() -> LimitRewrite.apply(parseSql("SELECT 1"), -1))
+                .hasMessage("limit must be non-negative: -1");
+    }
+
+    private static void assertLimit(String sql, String expected)
+    {
+        assertThat(formatSql(LimitRewrite.apply(parseSql(sql), 10))).isEqualTo(formatSql(parseSql(expected)));
+    }
+
+    private static void assertNoRewrite(String sql)
+    {
+        Statement statement = parseSql(sql);
+        assertThat(LimitRewrite.apply(statement, 10)).isSameAs(statement);
+    }
+}
@@ -14,6 +14,7 @@
 
 package io.wren.base.sqlrewrite;
 
+import io.trino.sql.tree.Statement;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.SessionContext;
 import io.wren.base.WrenMDL;
@@ -22,11 +23,15 @@ import io.wren.base.dto.Column;
 import io.wren.base.dto.Metric;
 import io.wren.base.dto.Model;
 import io.wren.base.dto.View;
+import io.wren.base.sqlrewrite.analyzer.Analysis;
+import io.wren.base.sqlrewrite.analyzer.StatementAnalyzer;
 import org.testng.annotations.Test;
 
 import java.util.List;
 
 import static io.wren.base.sqlrewrite.GenerateViewRewrite.GENERATE_VIEW_REWRITE;
+import static io.wren.base.sqlrewrite.MetricRollupRewrite.METRIC_ROLLUP_REWRITE;
+import static io.wren.base.sqlrewrite.Utils.parseSql;
 import static io.wren.base.sqlrewrite.WrenSqlRewrite.WREN_SQL_REWRITE;
 import static java.util.Objects.requireNonNull;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -173,6 +178,54 @@ public class TestView
                 .isEqualTo(query(rewrite("SELECT * FROM orders", mdl, false)));
     }
 
+    @Test
+    public void testAnalysisShared()
+    {
+        View view1 = View.view("view1", "select * from Orders");
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(List.of(orders))
+                .setViews(List.of(view1))
+                .build()), null);
+        SessionContext sessionContext = SessionContext.builder()
+                .setCatalog("wren")
+                .setSchema("test")
+                .build();
+        assertThat(ViewInfo.get(view1, analyzedMDL, sessionContext)).isSameAs(ViewInfo.get(view1, analyzedMDL, sessionContext));
+
+        // nothing is replaced, so the analysis could be shared with the next rule
+        Statement statement = parseSql("SELECT custkey FROM Orders");
+        Analysis analysis = new Analysis(statement);
+        StatementAnalyzer.analyze(analysis, statement, sessionContext, analyzedMDL.getWrenMDL());
+        assertThat(GENERATE_VIEW_REWRITE.apply(statement, sessionContext, analysis, analyzedMDL)).isSameAs(statement);
+        assertThat(METRIC_ROLLUP_REWRITE.apply(statement, sessionContext, analysis, analyzedMDL)).isSameAs(statement);
+    }
+
+    @Test
+    public void testDiamondDependency()
+    {
+        WrenMDL mdl = WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(List.of(orders))
+                .setViews(List.of(
+                        View.view("base", "select orderkey, custkey from Orders"),
+                        View.view("left_view", "select orderkey from base"),
+                        View.view("right_view", "select orderkey, custkey from base"),
+                        View.view("top", "select l.orderkey, r.custkey from left_view l join right_view r on l.orderkey = r.orderkey")))
+                .build());
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(mdl, null);
+        SessionContext sessionContext = SessionContext.builder()
+                .setCatalog("wren")
+                .setSchema("test")
+                .build();
+
+        ViewInfo top = ViewInfo.get(mdl.getView("top").orElseThrow(), analyzedMDL, sessionContext);
+        List<QueryDescriptor> sorted = analyzedMDL.getDependencyGraph().sortViews(List.of(top), sessionContext);
+        assertThat(sorted).map(QueryDescriptor::getName).hasSize(4).startsWith("base").endsWith("top");
+        // the dependencies are resolved once for the manifest
+        assertThat(analyzedMDL.getDependencyGraph().sortViews(List.of(top), sessionContext)).containsExactlyElementsOf(sorted);
+        assertThat(query(rewrite("select * from top order by orderkey", mdl, false))).isEqualTo(query("""
+                select orderkey, custkey from orders order by orderkey"""));
+    }
+
     private String rewrite(String sql, WrenMDL wrenMDL, boolean enableDynamicField)
     {
         SessionContext sessionContext = SessionContext.builder()
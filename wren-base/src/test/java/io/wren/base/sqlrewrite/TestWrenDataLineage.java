@@ -15,6 +15,7 @@
 package io.wren.base.sqlrewrite;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import io.trino.sql.tree.QualifiedName;
 import io.wren.base.WrenMDL;
 import io.wren.base.WrenTypes;
@@ -536,4 +537,80 @@ public class TestWrenDataLineage
         // assert not exist
         assertThat(dataLineage.getSourceColumns(QualifiedName.of("foo", "bar")).size()).isEqualTo(0);
     }
+
+    @Test
+    public void testRequiredFieldsOfSameColumns()
+    {
+        Model newCustomer = addColumnsToModel(
+                customer,
+                Column.column("orders", "Orders", "OrdersCustomer", true),
+                Column.caluclatedColumn("total_price", WrenTypes.BIGINT, "sum(orders.totalprice)"));
+        Model newOrders = addColumnsToModel(
+                orders,
+                Column.column("customer", "Customer", "OrdersCustomer", true),
+                Column.caluclatedColumn("customer_name", WrenTypes.BIGINT, "customer.name"));
+        WrenMDL mdl = WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(List.of(newCustomer, newOrders, lineitem))
+                .setRelationships(List.of(ordersCustomer, ordersLineitem))
+                .build());
+        WrenDataLineage dataLineage = WrenDataLineage.analyze(mdl);
+
+        List<QualifiedName> columns = List.of(QualifiedName.of("Customer", "total_price"), QualifiedName.of("Customer", "name"));
+        LinkedHashMap<String, Set<String>> expected = new LinkedHashMap<>();
+        expected.put("Orders", Set.of("totalprice"));
+        expected.put("Customer", Set.of("orders", "total_price", "name"));
+        LinkedHashMap<String, Set<String>> actual = dataLineage.getRequiredFields(columns);
+        assertThat(actual).isEqualTo(expected);
+        // the result of the same columns is built from the cached closure and it's not shared
+        actual.get("Customer").add("custkey");
+        assertThat(dataLineage.getRequiredFields(columns)).isEqualTo(expected);
+        assertThat(dataLineage.getRequiredFields(Lists.reverse(columns))).isEqualTo(expected);
+
+        List<QualifiedName> cycle = List.of(QualifiedName.of("Customer", "total_price"), QualifiedName.of("Orders", "customer_name"));
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> dataLineage.getRequiredFields(cycle))
+                    .hasMessageStartingWith("found cycle in ");
+        }
+    }
+
+    @Test
+    public void testAnalyzeIncrementally()
+    {
+        Model newCustomer = addColumnsToModel(
+                customer,
+                Column.column("orders", "Orders", "OrdersCustomer", true),
+                Column.caluclatedColumn("total_price", WrenTypes.BIGINT, "sum(orders.totalprice)"));
+        Model newLineitem = addColumnsToModel(
+                lineitem,
+                Column.caluclatedColumn("discount_price", WrenTypes.BIGINT, "extendedprice * discount"));
+        WrenMDL mdl = WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(List.of(newCustomer, orders, newLineitem))
+                .setRelationships(List.of(ordersCustomer, ordersLineitem))
+                .build());
+
+        WrenDataLineage dataLineage = WrenDataLineage.analyze(mdl);
+        QualifiedName totalPrice = QualifiedName.of("Customer", "total_price");
+        QualifiedName discountPrice = QualifiedName.of("Lineitem", "discount_price");
+        // the lineage is analyzed lazily
+        assertThat(dataLineage.isAnalyzed(totalPrice)).isFalse();
+        LinkedHashMap<String, Set<String>> totalPriceFields = dataLineage.getRequiredFields(totalPrice);
+        dataLineage.getRequiredFields(discountPrice);
+        assertThat(dataLineage.isAnalyzed(totalPrice)).isTrue();
+        assertThat(dataLineage.isAnalyzed(discountPrice)).isTrue();
+
+        Model changedLineitem = addColumnsToModel(
+                lineitem,
+                Column.caluclatedColumn("discount_price", WrenTypes.BIGINT, "extendedprice * (1 - discount)"));
+        WrenMDL changedMdl = WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(List.of(newCustomer, orders, changedLineitem))
+                .setRelationships(List.of(ordersCustomer, ordersLineitem))
+                .build());
+        WrenDataLineage changedDataLineage = WrenDataLineage.analyze(changedMdl, dataLineage);
+        // only the lineage depending on the changed model is analyzed again
+        assertThat(changedDataLineage.isAnalyzed(totalPrice)).isTrue();
+        assertThat(changedDataLineage.isAnalyzed(discountPrice)).isFalse();
+        assertThat(changedDataLineage.getRequiredFields(totalPrice)).isEqualTo(totalPriceFields);
+        assertThat(changedDataLineage.getRequiredFields(discountPrice))
+                .isEqualTo(WrenDataLineage.analyze(changedMdl).getRequiredFields(discountPrice));
+    }
 }
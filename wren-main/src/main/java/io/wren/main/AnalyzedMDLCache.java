@@ -0,0 +1,245 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hasher;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.WrenException;
+import io.wren.base.WrenMDL;
+import io.wren.base.config.ConfigManager;
+import io.wren.base.config.WrenConfig;
+import io.wren.base.dto.Manifest;
+import io.wren.base.dto.ManifestDelta;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.hash.Hashing.sha256;
+import static io.wren.base.dto.Manifest.MANIFEST_JSON_CODEC;
+import static io.wren.base.dto.ManifestDelta.MANIFEST_DELTA_JSON_CODEC;
+import static io.wren.base.metadata.StandardErrorCode.GENERIC_USER_ERROR;
+import static io.wren.base.metadata.StandardErrorCode.NOT_FOUND;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.checkFromIndexSize;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+/**
+ * Cache the analyzed mdl of the stateless endpoints which send the whole manifest in every request.
+ * The key is the sha256 of the manifest, and it's also used as the version of the cached {@link AnalyzedMDL}.
+ * A missing mdl is loaded by a bounded pool of threads shared by all requests. A cached mdl can also be changed by a delta
+ * instead of sending the whole manifest again.
+ */
+public class AnalyzedMDLCache
+{
+    private static final int FINGERPRINT_BUFFER_SIZE = 8192;
+
+    private final Cache<String, CachedMDL> cache;
+    private final ExecutorService loadExecutor;
+
+    @Inject
+    public AnalyzedMDLCache(ConfigManager configManager)
+    {
+        WrenConfig config = configManager.getConfig(WrenConfig.class);
+        checkArgument(config.getMdlCacheMaxSize() > 0, "%s must be positive", WrenConfig.WREN_MDL_CACHE_MAX_SIZE);
+        long maxMemory = config.getMdlCacheMaxMemory().toBytes();
+        // Guava can't limit the size and the weight at the same time. Every entry weighs at least maxMemory / maxSize,
+        // so the cache never holds more than maxSize entries.
+        long minWeight = max(1, maxMemory / config.getMdlCacheMaxSize());
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxMemory)
+                .weigher((String fingerprint, CachedMDL cachedMDL) -> (int) min(Integer.MAX_VALUE, max(minWeight, cachedMDL.weight())))
+                .recordStats()
+                .build();
+        checkArgument(config.getMdlLoadThreads() > 0, "%s must be positive", WrenConfig.WREN_MDL_LOAD_THREADS);
+        this.loadExecutor = newFixedThreadPool(config.getMdlLoadThreads(), new ThreadFactoryBuilder()
+                .setNameFormat("mdl-load-%s")
+                .setDaemon(true)
+                .build());
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        loadExecutor.shutdownNow();
+    }
+
+    /**
+     * Get the analyzed mdl of the Base64 encoded manifest in json or Smile. The manifest is decoded and parsed as a stream,
+     * so neither the decoded bytes nor the json string is materialized.
+     */
+    public AnalyzedMDL get(String manifestStr)
+    {
+        String fingerprint = fingerprint(manifestStr);
+        return get(fingerprint, manifestStr.length(), () -> new AnalyzedMDL(decode(manifestStr), fingerprint));
+    }
+
+    private WrenMDL decode(String manifestStr)
+    {
+        try {
+            return WrenMDL.fromJsonOrSmile(Base64.getDecoder().wrap(new AsciiInputStream(manifestStr)), loadExecutor);
+        }
+        catch (IOException e) {
+            // neither a Base64 string nor a manifest in json or Smile
+            throw new WrenException(GENERIC_USER_ERROR, format("Invalid manifest: %s", e.getMessage()), e);
+        }
+    }
+
+    public AnalyzedMDL get(Manifest manifest)
+    {
+        byte[] json = MANIFEST_JSON_CODEC.toJsonBytes(manifest);
+        String fingerprint = sha256().hashBytes(json).toString();
+        return get(fingerprint, json.length, () -> new AnalyzedMDL(WrenMDL.fromManifest(manifest, loadExecutor), fingerprint));
+    }
+
+    /**
+     * Get the cached mdl by its fingerprint, which is the sha256 of the Base64 string of the manifest, or the one returned
+     * by {@link #applyDelta(String, ManifestDelta)}.
+     */
+    public AnalyzedMDL getByFingerprint(String fingerprint)
+    {
+        return getCached(fingerprint).analyzedMDL();
+    }
+
+    /**
+     * Apply the delta to the cached mdl of the base fingerprint. Only the objects downstream of the changes are analyzed
+     * again, and the others are reused from the base mdl.
+     *
+     * @return the fingerprint of the new mdl, which is derived from the base fingerprint and the delta.
+     */
+    public String applyDelta(String baseFingerprint, ManifestDelta delta)
+    {
+        CachedMDL base = getCached(baseFingerprint);
+        byte[] json = MANIFEST_DELTA_JSON_CODEC.toJsonBytes(delta);
+        String fingerprint = sha256().newHasher()
+                .putString(baseFingerprint, UTF_8)
+                .putBytes(json)
+                .hash()
+                .toString();
+        AnalyzedMDL analyzedMDL = base.analyzedMDL();
+        get(fingerprint, base.size() + json.length, () -> new AnalyzedMDL(analyzedMDL.getWrenMDL().withDelta(delta, loadExecutor), analyzedMDL, fingerprint));
+        return fingerprint;
+    }
+
+    private CachedMDL getCached(String fingerprint)
+    {
+        CachedMDL cachedMDL = cache.getIfPresent(fingerprint);
+        if (cachedMDL == null) {
+            throw new WrenException(NOT_FOUND, format("Manifest of fingerprint %s not found", fingerprint));
+        }
+        return cachedMDL;
+    }
+
+    private AnalyzedMDL get(String fingerprint, long size, Callable<AnalyzedMDL> loader)
+    {
+        try {
+            return cache.get(fingerprint, () -> new CachedMDL(loader.call(), size)).analyzedMDL();
+        }
+        catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public CacheStats getStats()
+    {
+        return cache.stats();
+    }
+
+    /**
+     * The same as the sha256 of the UTF-8 bytes of the Base64 string, but hashed chunk by chunk.
+     */
+    private static String fingerprint(String manifestStr)
+    {
+        Hasher hasher = sha256().newHasher();
+        byte[] buffer = new byte[FINGERPRINT_BUFFER_SIZE];
+        AsciiInputStream input = new AsciiInputStream(manifestStr);
+        for (int read = input.read(buffer, 0, buffer.length); read > 0; read = input.read(buffer, 0, buffer.length)) {
+            hasher.putBytes(buffer, 0, read);
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Read the chars of a Base64 string as bytes. A char out of ASCII is read as '?', which isn't a Base64 char.
+     */
+    private static class AsciiInputStream
+            extends InputStream
+    {
+        private final String value;
+        private int position;
+
+        private AsciiInputStream(String value)
+        {
+            this.value = requireNonNull(value, "value is null");
+        }
+
+        @Override
+        public int read()
+        {
+            return position < value.length() ? toByte(value.charAt(position++)) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length)
+        {
+            checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= value.length()) {
+                return -1;
+            }
+            int read = min(length, value.length() - position);
+            for (int i = 0; i < read; i++) {
+                buffer[offset + i] = (byte) toByte(value.charAt(position + i));
+            }
+            position += read;
+            return read;
+        }
+
+        private static int toByte(char c)
+        {
+            return c < 0x80 ? c : '?';
+        }
+    }
+
+    // the size of the manifest is used to approximate the memory used by the analyzed mdl
+    private record CachedMDL(AnalyzedMDL analyzedMDL, long size)
+    {
+        // a rendered mdl keeps the manifest before rendering as well
+        long weight()
+        {
+            return analyzedMDL.getWrenMDL().isRendered() ? 2 * size : size;
+        }
+    }
+}
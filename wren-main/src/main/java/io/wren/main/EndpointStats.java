@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.inject.Inject;
+import io.airlift.stats.TimeStat;
+import org.weakref.jmx.MBeanExporter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The latency of every endpoint, e.g. MDLResourceV2.dryPlan. The stat of an endpoint is exported by JMX when it's
+ * called for the first time.
+ */
+public class EndpointStats
+{
+    private final MBeanExporter exporter;
+    private final Map<String, TimeStat> endpoints = new ConcurrentHashMap<>();
+
+    @Inject
+    public EndpointStats(MBeanExporter exporter)
+    {
+        this.exporter = requireNonNull(exporter, "exporter is null");
+    }
+
+    public TimeStat getEndpoint(String endpoint)
+    {
+        return endpoints.computeIfAbsent(endpoint, name -> {
+            TimeStat stat = new TimeStat(MILLISECONDS);
+            exporter.exportWithGeneratedName(stat, EndpointStats.class, name);
+            return stat;
+        });
+    }
+
+    public Map<String, TimeStat> getEndpoints()
+    {
+        return ImmutableSortedMap.copyOf(endpoints);
+    }
+}
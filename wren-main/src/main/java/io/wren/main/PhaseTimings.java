@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main;
+
+import io.wren.base.sqlrewrite.PlanningListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * The time of every phase of a request, which is reported by the Server-Timing header of the response if
+ * {@link io.wren.base.config.WrenConfig#WREN_SERVER_TIMING_ENABLED} is enabled. The time of a phase run more than once
+ * is summed up. Every phase is also added to the {@link PlannerStats} of all requests.
+ */
+public class PhaseTimings
+        implements PlanningListener
+{
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final PlannerStats plannerStats;
+    private final boolean enabled;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    public PhaseTimings(PlannerStats plannerStats, boolean enabled)
+    {
+        this.plannerStats = requireNonNull(plannerStats, "plannerStats is null");
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void phaseCompleted(String phase, long nanos)
+    {
+        plannerStats.phaseCompleted(phase, nanos);
+        record(phase, nanos);
+    }
+
+    /**
+     * Record the phase of this request only, for the phases added to the {@link PlannerStats} by someone else.
+     */
+    public <T> T timeRequest(String phase, Supplier<T> supplier)
+    {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        }
+        finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    private synchronized void record(String phase, long nanos)
+    {
+        if (enabled) {
+            phases.merge(phase, nanos, Long::sum);
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * @return the phases in the format of the Server-Timing header, e.g. {@code parse;dur=0.125, analysis;dur=1.5}. The durations are in milliseconds.
+     */
+    public synchronized String toServerTiming()
+    {
+        return phases.entrySet().stream()
+                .map(entry -> format(ENGLISH, "%s;dur=%.3f", entry.getKey(), entry.getValue() / 1_000_000.0))
+                .collect(joining(", "));
+    }
+}
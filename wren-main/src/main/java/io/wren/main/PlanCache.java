@@ -0,0 +1,177 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+import io.trino.sql.ReservedIdentifiers;
+import io.trino.sql.tree.Statement;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.SessionContext;
+import io.wren.base.config.ConfigManager;
+import io.wren.base.config.WrenConfig;
+import io.wren.base.sqlrewrite.StatementTemplate;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.trino.sql.parser.StatementSplitter.getLexer;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Cache the planned sql of the stateless endpoints. The key is the fingerprint of the manifest, the session properties
+ * used by the planner, the dialect, the limit pushed into the sql and the normalized sql.
+ * <p>
+ * The rewritten {@link StatementTemplate}s are cached as well, so queries which differ only in their literals are planned once.
+ */
+public class PlanCache
+{
+    private static final Set<String> RESERVED_IDENTIFIERS = ReservedIdentifiers.reservedIdentifiers();
+
+    private final Cache<PlanKey, String> cache;
+    private final Cache<PlanKey, Statement> templateCache;
+
+    @Inject
+    public PlanCache(ConfigManager configManager)
+    {
+        WrenConfig config = configManager.getConfig(WrenConfig.class);
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(config.getPlanCacheMaxSize())
+                .expireAfterWrite(config.getPlanCacheTtl().toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+        this.templateCache = CacheBuilder.newBuilder()
+                .maximumSize(config.getPlanCacheMaxSize())
+                .expireAfterWrite(config.getPlanCacheTtl().toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param dialect the dialect of the planned sql, or empty if the sql isn't converted to any dialect.
+     * @param limit the limit pushed into the planned sql, or empty if the rows aren't limited.
+     */
+    public String get(AnalyzedMDL analyzedMDL, SessionContext sessionContext, Optional<WrenConfig.DataSourceType> dialect, OptionalLong limit, String sql, Supplier<String> planner)
+    {
+        // only the mdl with a content-addressed version can be cached
+        if (analyzedMDL.getVersion() == null) {
+            return planner.get();
+        }
+        PlanKey key = new PlanKey(
+                analyzedMDL.getVersion(),
+                sessionContext.getCatalog(),
+                sessionContext.getSchema(),
+                sessionContext.isEnableDynamicField(),
+                dialect,
+                limit,
+                normalize(sql));
+        return get(cache, key, planner);
+    }
+
+    /**
+     * Get the rewritten statement of the template. The rewritten statement still has the parameters of the template.
+     */
+    public Statement getRewrittenTemplate(AnalyzedMDL analyzedMDL, SessionContext sessionContext, StatementTemplate template, Supplier<Statement> planner)
+    {
+        if (analyzedMDL.getVersion() == null) {
+            return planner.get();
+        }
+        PlanKey key = new PlanKey(
+                analyzedMDL.getVersion(),
+                sessionContext.getCatalog(),
+                sessionContext.getSchema(),
+                sessionContext.isEnableDynamicField(),
+                Optional.empty(),
+                OptionalLong.empty(),
+                formatSql(template.getStatement()));
+        return get(templateCache, key, planner);
+    }
+
+    private static <V> V get(Cache<PlanKey, V> cache, PlanKey key, Supplier<V> planner)
+    {
+        try {
+            return cache.get(key, planner::get);
+        }
+        catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+        templateCache.invalidateAll();
+    }
+
+    public CacheStats getStats()
+    {
+        return cache.stats();
+    }
+
+    public CacheStats getTemplateStats()
+    {
+        return templateCache.stats();
+    }
+
+    /**
+     * Normalize the sql by its tokens. Whitespaces and comments are removed and reserved keywords are upper-cased.
+     * Other tokens are kept as is since identifiers and literals are case-sensitive in the planned sql.
+     */
+    static String normalize(String sql)
+    {
+        requireNonNull(sql, "sql is null");
+        TokenSource tokens = getLexer(sql, Set.of());
+        StringBuilder builder = new StringBuilder(sql.length());
+        while (true) {
+            Token token = tokens.nextToken();
+            if (token.getType() == Token.EOF) {
+                break;
+            }
+            if (token.getChannel() == Token.HIDDEN_CHANNEL) {
+                continue;
+            }
+            if (!builder.isEmpty()) {
+                builder.append(' ');
+            }
+            String text = token.getText();
+            String upperCase = text.toUpperCase(Locale.ROOT);
+            builder.append(RESERVED_IDENTIFIERS.contains(upperCase) ? upperCase : text);
+        }
+        return builder.toString();
+    }
+
+    private record PlanKey(
+            String fingerprint,
+            Optional<String> catalog,
+            Optional<String> schema,
+            boolean enableDynamicField,
+            Optional<WrenConfig.DataSourceType> dialect,
+            OptionalLong limit,
+            String sql) {}
+}
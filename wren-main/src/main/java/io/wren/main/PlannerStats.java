@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.inject.Inject;
+import io.airlift.stats.DistributionStat;
+import io.airlift.stats.TimeStat;
+import io.wren.base.sqlrewrite.PlanningListener;
+import org.weakref.jmx.MBeanExporter;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The time of every phase of planning and executing the queries of all requests, which is exported by JMX and
+ * the metrics endpoint. The phases of the planner are added by {@link #phaseCompleted(String, long)}, and the stat of
+ * a phase is exported by JMX when it's completed for the first time.
+ */
+public class PlannerStats
+        implements PlanningListener
+{
+    public static final String CONVERT_PHASE = "convert";
+    public static final String DIRECT_QUERY_PHASE = "directQuery";
+    public static final String DESCRIBE_QUERY_PHASE = "describeQuery";
+    public static final String FETCH_PHASE = "fetch";
+
+    private final MBeanExporter exporter;
+    private final Map<String, TimeStat> phases = new ConcurrentHashMap<>();
+    private final DistributionStat previewRows = new DistributionStat();
+
+    @Inject
+    public PlannerStats(MBeanExporter exporter)
+    {
+        this.exporter = requireNonNull(exporter, "exporter is null");
+    }
+
+    @Override
+    public void phaseCompleted(String phase, long nanos)
+    {
+        getPhase(phase).addNanos(nanos);
+    }
+
+    @Override
+    public <T> T time(String phase, Supplier<T> supplier)
+    {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        }
+        finally {
+            phaseCompleted(phase, System.nanoTime() - start);
+        }
+    }
+
+    public TimeStat getPhase(String phase)
+    {
+        return phases.computeIfAbsent(phase, name -> {
+            TimeStat stat = new TimeStat(MILLISECONDS);
+            exporter.exportWithGeneratedName(stat, PlannerStats.class, name);
+            return stat;
+        });
+    }
+
+    public Map<String, TimeStat> getPhases()
+    {
+        return ImmutableSortedMap.copyOf(phases);
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getPreviewRows()
+    {
+        return previewRows;
+    }
+}
@@ -30,6 +30,7 @@ package io.wren.main;
 
 import com.google.common.collect.Streams;
 import com.google.inject.Inject;
+import io.trino.sql.tree.Statement;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.Column;
 import io.wren.base.ConnectorRecordIterator;
@@ -38,13 +39,30 @@ import io.wren.base.WrenMDL;
 import io.wren.base.config.ConfigManager;
 import io.wren.base.config.WrenConfig;
 import io.wren.base.sql.SqlConverter;
+import io.wren.base.sqlrewrite.LimitRewrite;
+import io.wren.base.sqlrewrite.PlanningEvent;
+import io.wren.base.sqlrewrite.PlanningListener;
+import io.wren.base.sqlrewrite.StatementTemplate;
 import io.wren.base.sqlrewrite.WrenPlanner;
+import io.wren.main.metadata.ArrowQueryResult;
 import io.wren.main.metadata.Metadata;
+import io.wren.main.web.dto.ColumnarQueryResultDto;
 import io.wren.main.web.dto.QueryResultDto;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.wren.base.sqlrewrite.Utils.parseSql;
+import static io.wren.base.sqlrewrite.WrenPlanner.FORMAT_PHASE;
+import static io.wren.base.sqlrewrite.WrenPlanner.PARSE_PHASE;
+import static io.wren.main.PlannerStats.CONVERT_PHASE;
+import static io.wren.main.PlannerStats.DESCRIBE_QUERY_PHASE;
+import static io.wren.main.PlannerStats.DIRECT_QUERY_PHASE;
+import static io.wren.main.PlannerStats.FETCH_PHASE;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -54,34 +72,62 @@ public class PreviewService
 
     private final SqlConverter sqlConverter;
     private final ConfigManager configManager;
+    private final PlanCache planCache;
+    private final PlannerStats plannerStats;
 
     @Inject
     public PreviewService(
             Metadata metadata,
             SqlConverter sqlConverter,
-            ConfigManager configManager)
+            ConfigManager configManager,
+            PlanCache planCache,
+            PlannerStats plannerStats)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.sqlConverter = requireNonNull(sqlConverter, "sqlConverter is null");
         this.configManager = requireNonNull(configManager, "configManager is null");
+        this.planCache = requireNonNull(planCache, "planCache is null");
+        this.plannerStats = requireNonNull(plannerStats, "plannerStats is null");
     }
 
-    public CompletableFuture<QueryResultDto> preview(WrenMDL mdl, String sql, long limit)
+    /**
+     * @return the timings of the phases of a new request, which are reported only if the Server-Timing header is enabled.
+     */
+    public PhaseTimings newPhaseTimings()
+    {
+        return new PhaseTimings(plannerStats, configManager.getConfig(WrenConfig.class).getServerTimingEnabled());
+    }
+
+    public CompletableFuture<QueryResultDto> preview(AnalyzedMDL analyzedMDL, String sql, long limit, PhaseTimings timings)
+    {
+        return preview(analyzedMDL, sql, limit, timings, iter -> {
+            List<Object[]> rows = Streams.stream(iter).limit(limit).collect(toList());
+            plannerStats.getPreviewRows().add(rows.size());
+            return new QueryResultDto(iter.getColumns(), rows);
+        });
+    }
+
+    /**
+     * The same as {@link #preview(AnalyzedMDL, String, long, PhaseTimings)}, but the rows are stored column by column.
+     */
+    public CompletableFuture<ColumnarQueryResultDto> previewColumnar(AnalyzedMDL analyzedMDL, String sql, long limit, PhaseTimings timings)
+    {
+        return preview(analyzedMDL, sql, limit, timings, iter -> {
+            ColumnarQueryResultDto result = ColumnarQueryResultDto.of(iter.getColumns(), iter, limit);
+            plannerStats.getPreviewRows().add(result.getRowCount());
+            return result;
+        });
+    }
+
+    /**
+     * @param collector fetches at most the limit of rows from the iterator, which is closed after it returns.
+     */
+    private <T> CompletableFuture<T> preview(AnalyzedMDL analyzedMDL, String sql, long limit, PhaseTimings timings, Function<ConnectorRecordIterator, T> collector)
     {
         return CompletableFuture.supplyAsync(() -> {
-            WrenConfig config = configManager.getConfig(WrenConfig.class);
-            SessionContext sessionContext = SessionContext.builder()
-                    .setCatalog(mdl.getCatalog())
-                    .setSchema(mdl.getSchema())
-                    .setEnableDynamic(config.getEnableDynamicFields())
-                    .build();
-
-            String planned = WrenPlanner.rewrite(sql, sessionContext, new AnalyzedMDL(mdl, null));
-            String converted = sqlConverter.convert(planned, sessionContext);
-            try (ConnectorRecordIterator iter = metadata.directQuery(converted, List.of())) {
-                return new QueryResultDto(
-                        iter.getColumns(),
-                        Streams.stream(iter).limit(limit).collect(toList()));
+            String converted = plan(analyzedMDL, sql, limit, timings);
+            try (ConnectorRecordIterator iter = timings.timeRequest(DIRECT_QUERY_PHASE, () -> metadata.directQuery(converted, List.of()))) {
+                return timings.time(FETCH_PHASE, () -> collector.apply(iter));
             }
             catch (Exception e) {
                 throw new RuntimeException(e);
@@ -89,37 +135,116 @@ public class PreviewService
         });
     }
 
-    public CompletableFuture<String> dryPlan(WrenMDL mdl, String sql, boolean isModelingOnly)
+    /**
+     * Plan the sql with the limit and run it without fetching any row, so the result can be streamed to the client. The caller
+     * must close the returned iterator.
+     */
+    public CompletableFuture<ConnectorRecordIterator> query(AnalyzedMDL analyzedMDL, String sql, long limit, PhaseTimings timings)
+    {
+        return CompletableFuture.supplyAsync(() -> directQuery(analyzedMDL, sql, limit, timings, converted -> metadata.directQuery(converted, List.of())));
+    }
+
+    /**
+     * The same as {@link #query(AnalyzedMDL, String, long, PhaseTimings)}, but the result is read as arrow record batches.
+     */
+    public CompletableFuture<ArrowQueryResult> queryArrow(AnalyzedMDL analyzedMDL, String sql, long limit, PhaseTimings timings)
+    {
+        return CompletableFuture.supplyAsync(() -> directQuery(analyzedMDL, sql, limit, timings, converted -> metadata.directArrowQuery(converted, List.of())));
+    }
+
+    /**
+     * Record the rows of {@link #query(AnalyzedMDL, String, long, PhaseTimings)} or {@link #queryArrow(AnalyzedMDL, String, long, PhaseTimings)}
+     * streamed to the client. They are fetched after the response is sent, so they aren't in its Server-Timing header.
+     */
+    public void streamCompleted(long nanos, long rows)
+    {
+        plannerStats.phaseCompleted(FETCH_PHASE, nanos);
+        plannerStats.getPreviewRows().add(rows);
+    }
+
+    public CompletableFuture<String> dryPlan(AnalyzedMDL analyzedMDL, String sql, boolean isModelingOnly, PhaseTimings timings)
     {
         return CompletableFuture.supplyAsync(() -> {
             WrenConfig config = configManager.getConfig(WrenConfig.class);
-            SessionContext sessionContext = SessionContext.builder()
-                    .setCatalog(mdl.getCatalog())
-                    .setSchema(mdl.getSchema())
-                    .setEnableDynamic(config.getEnableDynamicFields())
-                    .build();
+            return plan(analyzedMDL, sql, sessionContext(analyzedMDL, config), config, isModelingOnly, OptionalLong.empty(), timings);
+        });
+    }
 
-            String planned = WrenPlanner.rewrite(sql, sessionContext, new AnalyzedMDL(mdl, null));
+    public CompletableFuture<List<Column>> dryRun(AnalyzedMDL analyzedMDL, String sql, PhaseTimings timings)
+    {
+        return CompletableFuture.supplyAsync(() -> {
+            WrenConfig config = configManager.getConfig(WrenConfig.class);
+            String converted = plan(analyzedMDL, sql, sessionContext(analyzedMDL, config), config, false, OptionalLong.empty(), timings);
+            return timings.timeRequest(DESCRIBE_QUERY_PHASE, () -> metadata.describeQuery(converted, List.of()));
+        });
+    }
+
+    /**
+     * Plan the sql with the limit and run the converted sql by the given query of the {@link Metadata}.
+     */
+    private <T> T directQuery(AnalyzedMDL analyzedMDL, String sql, long limit, PhaseTimings timings, Function<String, T> query)
+    {
+        String converted = plan(analyzedMDL, sql, limit, timings);
+        return timings.timeRequest(DIRECT_QUERY_PHASE, () -> query.apply(converted));
+    }
+
+    private String plan(AnalyzedMDL analyzedMDL, String sql, long limit, PhaseTimings timings)
+    {
+        WrenConfig config = configManager.getConfig(WrenConfig.class);
+        return plan(analyzedMDL, sql, sessionContext(analyzedMDL, config), config, false, OptionalLong.of(limit), timings);
+    }
+
+    private static SessionContext sessionContext(AnalyzedMDL analyzedMDL, WrenConfig config)
+    {
+        WrenMDL mdl = analyzedMDL.getWrenMDL();
+        return SessionContext.builder()
+                .setCatalog(mdl.getCatalog())
+                .setSchema(mdl.getSchema())
+                .setEnableDynamic(config.getEnableDynamicFields())
+                .setEnableAstRuleChaining(config.getEnableAstRuleChaining())
+                .build();
+    }
+
+    private String plan(AnalyzedMDL analyzedMDL, String sql, SessionContext sessionContext, WrenConfig config, boolean isModelingOnly, OptionalLong limit, PhaseTimings timings)
+    {
+        Optional<WrenConfig.DataSourceType> dialect = isModelingOnly ? Optional.empty() : Optional.of(config.getDataSourceType());
+        return planCache.get(analyzedMDL, sessionContext, dialect, limit, sql, () -> {
+            String planned = rewrite(analyzedMDL, sql, sessionContext, config, limit, timings);
             if (isModelingOnly) {
                 return planned;
             }
-            return sqlConverter.convert(planned, sessionContext);
+            return timings.timeRequest(CONVERT_PHASE, () -> sqlConverter.convert(planned, sessionContext));
         });
     }
 
-    public CompletableFuture<List<Column>> dryRun(WrenMDL mdl, String sql)
+    /**
+     * @param limit the limit pushed into the outermost query of the rewritten statement before it's formatted. The rows are
+     * still truncated after being fetched since the limit isn't pushed if the query limits them by a parameter or WITH TIES.
+     */
+    private String rewrite(AnalyzedMDL analyzedMDL, String sql, SessionContext sessionContext, WrenConfig config, OptionalLong limit, PhaseTimings timings)
     {
-        return CompletableFuture.supplyAsync(() -> {
-            WrenConfig config = configManager.getConfig(WrenConfig.class);
-            SessionContext sessionContext = SessionContext.builder()
-                    .setCatalog(mdl.getCatalog())
-                    .setSchema(mdl.getSchema())
-                    .setEnableDynamic(config.getEnableDynamicFields())
-                    .build();
-
-            String planned = WrenPlanner.rewrite(sql, sessionContext, new AnalyzedMDL(mdl, null));
-            String converted = sqlConverter.convert(planned, sessionContext);
-            return metadata.describeQuery(converted, List.of());
-        });
+        PlanningListener listener = PlanningEvent.recording(timings, analyzedMDL.getVersion(), sql);
+        Statement rewritten = rewrite(analyzedMDL, sql, sessionContext, config, listener);
+        Statement planned = limit.isPresent()
+                ? listener.time(LimitRewrite.class.getSimpleName(), () -> LimitRewrite.apply(rewritten, limit.getAsLong()))
+                : rewritten;
+        return listener.time(FORMAT_PHASE, () -> formatSql(planned));
+    }
+
+    private Statement rewrite(AnalyzedMDL analyzedMDL, String sql, SessionContext sessionContext, WrenConfig config, PlanningListener listener)
+    {
+        // the template is rewritten on the tree directly, which is what the ast rule chaining does
+        if (!config.getPlanCacheParameterizeLiterals() || !sessionContext.isEnableAstRuleChaining()) {
+            return WrenPlanner.parseAndRewrite(sql, sessionContext, analyzedMDL, WrenPlanner.ALL_RULES, listener);
+        }
+        Statement statement = listener.time(PARSE_PHASE, () -> parseSql(sql));
+        Optional<StatementTemplate> template = listener.time(PARSE_PHASE, () -> StatementTemplate.of(statement));
+        if (template.isEmpty()) {
+            return WrenPlanner.rewrite(statement, sessionContext, analyzedMDL, WrenPlanner.ALL_RULES, listener);
+        }
+        // the parameters are kept only when the rules are applied on the tree directly
+        Statement rewritten = planCache.getRewrittenTemplate(analyzedMDL, sessionContext, template.get(),
+                () -> WrenPlanner.rewrite(template.get().getStatement(), sessionContext, analyzedMDL, WrenPlanner.ALL_RULES, listener));
+        return template.get().bind(rewritten);
     }
 }
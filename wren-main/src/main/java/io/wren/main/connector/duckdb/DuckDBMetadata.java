@@ -25,15 +25,23 @@ import io.wren.base.client.duckdb.DuckDBConfig;
 import io.wren.base.client.duckdb.DuckDBConnectorConfig;
 import io.wren.base.client.duckdb.DuckDBSettingSQL;
 import io.wren.base.client.duckdb.DuckdbClient;
+import io.wren.base.client.jdbc.QueryEvent;
 import io.wren.base.config.ConfigManager;
 import io.wren.base.config.WrenConfig;
+import io.wren.main.metadata.ArrowQueryResult;
 import io.wren.main.metadata.Metadata;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.duckdb.DuckDBResultSet;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.sql.Connection;
 import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -49,8 +57,12 @@ public class DuckDBMetadata
 {
     public static final Map<String, String> PG_TO_DUCKDB_FUNCTION_NAME_MAPPINGS = initPgNameToDuckDBFunctions();
     private static final Logger LOG = Logger.get(DuckDBMetadata.class);
+    // the rows of an arrow record batch, which bounds the memory held by a query being streamed
+    private static final int ARROW_BATCH_SIZE = 8192;
     private final ConfigManager configManager;
     private DuckdbClient duckdbClient;
+    // built and closed with the client, so its limit follows the current memory limit of DuckDB
+    private BufferAllocator rootAllocator;
     private final AtomicReference<DuckDBSettingSQL> duckDBSettingSQL = new AtomicReference<>(new DuckDBSettingSQL());
 
     @Inject
@@ -61,6 +73,7 @@ public class DuckDBMetadata
         if (configManager.getConfig(WrenConfig.class).getDataSourceType().equals(WrenConfig.DataSourceType.DUCKDB)) {
             initDuckDBSettingSQLIfNeed();
             this.duckdbClient = buildDuckDBClientSafely();
+            this.rootAllocator = buildRootAllocator();
         }
     }
 
@@ -81,6 +94,47 @@ public class DuckDBMetadata
         }
     }
 
+    /**
+     * Export the result by the arrow C data interface of DuckDB, which bypasses the JDBC accessors and the conversion of
+     * {@link DuckdbRecordIterator}. The batches of a query are allocated by its own child of the root allocator, which is
+     * bounded by the memory limit of DuckDB.
+     */
+    @Override
+    public ArrowQueryResult directArrowQuery(String sql, List<Parameter> parameters)
+    {
+        QueryEvent event = new QueryEvent();
+        event.begin();
+        BufferAllocator allocator = rootAllocator.newChildAllocator("query", 0, rootAllocator.getLimit());
+        try {
+            long start = System.nanoTime();
+            Connection connection = duckdbClient.createConnection();
+            long poolWaitNanos = System.nanoTime() - start;
+            try {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                List<Parameter> converted = convertParameters(parameters);
+                for (int i = 0; i < converted.size(); i++) {
+                    statement.setObject(i + 1, converted.get(i).getValue());
+                }
+                DuckDBResultSet resultSet = statement.executeQuery().unwrap(DuckDBResultSet.class);
+                ArrowReader reader = (ArrowReader) resultSet.arrowExportStream(allocator, ARROW_BATCH_SIZE);
+                // closing the connection closes the statement and the result set as well
+                return new ArrowQueryResult(
+                        reader,
+                        (rowCount, fetchNanos) -> event.end(sql, connection, poolWaitNanos, rowCount, fetchNanos),
+                        connection,
+                        allocator);
+            }
+            catch (Exception e) {
+                connection.close();
+                throw e;
+            }
+        }
+        catch (Exception e) {
+            allocator.close();
+            throw new WrenException(GENERIC_INTERNAL_ERROR, e);
+        }
+    }
+
     @Override
     public List<Column> describeQuery(String sql, List<Parameter> parameters)
     {
@@ -94,6 +148,7 @@ public class DuckDBMetadata
     {
         close();
         this.duckdbClient = buildDuckDBClient();
+        this.rootAllocator = buildRootAllocator();
     }
 
     @Override
@@ -102,6 +157,15 @@ public class DuckDBMetadata
         if (duckdbClient != null) {
             duckdbClient.close();
         }
+        if (rootAllocator != null) {
+            try {
+                rootAllocator.close();
+            }
+            catch (IllegalStateException e) {
+                // the queries still streamed fail with the closed client, and release their buffers when they're closed
+                LOG.warn(e, "Failed to close the arrow allocator");
+            }
+        }
     }
 
     public DuckdbClient getClient()
@@ -117,6 +181,11 @@ public class DuckDBMetadata
                 .build();
     }
 
+    private BufferAllocator buildRootAllocator()
+    {
+        return new RootAllocator(configManager.getConfig(DuckDBConfig.class).getMemoryLimit().toBytes());
+    }
+
     private DuckdbClient buildDuckDBClientSafely()
     {
         DuckdbClient.Builder builder = DuckdbClient.builder()
@@ -26,18 +26,18 @@ import org.duckdb.DuckDBResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
 
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toList;
 
 public class DuckdbRecordIterator
         implements ConnectorRecordIterator
 {
     private final List<Column> columns;
     private final AutoCloseableIterator<Object[]> recordIterator;
+    // chosen once by the column types, so a row is converted without matching the type names
+    private final ValueConverter[] converters;
 
     public static DuckdbRecordIterator of(Client client, String sql, List<Parameter> parameters)
             throws SQLException
@@ -60,6 +60,9 @@ public class DuckdbRecordIterator
             columnBuilder.add(new Column(resultSetMetaData.getColumnName(i), resultSetMetaData.getColumnTypeName(i)));
         }
         this.columns = columnBuilder.build();
+        this.converters = columns.stream()
+                .map(column -> converter(column.getType()))
+                .toArray(ValueConverter[]::new);
     }
 
     @Override
@@ -84,43 +87,52 @@ public class DuckdbRecordIterator
     @Override
     public Object[] next()
     {
+        // the record is created for every row, so it's converted in place
         Object[] record = recordIterator.next();
-        return IntStream.range(0, record.length)
-                .mapToObj(index -> convertValue(columns.get(index).getType(), record[index]))
-                .toArray();
+        for (int i = 0; i < record.length; i++) {
+            if (record[i] != null) {
+                record[i] = convert(converters[i], record[i]);
+            }
+        }
+        return record;
     }
 
-    private Object convertValue(String type, Object value)
+    private static Object convert(ValueConverter converter, Object value)
     {
         try {
-            if (value == null) {
-                return null;
-            }
-            if (type.endsWith("[]")) {
-                if (value instanceof DuckDBArray array) {
-                    return Arrays.stream((Object[]) array.getArray())
-                            .map(innerVal -> convertValue(type.substring(0, type.length() - 2), innerVal))
-                            .collect(toList());
-                }
-                return Arrays.stream((Object[]) value)
-                        .map(innerVal -> convertValue(type.substring(0, type.length() - 2), innerVal))
-                        .collect(toList());
-            }
-            switch (type) {
-                case "TIMESTAMP":
-                    return ((Timestamp) value).toLocalDateTime();
-                case "BLOB":
-                    if (value instanceof DuckDBResultSet.DuckDBBlobResult) {
-                        DuckDBResultSet.DuckDBBlobResult blob = (DuckDBResultSet.DuckDBBlobResult) value;
-                        return blob.getBytes(1, (int) blob.length());
-                    }
-                case "JSON":
-                    return value.toString();
-            }
-            return value;
+            return converter.convert(value);
         }
         catch (Exception e) {
             throw new IllegalArgumentException("Unsupported value: " + value, e);
         }
     }
+
+    private static ValueConverter converter(String type)
+    {
+        if (type.endsWith("[]")) {
+            ValueConverter elementConverter = converter(type.substring(0, type.length() - 2));
+            return value -> {
+                Object[] elements = value instanceof DuckDBArray array ? (Object[]) array.getArray() : (Object[]) value;
+                List<Object> converted = new ArrayList<>(elements.length);
+                for (Object element : elements) {
+                    converted.add(element == null ? null : convert(elementConverter, element));
+                }
+                return converted;
+            };
+        }
+        return switch (type) {
+            case "TIMESTAMP" -> value -> ((Timestamp) value).toLocalDateTime();
+            // a value which isn't a blob of DuckDB is converted like JSON
+            case "BLOB" -> value -> value instanceof DuckDBResultSet.DuckDBBlobResult blob ? blob.getBytes(1, (int) blob.length()) : value.toString();
+            case "JSON" -> Object::toString;
+            default -> value -> value;
+        };
+    }
+
+    @FunctionalInterface
+    private interface ValueConverter
+    {
+        Object convert(Object value)
+                throws SQLException;
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.metadata;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowReader;
+
+import java.io.IOException;
+import java.util.List;
+
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The result of a query read as arrow record batches straight from the data source, so no value is converted row by row.
+ * The reader holds one batch at a time. Closing the result reports the rows fetched to the listener, and releases the
+ * reader first and then the resources of the query in the given order.
+ */
+public class ArrowQueryResult
+        implements AutoCloseable
+{
+    private final ArrowReader reader;
+    private final Listener listener;
+    private final List<AutoCloseable> resources;
+
+    private long rowCount;
+    private long fetchNanos;
+    private boolean closed;
+
+    public ArrowQueryResult(ArrowReader reader, Listener listener, AutoCloseable... resources)
+    {
+        this.reader = requireNonNull(reader, "reader is null");
+        this.listener = requireNonNull(listener, "listener is null");
+        this.resources = ImmutableList.copyOf(resources);
+    }
+
+    public ArrowReader getReader()
+    {
+        return reader;
+    }
+
+    /**
+     * Load the next batch into the root of the reader, and cut it at the given number of rows. Only the rows kept are
+     * counted, since the rest are never sent.
+     */
+    public boolean loadNextBatch(long maxRows)
+            throws IOException
+    {
+        long start = System.nanoTime();
+        boolean loaded = reader.loadNextBatch();
+        fetchNanos += System.nanoTime() - start;
+        if (loaded) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            root.setRowCount((int) min(root.getRowCount(), maxRows));
+            rowCount += root.getRowCount();
+        }
+        return loaded;
+    }
+
+    @Override
+    public void close()
+            throws Exception
+    {
+        if (!closed) {
+            closed = true;
+            listener.resultClosed(rowCount, fetchNanos);
+        }
+        Exception failure = null;
+        for (AutoCloseable closeable : ImmutableList.<AutoCloseable>builder().add(reader).addAll(resources).build()) {
+            try {
+                closeable.close();
+            }
+            catch (Exception e) {
+                if (failure == null) {
+                    failure = e;
+                }
+                else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public interface Listener
+    {
+        void resultClosed(long rowCount, long fetchNanos);
+    }
+}
@@ -26,6 +26,11 @@ public interface Metadata
 
     ConnectorRecordIterator directQuery(String sql, List<Parameter> parameters);
 
+    /**
+     * Run the query and read the result in arrow record batches. The caller must close the returned result.
+     */
+    ArrowQueryResult directArrowQuery(String sql, List<Parameter> parameters);
+
     List<Column> describeQuery(String sql, List<Parameter> parameters);
 
     void reload();
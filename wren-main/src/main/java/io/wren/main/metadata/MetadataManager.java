@@ -20,16 +20,20 @@ import io.wren.base.ConnectorRecordIterator;
 import io.wren.base.Parameter;
 import io.wren.base.config.ConfigManager;
 import io.wren.base.config.WrenConfig;
+import io.wren.main.PlannerStats;
 import io.wren.main.connector.duckdb.DuckDBMetadata;
 
 import java.util.List;
 
+import static io.wren.main.PlannerStats.DESCRIBE_QUERY_PHASE;
+import static io.wren.main.PlannerStats.DIRECT_QUERY_PHASE;
 import static java.util.Objects.requireNonNull;
 
 public final class MetadataManager
         implements Metadata
 {
     private final DuckDBMetadata duckDBMetadata;
+    private final PlannerStats plannerStats;
 
     private WrenConfig.DataSourceType dataSourceType;
     private Metadata delegate;
@@ -37,9 +41,11 @@ public final class MetadataManager
     @Inject
     public MetadataManager(
             ConfigManager configManager,
-            DuckDBMetadata duckDBMetadata)
+            DuckDBMetadata duckDBMetadata,
+            PlannerStats plannerStats)
     {
         this.duckDBMetadata = requireNonNull(duckDBMetadata, "duckDBMetadata is null");
+        this.plannerStats = requireNonNull(plannerStats, "plannerStats is null");
         this.dataSourceType = requireNonNull(configManager.getConfig(WrenConfig.class).getDataSourceType(), "dataSourceType is null");
         changeDelegate(dataSourceType);
     }
@@ -64,13 +70,19 @@ public final class MetadataManager
     @Override
     public ConnectorRecordIterator directQuery(String sql, List<Parameter> parameters)
     {
-        return delegate.directQuery(sql, parameters);
+        return plannerStats.time(DIRECT_QUERY_PHASE, () -> delegate.directQuery(sql, parameters));
+    }
+
+    @Override
+    public ArrowQueryResult directArrowQuery(String sql, List<Parameter> parameters)
+    {
+        return plannerStats.time(DIRECT_QUERY_PHASE, () -> delegate.directArrowQuery(sql, parameters));
     }
 
     @Override
     public List<Column> describeQuery(String sql, List<Parameter> parameters)
     {
-        return delegate.describeQuery(sql, parameters);
+        return plannerStats.time(DESCRIBE_QUERY_PHASE, () -> delegate.describeQuery(sql, parameters));
     }
 
     @Override
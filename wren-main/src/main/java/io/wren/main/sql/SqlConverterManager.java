@@ -19,8 +19,10 @@ import io.wren.base.SessionContext;
 import io.wren.base.config.ConfigManager;
 import io.wren.base.config.WrenConfig;
 import io.wren.base.sql.SqlConverter;
+import io.wren.main.PlannerStats;
 import io.wren.main.connector.duckdb.DuckDBSqlConverter;
 
+import static io.wren.main.PlannerStats.CONVERT_PHASE;
 import static java.util.Objects.requireNonNull;
 
 public final class SqlConverterManager
@@ -28,16 +30,19 @@ public final class SqlConverterManager
 {
     private final DuckDBSqlConverter duckDBSqlConverter;
     private final ConfigManager configManager;
+    private final PlannerStats plannerStats;
     private WrenConfig.DataSourceType dataSourceType;
     private SqlConverter delegate;
 
     @Inject
     public SqlConverterManager(
             ConfigManager configManager,
-            DuckDBSqlConverter duckDBSqlConverter)
+            DuckDBSqlConverter duckDBSqlConverter,
+            PlannerStats plannerStats)
     {
         this.configManager = requireNonNull(configManager, "configManager is null");
         this.duckDBSqlConverter = requireNonNull(duckDBSqlConverter, "duckDBSqlConverter is null");
+        this.plannerStats = requireNonNull(plannerStats, "plannerStats is null");
         this.dataSourceType = requireNonNull(configManager.getConfig(WrenConfig.class).getDataSourceType(), "dataSourceType is null");
         changeDelegate(dataSourceType);
     }
@@ -64,6 +69,6 @@ public final class SqlConverterManager
     @Override
     public String convert(String sql, SessionContext sessionContext)
     {
-        return delegate.convert(sql, sessionContext);
+        return plannerStats.time(CONVERT_PHASE, () -> delegate.convert(sql, sessionContext));
     }
 }
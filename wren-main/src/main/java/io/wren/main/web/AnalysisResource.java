@@ -39,6 +39,7 @@ import java.util.concurrent.CompletableFuture;
 
 import static io.wren.base.sqlrewrite.Utils.parseSql;
 import static io.wren.main.web.WrenExceptionMapper.bindAsyncResponse;
+import static io.wren.main.web.WrenMediaType.APPLICATION_JACKSON_SMILE;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 
 @Path("/v1/analysis")
@@ -51,7 +52,7 @@ public class AnalysisResource
 
     @GET
     @Path("/sql")
-    @Consumes(APPLICATION_JSON)
+    @Consumes({APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     @Produces(APPLICATION_JSON)
     public void getSqlAnalysis(
             SqlAnalysisInputDto inputDto,
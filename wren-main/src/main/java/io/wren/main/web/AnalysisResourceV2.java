@@ -16,9 +16,10 @@ package io.wren.main.web;
 
 import com.google.inject.Inject;
 import io.trino.sql.tree.Statement;
+import io.wren.base.AnalyzedMDL;
 import io.wren.base.SessionContext;
-import io.wren.base.WrenMDL;
 import io.wren.base.sqlrewrite.analyzer.decisionpoint.DecisionPointAnalyzer;
+import io.wren.main.AnalyzedMDLCache;
 import io.wren.main.web.dto.SqlAnalysisInputDtoV2;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
@@ -27,25 +28,29 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.container.AsyncResponse;
 import jakarta.ws.rs.container.Suspended;
 
-import java.io.IOException;
-import java.util.Base64;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import static io.wren.base.sqlrewrite.Utils.parseSql;
 import static io.wren.main.web.WrenExceptionMapper.bindAsyncResponse;
+import static io.wren.main.web.WrenMediaType.APPLICATION_JACKSON_SMILE;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
-import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
 
 @Path("/v2/analysis")
 public class AnalysisResourceV2
 {
+    private final AnalyzedMDLCache analyzedMDLCache;
+
     @Inject
-    public AnalysisResourceV2() {}
+    public AnalysisResourceV2(AnalyzedMDLCache analyzedMDLCache)
+    {
+        this.analyzedMDLCache = requireNonNull(analyzedMDLCache, "analyzedMDLCache is null");
+    }
 
     @GET
     @Path("/sql")
-    @Consumes(APPLICATION_JSON)
+    @Consumes({APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     @Produces(APPLICATION_JSON)
     public void getSqlAnalysis(
             SqlAnalysisInputDtoV2 inputDto,
@@ -53,16 +58,10 @@ public class AnalysisResourceV2
     {
         CompletableFuture
                 .supplyAsync(() ->
-                        Optional.ofNullable(inputDto.getManifestStr())
+                        Optional.ofNullable(inputDto.getManifestStr()).map(analyzedMDLCache::get)
+                                .or(() -> Optional.ofNullable(inputDto.getFingerprint()).map(analyzedMDLCache::getByFingerprint))
                                 .orElseThrow(() -> new IllegalArgumentException("Manifest is required")))
-                .thenApply(manifestStr -> {
-                    try {
-                        return WrenMDL.fromJson(new String(Base64.getDecoder().decode(manifestStr), UTF_8));
-                    }
-                    catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                })
+                .thenApply(AnalyzedMDL::getWrenMDL)
                 .thenApply(mdl -> {
                     Statement statement = parseSql(inputDto.getSql());
                     return DecisionPointAnalyzer.analyze(
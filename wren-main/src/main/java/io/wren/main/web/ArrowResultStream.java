@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.web;
+
+import io.wren.main.metadata.ArrowQueryResult;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.channels.Channels.newChannel;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Write a query result in the Arrow IPC stream format: the schema followed by every record batch read from the data
+ * source. Only one batch is held in memory, and the last one is cut at the limit. Like {@link QueryResultStream}, the
+ * result is closed when it's written or the client disconnects, and an error after the schema aborts the response.
+ */
+public class ArrowResultStream
+        implements StreamingOutput, Closeable
+{
+    private final ArrowQueryResult result;
+    private final long limit;
+    private final ResultStreamListener listener;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @return the result of a statement which returns no result set, which is a schema of no field and no batch.
+     */
+    public static StreamingOutput empty()
+    {
+        return output -> {
+            try (VectorSchemaRoot root = VectorSchemaRoot.of()) {
+                ArrowStreamWriter writer = new ArrowStreamWriter(root, null, newChannel(output));
+                writer.start();
+                writer.end();
+            }
+        };
+    }
+
+    public ArrowResultStream(ArrowQueryResult result, long limit)
+    {
+        this(result, limit, ResultStreamListener.NONE);
+    }
+
+    public ArrowResultStream(ArrowQueryResult result, long limit, ResultStreamListener listener)
+    {
+        this.result = requireNonNull(result, "result is null");
+        this.limit = limit;
+        this.listener = requireNonNull(listener, "listener is null");
+    }
+
+    @Override
+    public void write(OutputStream output)
+            throws IOException
+    {
+        long start = System.nanoTime();
+        long remaining = limit;
+        try {
+            ArrowReader reader = result.getReader();
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            // the writer isn't closed since closing it closes the output as well
+            ArrowStreamWriter writer = new ArrowStreamWriter(root, reader, newChannel(output));
+            writer.start();
+            // send the schema before the first batch is fetched
+            output.flush();
+            while (remaining > 0 && result.loadNextBatch(remaining)) {
+                writer.writeBatch();
+                remaining -= root.getRowCount();
+            }
+            writer.end();
+        }
+        finally {
+            listener.streamCompleted(System.nanoTime() - start, limit - remaining);
+            close();
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            result.close();
+        }
+        catch (IOException | RuntimeException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.inject.Inject;
+import io.airlift.json.ObjectMapperProvider;
+import io.wren.main.web.dto.ColumnarQueryResultDto;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+import static io.wren.main.web.WrenMediaType.APPLICATION_COLUMNAR_JSON;
+import static io.wren.main.web.WrenMediaType.APPLICATION_COLUMNAR_SMILE;
+
+/**
+ * Write a {@link ColumnarQueryResultDto} in json or in Smile by the media type of the response.
+ */
+@Provider
+@Produces({APPLICATION_COLUMNAR_JSON, APPLICATION_COLUMNAR_SMILE})
+public class ColumnarResultWriter
+        implements MessageBodyWriter<ColumnarQueryResultDto>
+{
+    private static final MediaType COLUMNAR_SMILE = MediaType.valueOf(APPLICATION_COLUMNAR_SMILE);
+
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter smileWriter;
+
+    @Inject
+    public ColumnarResultWriter(ObjectMapper objectMapper)
+    {
+        this.jsonWriter = objectMapper.writerFor(ColumnarQueryResultDto.class).without(AUTO_CLOSE_TARGET);
+        this.smileWriter = new ObjectMapperProvider(new SmileFactory()).get().writerFor(ColumnarQueryResultDto.class).without(AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+    {
+        return ColumnarQueryResultDto.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(ColumnarQueryResultDto result, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream output)
+            throws IOException
+    {
+        (mediaType.isCompatible(COLUMNAR_SMILE) ? smileWriter : jsonWriter).writeValue(output, result);
+    }
+}
@@ -17,6 +17,7 @@ package io.wren.main.web;
 import com.google.inject.Inject;
 import io.wren.base.config.ConfigManager;
 import io.wren.base.sql.SqlConverter;
+import io.wren.main.PlanCache;
 import io.wren.main.metadata.Metadata;
 import io.wren.main.sql.SqlConverterManager;
 import jakarta.ws.rs.DELETE;
@@ -38,16 +39,19 @@ public class ConfigResource
 {
     private final ConfigManager configManager;
     private final SqlConverterManager sqlConverter;
+    private final PlanCache planCache;
 
     @Inject
     public ConfigResource(
             ConfigManager configManager,
             Metadata metadata,
-            SqlConverter sqlConverter)
+            SqlConverter sqlConverter,
+            PlanCache planCache)
 
     {
         this.configManager = requireNonNull(configManager, "configManager is null");
         this.sqlConverter = (SqlConverterManager) requireNonNull(sqlConverter, "sqlConverter is null");
+        this.planCache = requireNonNull(planCache, "planCache is null");
     }
 
     @GET
@@ -76,7 +80,11 @@ public class ConfigResource
     public void resetToDefaultConfig(@Suspended AsyncResponse asyncResponse)
     {
         CompletableFuture
-                .runAsync(() -> configManager.setConfigs(List.of(), true))
+                .runAsync(() -> {
+                    configManager.setConfigs(List.of(), true);
+                    // the planned sql depends on the configs
+                    planCache.invalidateAll();
+                })
                 .whenComplete(WrenExceptionMapper.bindAsyncResponse(asyncResponse));
     }
 
@@ -91,6 +99,7 @@ public class ConfigResource
                     if (configManager.setConfigs(configEntries, false)) {
                         reloadConfig();
                     }
+                    planCache.invalidateAll();
                 })
                 .whenComplete(WrenExceptionMapper.bindAsyncResponse(asyncResponse));
     }
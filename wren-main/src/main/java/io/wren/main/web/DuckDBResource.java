@@ -14,12 +14,14 @@
 
 package io.wren.main.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 import io.wren.base.ConnectorRecordIterator;
 import io.wren.base.WrenException;
 import io.wren.base.client.duckdb.FileUtil;
 import io.wren.main.connector.duckdb.DuckDBMetadata;
+import io.wren.main.web.dto.ColumnarQueryResultDto;
 import io.wren.main.web.dto.QueryResultDto;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.PATCH;
@@ -29,9 +31,21 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.container.AsyncResponse;
 import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static io.wren.base.metadata.StandardErrorCode.GENERIC_USER_ERROR;
 import static io.wren.main.web.WrenExceptionMapper.bindAsyncResponse;
+import static io.wren.main.web.WrenExceptionMapper.closeOnCompletion;
+import static io.wren.main.web.WrenMediaType.APPLICATION_ARROW_STREAM;
+import static io.wren.main.web.WrenMediaType.APPLICATION_COLUMNAR_JSON;
+import static io.wren.main.web.WrenMediaType.APPLICATION_COLUMNAR_SMILE;
+import static io.wren.main.web.WrenMediaType.APPLICATION_NDJSON;
+import static io.wren.main.web.WrenMediaType.firstAccepted;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.runAsync;
@@ -41,41 +55,85 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 public class DuckDBResource
 {
     private final DuckDBMetadata metadata;
+    private final ObjectMapper objectMapper;
 
     @Inject
     public DuckDBResource(
-            DuckDBMetadata metadata)
+            DuckDBMetadata metadata,
+            ObjectMapper objectMapper)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
+        this.objectMapper = requireNonNull(objectMapper, "objectMapper is null");
     }
 
     @POST
     @Path("/query")
-    @Produces(APPLICATION_JSON)
+    @Produces({APPLICATION_JSON, APPLICATION_NDJSON, APPLICATION_ARROW_STREAM, APPLICATION_COLUMNAR_JSON, APPLICATION_COLUMNAR_SMILE})
     public void query(
             String statement,
+            @Context HttpHeaders headers,
             @Suspended AsyncResponse asyncResponse)
             throws Exception
     {
-        supplyAsync(() -> {
+        String mediaType = firstAccepted(headers, APPLICATION_ARROW_STREAM, APPLICATION_NDJSON, APPLICATION_COLUMNAR_JSON, APPLICATION_COLUMNAR_SMILE).orElse(APPLICATION_JSON);
+        if (mediaType.equals(APPLICATION_ARROW_STREAM)) {
+            supplyAsync(() -> emptyIfNoResultSet(() -> {
+                ArrowResultStream stream = new ArrowResultStream(metadata.directArrowQuery(statement, ImmutableList.of()), Long.MAX_VALUE);
+                closeOnCompletion(asyncResponse, stream);
+                return Response.ok(stream, APPLICATION_ARROW_STREAM).build();
+            }, () -> Response.ok(ArrowResultStream.empty(), APPLICATION_ARROW_STREAM).build())).whenComplete(bindAsyncResponse(asyncResponse));
+            return;
+        }
+        if (mediaType.equals(APPLICATION_NDJSON)) {
+            supplyAsync(() -> emptyIfNoResultSet(() -> {
+                QueryResultStream stream = new QueryResultStream(objectMapper, metadata.directQuery(statement, ImmutableList.of()), Long.MAX_VALUE);
+                closeOnCompletion(asyncResponse, stream);
+                return Response.ok(stream, APPLICATION_NDJSON).build();
+            }, () -> Response.ok(QueryResultStream.empty(objectMapper), APPLICATION_NDJSON).build())).whenComplete(bindAsyncResponse(asyncResponse));
+            return;
+        }
+        if (mediaType.equals(APPLICATION_COLUMNAR_JSON) || mediaType.equals(APPLICATION_COLUMNAR_SMILE)) {
+            supplyAsync(() -> query(statement, iterator -> ColumnarQueryResultDto.of(iterator.getColumns(), iterator, Long.MAX_VALUE), new ColumnarQueryResultDto(ImmutableList.of(), 0, ImmutableList.of())))
+                    .thenApply(result -> Response.ok(result, mediaType).build())
+                    .whenComplete(bindAsyncResponse(asyncResponse));
+            return;
+        }
+        supplyAsync(() -> query(statement, iterator -> {
+            ImmutableList.Builder<Object[]> data = ImmutableList.builder();
+            while (iterator.hasNext()) {
+                data.add(iterator.next());
+            }
+            return new QueryResultDto(iterator.getColumns(), data.build());
+        }, new QueryResultDto(ImmutableList.of(), ImmutableList.of()))).whenComplete(bindAsyncResponse(asyncResponse));
+    }
+
+    private <T> T query(String statement, Function<ConnectorRecordIterator, T> collector, T emptyResult)
+    {
+        return emptyIfNoResultSet(() -> {
             try (ConnectorRecordIterator iterator = metadata.directQuery(statement, ImmutableList.of())) {
-                ImmutableList.Builder<Object[]> data = ImmutableList.builder();
-                while (iterator.hasNext()) {
-                    data.add(iterator.next());
-                }
-                return new QueryResultDto(iterator.getColumns(), data.build());
+                return collector.apply(iterator);
             }
             catch (WrenException e) {
-                // Sending DDL via executeQuery() still work. Should catch exception to make sense.
-                if (e.getMessage().contains("executeQuery() can only be used with queries that return a ResultSet")) {
-                    return new QueryResultDto(ImmutableList.of(), ImmutableList.of());
-                }
                 throw e;
             }
             catch (Exception e) {
                 throw new WrenException(GENERIC_USER_ERROR, e);
             }
-        }).whenComplete(bindAsyncResponse(asyncResponse));
+        }, () -> emptyResult);
+    }
+
+    private static <T> T emptyIfNoResultSet(Supplier<T> query, Supplier<T> emptyResult)
+    {
+        try {
+            return query.get();
+        }
+        catch (WrenException e) {
+            // Sending DDL via executeQuery() still work. Should catch exception to make sense.
+            if (e.getMessage().contains("executeQuery() can only be used with queries that return a ResultSet")) {
+                return emptyResult.get();
+            }
+            throw e;
+        }
     }
 
     @GET
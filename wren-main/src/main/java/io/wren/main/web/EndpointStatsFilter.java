@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.web;
+
+import com.google.inject.Inject;
+import io.wren.main.EndpointStats;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Record the latency of every request by the matched resource method. The response of an async resource is filtered
+ * when it's resumed, so the latency covers the async processing as well.
+ */
+public class EndpointStatsFilter
+        implements ContainerRequestFilter, ContainerResponseFilter
+{
+    private static final String START_TIME = EndpointStatsFilter.class.getName() + ".startTime";
+
+    private final EndpointStats endpointStats;
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Inject
+    public EndpointStatsFilter(EndpointStats endpointStats)
+    {
+        this.endpointStats = requireNonNull(endpointStats, "endpointStats is null");
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext)
+    {
+        requestContext.setProperty(START_TIME, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+    {
+        Object startTime = requestContext.getProperty(START_TIME);
+        if (startTime == null || resourceInfo == null || resourceInfo.getResourceMethod() == null) {
+            return;
+        }
+        String endpoint = resourceInfo.getResourceClass().getSimpleName() + "." + resourceInfo.getResourceMethod().getName();
+        endpointStats.getEndpoint(endpoint).addNanos(System.nanoTime() - (long) startTime);
+    }
+}
@@ -14,9 +14,12 @@
 
 package io.wren.main.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.Inject;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.WrenMDL;
+import io.wren.main.AnalyzedMDLCache;
+import io.wren.main.PhaseTimings;
 import io.wren.main.PreviewService;
 import io.wren.main.ValidationService;
 import io.wren.main.web.dto.DryPlanDto;
@@ -30,11 +33,21 @@ import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.container.AsyncResponse;
 import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
 
 import java.util.Map;
 import java.util.Optional;
 
 import static io.wren.main.web.WrenExceptionMapper.bindAsyncResponse;
+import static io.wren.main.web.WrenExceptionMapper.closeOnCompletion;
+import static io.wren.main.web.WrenMediaType.APPLICATION_ARROW_STREAM;
+import static io.wren.main.web.WrenMediaType.APPLICATION_COLUMNAR_JSON;
+import static io.wren.main.web.WrenMediaType.APPLICATION_COLUMNAR_SMILE;
+import static io.wren.main.web.WrenMediaType.APPLICATION_JACKSON_SMILE;
+import static io.wren.main.web.WrenMediaType.APPLICATION_NDJSON;
+import static io.wren.main.web.WrenMediaType.firstAccepted;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 import static java.util.Objects.requireNonNull;
 
@@ -43,37 +56,75 @@ public class MDLResource
 {
     private final PreviewService previewService;
     private final ValidationService validationService;
+    private final AnalyzedMDLCache analyzedMDLCache;
+    private final ObjectMapper objectMapper;
 
     @Inject
     public MDLResource(
             PreviewService previewService,
-            ValidationService validationService)
+            ValidationService validationService,
+            AnalyzedMDLCache analyzedMDLCache,
+            ObjectMapper objectMapper)
     {
         this.previewService = requireNonNull(previewService, "previewService is null");
         this.validationService = requireNonNull(validationService, "validationService is null");
+        this.analyzedMDLCache = requireNonNull(analyzedMDLCache, "analyzedMDLCache is null");
+        this.objectMapper = requireNonNull(objectMapper, "objectMapper is null");
     }
 
     @GET
     @Path("/preview")
-    @Consumes(APPLICATION_JSON)
-    @Produces(APPLICATION_JSON)
+    @Consumes({APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
+    @Produces({APPLICATION_JSON, APPLICATION_NDJSON, APPLICATION_ARROW_STREAM, APPLICATION_COLUMNAR_JSON, APPLICATION_COLUMNAR_SMILE})
     public void preview(
             PreviewDto previewDto,
+            @Context HttpHeaders headers,
             @Suspended AsyncResponse asyncResponse)
     {
         if (previewDto.getManifest() == null) {
             asyncResponse.resume(new IllegalArgumentException("Manifest is required"));
+            return;
+        }
+        PhaseTimings timings = previewService.newPhaseTimings();
+        long limit = Optional.ofNullable(previewDto.getLimit()).orElse(100L);
+        String mediaType = firstAccepted(headers, APPLICATION_ARROW_STREAM, APPLICATION_NDJSON, APPLICATION_COLUMNAR_JSON, APPLICATION_COLUMNAR_SMILE).orElse(APPLICATION_JSON);
+        if (mediaType.equals(APPLICATION_ARROW_STREAM)) {
+            previewService.queryArrow(analyzedMDLCache.get(previewDto.getManifest()), previewDto.getSql(), limit, timings)
+                    .thenApply(result -> {
+                        ArrowResultStream stream = new ArrowResultStream(result, limit, previewService::streamCompleted);
+                        closeOnCompletion(asyncResponse, stream);
+                        return Response.ok(stream, APPLICATION_ARROW_STREAM).build();
+                    })
+                    .whenComplete(bindAsyncResponse(asyncResponse, timings));
+            return;
+        }
+        if (mediaType.equals(APPLICATION_NDJSON)) {
+            previewService.query(analyzedMDLCache.get(previewDto.getManifest()), previewDto.getSql(), limit, timings)
+                    .thenApply(iterator -> {
+                        QueryResultStream stream = new QueryResultStream(objectMapper, iterator, limit, previewService::streamCompleted);
+                        closeOnCompletion(asyncResponse, stream);
+                        return Response.ok(stream, APPLICATION_NDJSON).build();
+                    })
+                    .whenComplete(bindAsyncResponse(asyncResponse, timings));
+            return;
+        }
+        if (mediaType.equals(APPLICATION_COLUMNAR_JSON) || mediaType.equals(APPLICATION_COLUMNAR_SMILE)) {
+            previewService.previewColumnar(analyzedMDLCache.get(previewDto.getManifest()), previewDto.getSql(), limit, timings)
+                    .thenApply(result -> Response.ok(result, mediaType).build())
+                    .whenComplete(bindAsyncResponse(asyncResponse, timings));
+            return;
         }
         previewService.preview(
-                        WrenMDL.fromManifest(previewDto.getManifest()),
+                        analyzedMDLCache.get(previewDto.getManifest()),
                         previewDto.getSql(),
-                        Optional.ofNullable(previewDto.getLimit()).orElse(100L))
-                .whenComplete(bindAsyncResponse(asyncResponse));
+                        limit,
+                        timings)
+                .whenComplete(bindAsyncResponse(asyncResponse, timings));
     }
 
     @GET
     @Path("/dry-plan")
-    @Consumes(APPLICATION_JSON)
+    @Consumes({APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     @Produces(APPLICATION_JSON)
     public void dryPlan(
             DryPlanDto dryPlanDto,
@@ -81,14 +132,16 @@ public class MDLResource
     {
         if (dryPlanDto.getManifest() == null) {
             asyncResponse.resume(new IllegalArgumentException("Manifest is required"));
+            return;
         }
-        previewService.dryPlan(WrenMDL.fromManifest(dryPlanDto.getManifest()), dryPlanDto.getSql(), dryPlanDto.isModelingOnly())
-                .whenComplete(bindAsyncResponse(asyncResponse));
+        PhaseTimings timings = previewService.newPhaseTimings();
+        previewService.dryPlan(analyzedMDLCache.get(dryPlanDto.getManifest()), dryPlanDto.getSql(), dryPlanDto.isModelingOnly(), timings)
+                .whenComplete(bindAsyncResponse(asyncResponse, timings));
     }
 
     @GET
     @Path("/dry-run")
-    @Consumes(APPLICATION_JSON)
+    @Consumes({APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     @Produces(APPLICATION_JSON)
     public void dryRun(
             PreviewDto previewDto,
@@ -96,14 +149,16 @@ public class MDLResource
     {
         if (previewDto.getManifest() == null) {
             asyncResponse.resume(new IllegalArgumentException("Manifest is required"));
+            return;
         }
-        previewService.dryRun(WrenMDL.fromManifest(previewDto.getManifest()), previewDto.getSql())
-                .whenComplete(bindAsyncResponse(asyncResponse));
+        PhaseTimings timings = previewService.newPhaseTimings();
+        previewService.dryRun(analyzedMDLCache.get(previewDto.getManifest()), previewDto.getSql(), timings)
+                .whenComplete(bindAsyncResponse(asyncResponse, timings));
     }
 
     @POST
     @Path("/validate/{ruleName}")
-    @Consumes(APPLICATION_JSON)
+    @Consumes({APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     @Produces(APPLICATION_JSON)
     public void validate(
             @PathParam("ruleName") String ruleName,
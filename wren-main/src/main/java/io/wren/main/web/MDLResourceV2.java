@@ -15,58 +15,82 @@
 package io.wren.main.web;
 
 import com.google.inject.Inject;
-import io.wren.base.WrenMDL;
+import io.wren.base.dto.ManifestDelta;
+import io.wren.main.AnalyzedMDLCache;
+import io.wren.main.PhaseTimings;
 import io.wren.main.PreviewService;
 import io.wren.main.web.dto.DryPlanDtoV2;
+import io.wren.main.web.dto.FingerprintDto;
+import io.wren.main.web.dto.ManifestDeltaInputDto;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.container.AsyncResponse;
 import jakarta.ws.rs.container.Suspended;
 
-import java.io.IOException;
-import java.util.Base64;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import static io.wren.main.web.WrenExceptionMapper.bindAsyncResponse;
+import static io.wren.main.web.WrenMediaType.APPLICATION_JACKSON_SMILE;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
 @Path("/v2/mdl")
 public class MDLResourceV2
 {
     private final PreviewService previewService;
+    private final AnalyzedMDLCache analyzedMDLCache;
 
     @Inject
-    public MDLResourceV2(PreviewService previewService)
+    public MDLResourceV2(
+            PreviewService previewService,
+            AnalyzedMDLCache analyzedMDLCache)
     {
         this.previewService = requireNonNull(previewService, "previewService is null");
+        this.analyzedMDLCache = requireNonNull(analyzedMDLCache, "analyzedMDLCache is null");
     }
 
     @GET
     @Path("/dry-plan")
-    @Consumes(APPLICATION_JSON)
+    @Consumes({APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     @Produces(APPLICATION_JSON)
     public void dryPlan(
             DryPlanDtoV2 dryPlanDto,
             @Suspended AsyncResponse asyncResponse)
     {
+        PhaseTimings timings = previewService.newPhaseTimings();
         CompletableFuture
                 .supplyAsync(() ->
-                        Optional.ofNullable(dryPlanDto.getManifestStr())
+                        Optional.ofNullable(dryPlanDto.getManifestStr()).map(analyzedMDLCache::get)
+                                .or(() -> Optional.ofNullable(dryPlanDto.getFingerprint()).map(analyzedMDLCache::getByFingerprint))
                                 .orElseThrow(() -> new IllegalArgumentException("Manifest is required")))
-                .thenApply(manifestStr -> {
-                    try {
-                        return WrenMDL.fromJson(new String(Base64.getDecoder().decode(manifestStr), UTF_8));
-                    }
-                    catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
+                .thenCompose(analyzedMDL -> previewService.dryPlan(analyzedMDL, dryPlanDto.getSql(), true, timings))
+                .whenComplete(bindAsyncResponse(asyncResponse, timings));
+    }
+
+    /**
+     * Apply the delta to the cached manifest of the base fingerprint, which is the sha256 of the manifestStr or a
+     * fingerprint returned by this endpoint before. The fingerprint of the new manifest is returned.
+     */
+    @POST
+    @Path("/delta")
+    @Consumes({APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
+    @Produces(APPLICATION_JSON)
+    public void applyDelta(
+            ManifestDeltaInputDto deltaInputDto,
+            @Suspended AsyncResponse asyncResponse)
+    {
+        CompletableFuture
+                .supplyAsync(() -> {
+                    String baseFingerprint = Optional.ofNullable(deltaInputDto.getBaseFingerprint())
+                            .orElseThrow(() -> new IllegalArgumentException("Base fingerprint is required"));
+                    ManifestDelta delta = Optional.ofNullable(deltaInputDto.getDelta())
+                            .orElseThrow(() -> new IllegalArgumentException("Delta is required"));
+                    return new FingerprintDto(analyzedMDLCache.applyDelta(baseFingerprint, delta));
                 })
-                .thenCompose(mdl -> previewService.dryPlan(mdl, dryPlanDto.getSql(), true))
                 .whenComplete(bindAsyncResponse(asyncResponse));
     }
 }
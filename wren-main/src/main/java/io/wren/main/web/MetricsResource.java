@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.web;
+
+import com.google.inject.Inject;
+import io.wren.main.EndpointStats;
+import io.wren.main.PlannerStats;
+import io.wren.main.web.dto.DistributionDto;
+import io.wren.main.web.dto.MetricsDto;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+
+import java.util.Map;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.Objects.requireNonNull;
+
+@Path("/v1/metrics")
+public class MetricsResource
+{
+    private final PlannerStats plannerStats;
+    private final EndpointStats endpointStats;
+
+    @Inject
+    public MetricsResource(PlannerStats plannerStats, EndpointStats endpointStats)
+    {
+        this.plannerStats = requireNonNull(plannerStats, "plannerStats is null");
+        this.endpointStats = requireNonNull(endpointStats, "endpointStats is null");
+    }
+
+    @GET
+    @Produces("application/json")
+    public MetricsDto getMetrics()
+    {
+        return new MetricsDto(
+                plannerStats.getPhases().entrySet().stream()
+                        .collect(toImmutableMap(Map.Entry::getKey, entry -> DistributionDto.of(entry.getValue()))),
+                endpointStats.getEndpoints().entrySet().stream()
+                        .collect(toImmutableMap(Map.Entry::getKey, entry -> DistributionDto.of(entry.getValue()))),
+                DistributionDto.of(plannerStats.getPreviewRows()));
+    }
+}
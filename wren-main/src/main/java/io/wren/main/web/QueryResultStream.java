@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import io.wren.base.Column;
+import io.wren.base.ConnectorRecordIterator;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Write a query result as newline delimited json: a line of {@code {"columns": [...]}} followed by a line of the array of
+ * every row. The rows are written straight from the iterator, and a write blocks while the client doesn't read, so the
+ * rows are never held in memory. The iterator is closed when the result is written or the client disconnects, which
+ * cancels the query if it's not finished, or by {@link WrenExceptionMapper#closeOnCompletion} if the result is never written. An error after the first row can't change the status anymore, so the
+ * response is aborted and the client sees a truncated stream.
+ */
+public class QueryResultStream
+        implements StreamingOutput, Closeable
+{
+    private final ObjectMapper objectMapper;
+    private final ConnectorRecordIterator iterator;
+    private final long limit;
+    private final ResultStreamListener listener;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @return the result of a statement which returns no result set, which has no column and no row.
+     */
+    public static QueryResultStream empty(ObjectMapper objectMapper)
+    {
+        return new QueryResultStream(objectMapper, new EmptyRecordIterator(), 0);
+    }
+
+    public QueryResultStream(ObjectMapper objectMapper, ConnectorRecordIterator iterator, long limit)
+    {
+        this(objectMapper, iterator, limit, ResultStreamListener.NONE);
+    }
+
+    public QueryResultStream(ObjectMapper objectMapper, ConnectorRecordIterator iterator, long limit, ResultStreamListener listener)
+    {
+        this.objectMapper = requireNonNull(objectMapper, "objectMapper is null");
+        this.iterator = requireNonNull(iterator, "iterator is null");
+        this.limit = limit;
+        this.listener = requireNonNull(listener, "listener is null");
+    }
+
+    @Override
+    public void write(OutputStream output)
+            throws IOException
+    {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(output).disable(AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(null);
+            generator.writeStartObject();
+            generator.writeObjectField("columns", iterator.getColumns());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            // send the columns before the first row is fetched
+            generator.flush();
+            for (; rows < limit && iterator.hasNext(); rows++) {
+                generator.writeObject(iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
+        finally {
+            listener.streamCompleted(System.nanoTime() - start, rows);
+            close();
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            iterator.close();
+        }
+        catch (IOException | RuntimeException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static class EmptyRecordIterator
+            implements ConnectorRecordIterator
+    {
+        @Override
+        public List<Column> getColumns()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return false;
+        }
+
+        @Override
+        public Object[] next()
+        {
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void close() {}
+    }
+}
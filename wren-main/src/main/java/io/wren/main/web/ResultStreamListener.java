@@ -0,0 +1,26 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.web;
+
+/**
+ * Notified when a streamed result is written, with the time spent fetching and writing the rows and the number of rows
+ * written, which are known only after the response is sent.
+ */
+public interface ResultStreamListener
+{
+    ResultStreamListener NONE = (nanos, rows) -> {};
+
+    void streamCompleted(long nanos, long rows);
+}
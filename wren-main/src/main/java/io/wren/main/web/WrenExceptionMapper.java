@@ -16,17 +16,22 @@ package io.wren.main.web;
 
 import io.airlift.log.Logger;
 import io.wren.base.WrenException;
+import io.wren.main.PhaseTimings;
 import io.wren.main.web.dto.ErrorMessageDto;
 import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.CompletionCallback;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.function.BiConsumer;
 
 import static io.wren.base.metadata.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.wren.base.metadata.StandardErrorCode.NOT_FOUND;
+import static io.wren.main.PhaseTimings.SERVER_TIMING;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
@@ -52,6 +57,45 @@ public final class WrenExceptionMapper
         };
     }
 
+    /**
+     * Same as {@link #bindAsyncResponse(AsyncResponse)}, and the timings are added to the Server-Timing header of a
+     * successful response if they are enabled.
+     */
+    public static BiConsumer<? super Object, ? super Throwable> bindAsyncResponse(AsyncResponse asyncResponse, PhaseTimings timings)
+    {
+        return (response, throwable) -> {
+            if (throwable != null || !timings.isEnabled()) {
+                bindAsyncResponse(asyncResponse).accept(response, throwable);
+                return;
+            }
+            Response.ResponseBuilder builder = response instanceof Response ? Response.fromResponse((Response) response) : Response.ok(response);
+            asyncResponse.resume(builder.header(SERVER_TIMING, timings.toServerTiming()).build());
+        };
+    }
+
+    /**
+     * Close the streamed result when the response completes. The result closes itself after it's written, so this only
+     * closes the one never written, e.g. when the request is cancelled or the client is gone before the response is sent.
+     */
+    public static void closeOnCompletion(AsyncResponse asyncResponse, Closeable result)
+    {
+        asyncResponse.register((CompletionCallback) throwable -> closeQuietly(result));
+        // the callback isn't called if the response is completed before it's registered
+        if (asyncResponse.isDone()) {
+            closeQuietly(result);
+        }
+    }
+
+    private static void closeQuietly(Closeable result)
+    {
+        try {
+            result.close();
+        }
+        catch (IOException | RuntimeException e) {
+            LOG.warn(e, "Failed to close the streamed result");
+        }
+    }
+
     @Override
     public Response toResponse(Throwable throwable)
     {
@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.web;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public final class WrenMediaType
+{
+    /**
+     * Smile, the binary form of json. The request body is read by the Smile mapper of airlift jaxrs.
+     */
+    public static final String APPLICATION_JACKSON_SMILE = "application/x-jackson-smile";
+
+    /**
+     * Newline delimited json. A query result is streamed as a line of the columns followed by a line of every row.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * The Arrow IPC stream format. A query result is streamed as the schema followed by the columnar record batches.
+     */
+    public static final String APPLICATION_ARROW_STREAM = "application/vnd.apache.arrow.stream";
+
+    /**
+     * A query result stored column by column, see {@link io.wren.main.web.dto.ColumnarQueryResultDto}, in json.
+     */
+    public static final String APPLICATION_COLUMNAR_JSON = "application/vnd.wren.columnar+json";
+
+    /**
+     * The same as {@link #APPLICATION_COLUMNAR_JSON} but in Smile, so the arrays and the null bitmaps are written in binary.
+     */
+    public static final String APPLICATION_COLUMNAR_SMILE = "application/vnd.wren.columnar+smile";
+
+    private WrenMediaType() {}
+
+    /**
+     * @return the media type which the client prefers among the given ones, by the order of the Accept header and the
+     * q-values. Only a media type accepted explicitly is chosen, i.e. not by a wildcard.
+     */
+    public static Optional<String> firstAccepted(HttpHeaders headers, String... mediaTypes)
+    {
+        // the acceptable media types are sorted by the preference of the client
+        return headers.getAcceptableMediaTypes().stream()
+                .filter(accepted -> !accepted.isWildcardType() && !accepted.isWildcardSubtype())
+                .flatMap(accepted -> Arrays.stream(mediaTypes).filter(mediaType -> accepted.isCompatible(MediaType.valueOf(mediaType))))
+                .findFirst();
+    }
+}
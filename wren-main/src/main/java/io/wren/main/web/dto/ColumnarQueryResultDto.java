@@ -0,0 +1,454 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.google.common.collect.ImmutableList;
+import io.wren.base.Column;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+/**
+ * A query result stored column by column. An integer column is stored in a {@code long[]} and a double column in a
+ * {@code double[]}, whose nulls are marked in a bitmap: the bit {@code i % 8} of the byte {@code i / 8} is set if the
+ * value of row {@code i} is null, and the missing trailing bytes are zeros. A varchar column is stored as the ids of its
+ * distinct values, where a null is -1. Any other column is stored as the values of {@link QueryResultDto}.
+ */
+public class ColumnarQueryResultDto
+{
+    private final List<Column> columns;
+    private final int rowCount;
+    private final List<ColumnVector> data;
+
+    @JsonCreator
+    public ColumnarQueryResultDto(
+            @JsonProperty("columns") List<Column> columns,
+            @JsonProperty("rowCount") int rowCount,
+            @JsonProperty("data") List<ColumnVector> data)
+    {
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.data = data;
+    }
+
+    /**
+     * Read at most {@code limit} rows. The vector of every column is chosen by the type name of the column.
+     */
+    public static ColumnarQueryResultDto of(List<Column> columns, Iterator<Object[]> rows, long limit)
+    {
+        List<VectorBuilder> builders = columns.stream()
+                .map(column -> vectorBuilder(column.getType()))
+                .collect(toImmutableList());
+        int rowCount = 0;
+        while (rowCount < limit && rows.hasNext()) {
+            Object[] row = rows.next();
+            for (int i = 0; i < row.length; i++) {
+                builders.get(i).append(row[i]);
+            }
+            rowCount++;
+        }
+        return new ColumnarQueryResultDto(columns, rowCount, builders.stream().map(VectorBuilder::build).collect(toImmutableList()));
+    }
+
+    private static VectorBuilder vectorBuilder(String type)
+    {
+        return switch (type) {
+            case "BIGINT", "INTEGER", "SMALLINT", "TINYINT", "UINTEGER", "USMALLINT", "UTINYINT" -> new LongVectorBuilder();
+            case "DOUBLE" -> new DoubleVectorBuilder();
+            case "VARCHAR" -> new DictionaryVectorBuilder();
+            default -> new ObjectVectorBuilder();
+        };
+    }
+
+    @JsonProperty
+    public List<Column> getColumns()
+    {
+        return columns;
+    }
+
+    @JsonProperty
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    @JsonProperty
+    public List<ColumnVector> getData()
+    {
+        return data;
+    }
+
+    /**
+     * @return the rows of the result, where an integer is a {@link Long}.
+     */
+    public List<Object[]> toRows()
+    {
+        ImmutableList.Builder<Object[]> rows = ImmutableList.builderWithExpectedSize(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            Object[] values = new Object[data.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = data.get(i).get(row);
+            }
+            rows.add(values);
+        }
+        return rows.build();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ColumnarQueryResultDto that = (ColumnarQueryResultDto) o;
+        return rowCount == that.rowCount && Objects.equals(columns, that.columns) && Objects.equals(data, that.data);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(columns, rowCount, data);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("columns", columns)
+                .add("rowCount", rowCount)
+                .add("data", data)
+                .toString();
+    }
+
+    private static boolean isNull(byte[] nulls, int position)
+    {
+        int index = position >>> 3;
+        return index < nulls.length && (nulls[index] & (1 << (position & 7))) != 0;
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+    @JsonSubTypes({
+            @JsonSubTypes.Type(value = LongVector.class, name = "long"),
+            @JsonSubTypes.Type(value = DoubleVector.class, name = "double"),
+            @JsonSubTypes.Type(value = DictionaryVector.class, name = "dictionary"),
+            @JsonSubTypes.Type(value = ObjectVector.class, name = "object")})
+    public sealed interface ColumnVector
+            permits LongVector, DoubleVector, DictionaryVector, ObjectVector
+    {
+        Object get(int position);
+    }
+
+    public static final class LongVector
+            implements ColumnVector
+    {
+        private final long[] values;
+        private final byte[] nulls;
+
+        @JsonCreator
+        public LongVector(
+                @JsonProperty("values") long[] values,
+                @JsonProperty("nulls") byte[] nulls)
+        {
+            this.values = values;
+            this.nulls = nulls;
+        }
+
+        @JsonProperty
+        public long[] getValues()
+        {
+            return values;
+        }
+
+        @JsonProperty
+        public byte[] getNulls()
+        {
+            return nulls;
+        }
+
+        @Override
+        public Object get(int position)
+        {
+            return isNull(nulls, position) ? null : values[position];
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof LongVector that && Arrays.equals(values, that.values) && Arrays.equals(nulls, that.nulls);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * Arrays.hashCode(values) + Arrays.hashCode(nulls);
+        }
+    }
+
+    public static final class DoubleVector
+            implements ColumnVector
+    {
+        private final double[] values;
+        private final byte[] nulls;
+
+        @JsonCreator
+        public DoubleVector(
+                @JsonProperty("values") double[] values,
+                @JsonProperty("nulls") byte[] nulls)
+        {
+            this.values = values;
+            this.nulls = nulls;
+        }
+
+        @JsonProperty
+        public double[] getValues()
+        {
+            return values;
+        }
+
+        @JsonProperty
+        public byte[] getNulls()
+        {
+            return nulls;
+        }
+
+        @Override
+        public Object get(int position)
+        {
+            return isNull(nulls, position) ? null : values[position];
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof DoubleVector that && Arrays.equals(values, that.values) && Arrays.equals(nulls, that.nulls);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * Arrays.hashCode(values) + Arrays.hashCode(nulls);
+        }
+    }
+
+    public static final class DictionaryVector
+            implements ColumnVector
+    {
+        private final List<String> dictionary;
+        private final int[] ids;
+
+        @JsonCreator
+        public DictionaryVector(
+                @JsonProperty("dictionary") List<String> dictionary,
+                @JsonProperty("ids") int[] ids)
+        {
+            this.dictionary = dictionary;
+            this.ids = ids;
+        }
+
+        @JsonProperty
+        public List<String> getDictionary()
+        {
+            return dictionary;
+        }
+
+        @JsonProperty
+        public int[] getIds()
+        {
+            return ids;
+        }
+
+        @Override
+        public Object get(int position)
+        {
+            return ids[position] < 0 ? null : dictionary.get(ids[position]);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof DictionaryVector that && Objects.equals(dictionary, that.dictionary) && Arrays.equals(ids, that.ids);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * Objects.hashCode(dictionary) + Arrays.hashCode(ids);
+        }
+    }
+
+    public static final class ObjectVector
+            implements ColumnVector
+    {
+        private final List<Object> values;
+
+        @JsonCreator
+        public ObjectVector(@JsonProperty("values") List<Object> values)
+        {
+            this.values = values;
+        }
+
+        @JsonProperty
+        public List<Object> getValues()
+        {
+            return values;
+        }
+
+        @Override
+        public Object get(int position)
+        {
+            return values.get(position);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof ObjectVector that && Objects.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(values);
+        }
+    }
+
+    private interface VectorBuilder
+    {
+        void append(Object value);
+
+        ColumnVector build();
+    }
+
+    private static class LongVectorBuilder
+            implements VectorBuilder
+    {
+        private final BitSet nulls = new BitSet();
+        private long[] values = new long[16];
+        private int size;
+
+        @Override
+        public void append(Object value)
+        {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            if (value == null) {
+                nulls.set(size);
+            }
+            else {
+                values[size] = ((Number) value).longValue();
+            }
+            size++;
+        }
+
+        @Override
+        public ColumnVector build()
+        {
+            return new LongVector(Arrays.copyOf(values, size), nulls.toByteArray());
+        }
+    }
+
+    private static class DoubleVectorBuilder
+            implements VectorBuilder
+    {
+        private final BitSet nulls = new BitSet();
+        private double[] values = new double[16];
+        private int size;
+
+        @Override
+        public void append(Object value)
+        {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            if (value == null) {
+                nulls.set(size);
+            }
+            else {
+                values[size] = ((Number) value).doubleValue();
+            }
+            size++;
+        }
+
+        @Override
+        public ColumnVector build()
+        {
+            return new DoubleVector(Arrays.copyOf(values, size), nulls.toByteArray());
+        }
+    }
+
+    private static class DictionaryVectorBuilder
+            implements VectorBuilder
+    {
+        private final Map<String, Integer> idsByValue = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int[] ids = new int[16];
+        private int size;
+
+        @Override
+        public void append(Object value)
+        {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = value == null ? -1 : idsByValue.computeIfAbsent(value.toString(), key -> {
+                dictionary.add(key);
+                return dictionary.size() - 1;
+            });
+        }
+
+        @Override
+        public ColumnVector build()
+        {
+            return new DictionaryVector(ImmutableList.copyOf(dictionary), Arrays.copyOf(ids, size));
+        }
+    }
+
+    private static class ObjectVectorBuilder
+            implements VectorBuilder
+    {
+        private final List<Object> values = new ArrayList<>();
+
+        @Override
+        public void append(Object value)
+        {
+            values.add(value);
+        }
+
+        @Override
+        public ColumnVector build()
+        {
+            // the values may be null
+            return new ObjectVector(Collections.unmodifiableList(values));
+        }
+    }
+}
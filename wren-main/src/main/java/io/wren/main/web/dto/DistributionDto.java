@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.stats.Distribution;
+import io.airlift.stats.DistributionStat;
+import io.airlift.stats.TimeDistribution;
+import io.airlift.stats.TimeStat;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The all-time distribution of a stat. The time is in milliseconds.
+ */
+public class DistributionDto
+{
+    private final long count;
+    private final double avg;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double max;
+
+    public static DistributionDto of(TimeStat timeStat)
+    {
+        TimeDistribution distribution = requireNonNull(timeStat, "timeStat is null").getAllTime();
+        return new DistributionDto((long) distribution.getCount(), distribution.getAvg(), distribution.getP50(), distribution.getP90(), distribution.getP99(), distribution.getMax());
+    }
+
+    public static DistributionDto of(DistributionStat distributionStat)
+    {
+        Distribution.DistributionSnapshot distribution = requireNonNull(distributionStat, "distributionStat is null").getAllTime().snapshot();
+        return new DistributionDto((long) distribution.getCount(), distribution.getAvg(), distribution.getP50(), distribution.getP90(), distribution.getP99(), distribution.getMax());
+    }
+
+    @JsonCreator
+    public DistributionDto(
+            @JsonProperty("count") long count,
+            @JsonProperty("avg") double avg,
+            @JsonProperty("p50") double p50,
+            @JsonProperty("p90") double p90,
+            @JsonProperty("p99") double p99,
+            @JsonProperty("max") double max)
+    {
+        this.count = count;
+        this.avg = avg;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    @JsonProperty
+    public long getCount()
+    {
+        return count;
+    }
+
+    @JsonProperty
+    public double getAvg()
+    {
+        return avg;
+    }
+
+    @JsonProperty
+    public double getP50()
+    {
+        return p50;
+    }
+
+    @JsonProperty
+    public double getP90()
+    {
+        return p90;
+    }
+
+    @JsonProperty
+    public double getP99()
+    {
+        return p99;
+    }
+
+    @JsonProperty
+    public double getMax()
+    {
+        return max;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+public class MetricsDto
+{
+    private final Map<String, DistributionDto> phases;
+    private final Map<String, DistributionDto> endpoints;
+    private final DistributionDto previewRows;
+
+    @JsonCreator
+    public MetricsDto(
+            @JsonProperty("phases") Map<String, DistributionDto> phases,
+            @JsonProperty("endpoints") Map<String, DistributionDto> endpoints,
+            @JsonProperty("previewRows") DistributionDto previewRows)
+    {
+        this.phases = phases;
+        this.endpoints = endpoints;
+        this.previewRows = previewRows;
+    }
+
+    @JsonProperty
+    public Map<String, DistributionDto> getPhases()
+    {
+        return phases;
+    }
+
+    @JsonProperty
+    public Map<String, DistributionDto> getEndpoints()
+    {
+        return endpoints;
+    }
+
+    @JsonProperty
+    public DistributionDto getPreviewRows()
+    {
+        return previewRows;
+    }
+}
@@ -20,14 +20,25 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class SqlAnalysisInputDtoV2
 {
     private final String manifestStr;
+    private final String fingerprint;
     private final String sql;
 
+    public SqlAnalysisInputDtoV2(String manifestStr, String sql)
+    {
+        this(manifestStr, null, sql);
+    }
+
+    /**
+     * @param fingerprint the fingerprint of a cached manifest, which is used if the manifest isn't given.
+     */
     @JsonCreator
     public SqlAnalysisInputDtoV2(
             @JsonProperty("manifestStr") String manifestStr,
+            @JsonProperty("fingerprint") String fingerprint,
             @JsonProperty("sql") String sql)
     {
         this.manifestStr = manifestStr;
+        this.fingerprint = fingerprint;
         this.sql = sql;
     }
 
@@ -37,6 +48,12 @@ public class SqlAnalysisInputDtoV2
         return manifestStr;
     }
 
+    @JsonProperty
+    public String getFingerprint()
+    {
+        return fingerprint;
+    }
+
     @JsonProperty
     public String getSql()
     {
@@ -19,6 +19,7 @@ import com.google.inject.Module;
 import io.airlift.event.client.EventModule;
 import io.airlift.http.server.HttpServerModule;
 import io.airlift.jaxrs.JaxrsModule;
+import io.airlift.jmx.JmxModule;
 import io.airlift.json.JsonModule;
 import io.airlift.node.NodeModule;
 import io.wren.main.WrenModule;
@@ -26,6 +27,7 @@ import io.wren.main.server.Server;
 import io.wren.server.module.DuckDBConnectorModule;
 import io.wren.server.module.MainModule;
 import io.wren.server.module.WebModule;
+import org.weakref.jmx.guice.MBeanModule;
 
 public class WrenServer
         extends Server
@@ -44,6 +46,8 @@ public class WrenServer
                 new JsonModule(),
                 new JaxrsModule(),
                 new EventModule(),
+                new MBeanModule(),
+                new JmxModule(),
                 new MainModule(),
                 new DuckDBConnectorModule(),
                 new WrenModule(),
@@ -19,10 +19,13 @@ import com.google.inject.Scopes;
 import io.airlift.configuration.AbstractConfigurationAwareModule;
 import io.wren.base.config.ConfigManager;
 import io.wren.base.sql.SqlConverter;
+import io.wren.main.PlannerStats;
 import io.wren.main.metadata.Metadata;
 import io.wren.main.metadata.MetadataManager;
 import io.wren.main.sql.SqlConverterManager;
 
+import static org.weakref.jmx.guice.ExportBinder.newExporter;
+
 public class MainModule
         extends AbstractConfigurationAwareModule
 
@@ -33,5 +36,7 @@ public class MainModule
         binder.bind(Metadata.class).to(MetadataManager.class).in(Scopes.SINGLETON);
         binder.bind(SqlConverter.class).to(SqlConverterManager.class).in(Scopes.SINGLETON);
         binder.bind(ConfigManager.class).in(Scopes.SINGLETON);
+        binder.bind(PlannerStats.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(PlannerStats.class).withGeneratedName();
     }
 }
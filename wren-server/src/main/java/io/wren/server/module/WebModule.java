@@ -17,14 +17,20 @@ package io.wren.server.module;
 import com.google.inject.Binder;
 import com.google.inject.Scopes;
 import io.airlift.configuration.AbstractConfigurationAwareModule;
+import io.wren.main.AnalyzedMDLCache;
+import io.wren.main.EndpointStats;
+import io.wren.main.PlanCache;
 import io.wren.main.PreviewService;
 import io.wren.main.ValidationService;
 import io.wren.main.web.AnalysisResource;
 import io.wren.main.web.AnalysisResourceV2;
+import io.wren.main.web.ColumnarResultWriter;
 import io.wren.main.web.ConfigResource;
 import io.wren.main.web.DuckDBResource;
+import io.wren.main.web.EndpointStatsFilter;
 import io.wren.main.web.MDLResource;
 import io.wren.main.web.MDLResourceV2;
+import io.wren.main.web.MetricsResource;
 import io.wren.main.web.WrenExceptionMapper;
 
 import static io.airlift.jaxrs.JaxrsBinder.jaxrsBinder;
@@ -41,8 +47,14 @@ public class WebModule
         jaxrsBinder(binder).bind(AnalysisResourceV2.class);
         jaxrsBinder(binder).bind(ConfigResource.class);
         jaxrsBinder(binder).bind(DuckDBResource.class);
+        jaxrsBinder(binder).bind(MetricsResource.class);
+        jaxrsBinder(binder).bind(EndpointStatsFilter.class);
+        jaxrsBinder(binder).bind(ColumnarResultWriter.class);
         jaxrsBinder(binder).bindInstance(new WrenExceptionMapper());
+        binder.bind(AnalyzedMDLCache.class).in(Scopes.SINGLETON);
+        binder.bind(PlanCache.class).in(Scopes.SINGLETON);
         binder.bind(PreviewService.class).in(Scopes.SINGLETON);
         binder.bind(ValidationService.class).in(Scopes.SINGLETON);
+        binder.bind(EndpointStats.class).in(Scopes.SINGLETON);
     }
 }
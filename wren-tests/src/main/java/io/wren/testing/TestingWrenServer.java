@@ -32,6 +32,10 @@ import io.wren.main.connector.duckdb.DuckDBMetadata;
 import io.wren.server.module.DuckDBConnectorModule;
 import io.wren.server.module.MainModule;
 import io.wren.server.module.WebModule;
+import org.weakref.jmx.guice.MBeanModule;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -71,6 +75,9 @@ public class TestingWrenServer
                 new JsonModule(),
                 new JaxrsModule(),
                 new EventModule(),
+                // every server has its own MBeanServer, so the servers of the tests don't export the same names
+                binder -> binder.bind(MBeanServer.class).toInstance(MBeanServerFactory.newMBeanServer()),
+                new MBeanModule(),
                 new MainModule(),
                 new DuckDBConnectorModule(),
                 new WrenModule(),
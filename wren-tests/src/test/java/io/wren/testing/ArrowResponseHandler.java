@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.testing;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.http.client.StringResponseHandler.StringResponse;
+import io.wren.base.Column;
+import io.wren.main.web.dto.QueryResultDto;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.util.Text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static io.airlift.http.client.ResponseHandlerUtils.propagate;
+import static io.wren.main.web.WrenMediaType.APPLICATION_ARROW_STREAM;
+import static io.wren.testing.RequireWrenServer.getWebApplicationException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read an Arrow IPC stream into rows. The type of a column is the arrow type, and a string is read as a {@link String}.
+ */
+public class ArrowResponseHandler
+        implements ResponseHandler<QueryResultDto, RuntimeException>
+{
+    @Override
+    public QueryResultDto handleException(Request request, Exception exception)
+    {
+        throw propagate(request, exception);
+    }
+
+    @Override
+    public QueryResultDto handle(Request request, Response response)
+    {
+        try (InputStream input = response.getInputStream()) {
+            if (response.getStatusCode() != 200) {
+                getWebApplicationException(new StringResponse(response.getStatusCode(), response.getHeaders(), new String(input.readAllBytes(), UTF_8)));
+            }
+            assertThat(response.getHeader(CONTENT_TYPE)).startsWith(APPLICATION_ARROW_STREAM);
+            try (BufferAllocator allocator = new RootAllocator();
+                    ArrowStreamReader reader = new ArrowStreamReader(input, allocator)) {
+                VectorSchemaRoot root = reader.getVectorSchemaRoot();
+                ImmutableList<Column> columns = root.getSchema().getFields().stream()
+                        .map(field -> new Column(field.getName(), field.getType().toString()))
+                        .collect(toImmutableList());
+                ImmutableList.Builder<Object[]> rows = ImmutableList.builder();
+                while (reader.loadNextBatch()) {
+                    for (int row = 0; row < root.getRowCount(); row++) {
+                        Object[] values = new Object[columns.size()];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = getValue(root.getVector(i), row);
+                        }
+                        rows.add(values);
+                    }
+                }
+                return new QueryResultDto(columns, rows.build());
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Object getValue(FieldVector vector, int row)
+    {
+        Object value = vector.getObject(row);
+        return value instanceof Text ? value.toString() : value;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.testing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.http.client.StringResponseHandler.StringResponse;
+import io.airlift.json.ObjectMapperProvider;
+import io.wren.main.web.dto.ColumnarQueryResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static io.airlift.http.client.ResponseHandlerUtils.propagate;
+import static io.wren.testing.RequireWrenServer.getWebApplicationException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read a {@link ColumnarQueryResultDto} in json or in Smile, which is expected to be the content type of the response.
+ */
+public class ColumnarResponseHandler
+        implements ResponseHandler<ColumnarQueryResultDto, RuntimeException>
+{
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapperProvider().get();
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapperProvider(new SmileFactory()).get();
+
+    private final String mediaType;
+
+    public ColumnarResponseHandler(String mediaType)
+    {
+        this.mediaType = requireNonNull(mediaType, "mediaType is null");
+    }
+
+    @Override
+    public ColumnarQueryResultDto handleException(Request request, Exception exception)
+    {
+        throw propagate(request, exception);
+    }
+
+    @Override
+    public ColumnarQueryResultDto handle(Request request, Response response)
+    {
+        try (InputStream input = response.getInputStream()) {
+            if (response.getStatusCode() != 200) {
+                getWebApplicationException(new StringResponse(response.getStatusCode(), response.getHeaders(), new String(input.readAllBytes(), UTF_8)));
+            }
+            assertThat(response.getHeader(CONTENT_TYPE)).startsWith(mediaType);
+            ObjectMapper mapper = mediaType.endsWith("+smile") ? SMILE_MAPPER : JSON_MAPPER;
+            return mapper.readValue(input, ColumnarQueryResultDto.class);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
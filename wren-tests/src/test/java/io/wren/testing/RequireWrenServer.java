@@ -14,6 +14,9 @@
 
 package io.wren.testing;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.google.common.io.Closer;
 import com.google.common.io.Resources;
 import com.google.inject.Key;
@@ -24,6 +27,7 @@ import io.airlift.http.client.ResponseHandler;
 import io.airlift.http.client.StringResponseHandler;
 import io.airlift.http.client.jetty.JettyHttpClient;
 import io.airlift.json.JsonCodec;
+import io.airlift.json.ObjectMapperProvider;
 import io.airlift.units.Duration;
 import io.wren.base.config.ConfigManager;
 import io.wren.base.dto.Column;
@@ -31,10 +35,14 @@ import io.wren.base.dto.Manifest;
 import io.wren.main.connector.duckdb.DuckDBMetadata;
 import io.wren.main.validation.ValidationResult;
 import io.wren.main.web.dto.CheckOutputDto;
+import io.wren.main.web.dto.ColumnarQueryResultDto;
 import io.wren.main.web.dto.DeployInputDto;
 import io.wren.main.web.dto.DryPlanDto;
 import io.wren.main.web.dto.DryPlanDtoV2;
 import io.wren.main.web.dto.ErrorMessageDto;
+import io.wren.main.web.dto.FingerprintDto;
+import io.wren.main.web.dto.ManifestDeltaInputDto;
+import io.wren.main.web.dto.MetricsDto;
 import io.wren.main.web.dto.PreviewDto;
 import io.wren.main.web.dto.QueryAnalysisDto;
 import io.wren.main.web.dto.QueryResultDto;
@@ -47,12 +55,15 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 import static io.airlift.http.client.JsonBodyGenerator.jsonBodyGenerator;
 import static io.airlift.http.client.Request.Builder.prepareDelete;
@@ -64,10 +75,14 @@ import static io.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerat
 import static io.airlift.http.client.StringResponseHandler.createStringResponseHandler;
 import static io.airlift.json.JsonCodec.jsonCodec;
 import static io.airlift.json.JsonCodec.listJsonCodec;
+import static io.wren.main.web.WrenMediaType.APPLICATION_ARROW_STREAM;
+import static io.wren.main.web.WrenMediaType.APPLICATION_JACKSON_SMILE;
+import static io.wren.main.web.WrenMediaType.APPLICATION_NDJSON;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
 
 public abstract class RequireWrenServer
 {
@@ -85,11 +100,16 @@ public abstract class RequireWrenServer
     private static final JsonCodec<List<ConfigManager.ConfigEntry>> CONFIG_ENTRY_LIST_CODEC = listJsonCodec(ConfigManager.ConfigEntry.class);
     private static final JsonCodec<QueryResultDto> QUERY_RESULT_DTO_CODEC = jsonCodec(QueryResultDto.class);
     private static final JsonCodec<List<Column>> COLUMN_LIST_CODEC = listJsonCodec(Column.class);
+    private static final JsonCodec<Object[]> ROW_CODEC = jsonCodec(Object[].class);
     private static final JsonCodec<DryPlanDto> DRY_PLAN_DTO_CODEC = jsonCodec(DryPlanDto.class);
     private static final JsonCodec<DryPlanDtoV2> DRY_PLAN_DTO_V2_CODEC = jsonCodec(DryPlanDtoV2.class);
+    private static final JsonCodec<ManifestDeltaInputDto> MANIFEST_DELTA_INPUT_DTO_CODEC = jsonCodec(ManifestDeltaInputDto.class);
+    private static final JsonCodec<FingerprintDto> FINGERPRINT_DTO_CODEC = jsonCodec(FingerprintDto.class);
     private static final JsonCodec<List<ValidationResult>> VALIDATION_RESULT_LIST_CODEC = listJsonCodec(ValidationResult.class);
+    private static final JsonCodec<MetricsDto> METRICS_DTO_CODEC = jsonCodec(MetricsDto.class);
     private static final JsonCodec<ValidateDto> VALIDATE_DTO_CODEC = jsonCodec(ValidateDto.class);
     private static final JsonCodec<List<QueryAnalysisDto>> QUERY_ANALYSIS_DTO_LIST_CODEC = listJsonCodec(QueryAnalysisDto.class);
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapperProvider(new SmileFactory()).get();
 
     public RequireWrenServer() {}
 
@@ -170,6 +190,64 @@ public abstract class RequireWrenServer
         return QUERY_RESULT_DTO_CODEC.fromJson(response.getBody());
     }
 
+    protected QueryResultDto previewInNdjson(PreviewDto previewDto)
+    {
+        Request request = prepareGet()
+                .setUri(server().getHttpServerBasedUrl().resolve("/v1/mdl/preview"))
+                .setHeader(CONTENT_TYPE, "application/json")
+                .setHeader(ACCEPT, APPLICATION_NDJSON)
+                .setBodyGenerator(jsonBodyGenerator(PREVIEW_DTO_CODEC, previewDto))
+                .build();
+
+        return fromNdjson(executeHttpRequest(request, createStringResponseHandler()));
+    }
+
+    protected QueryResultDto previewInArrow(PreviewDto previewDto)
+    {
+        Request request = prepareGet()
+                .setUri(server().getHttpServerBasedUrl().resolve("/v1/mdl/preview"))
+                .setHeader(CONTENT_TYPE, "application/json")
+                .setHeader(ACCEPT, APPLICATION_ARROW_STREAM)
+                .setBodyGenerator(jsonBodyGenerator(PREVIEW_DTO_CODEC, previewDto))
+                .build();
+
+        return executeHttpRequest(request, new ArrowResponseHandler());
+    }
+
+    protected ColumnarQueryResultDto previewColumnar(PreviewDto previewDto, String mediaType)
+    {
+        Request request = prepareGet()
+                .setUri(server().getHttpServerBasedUrl().resolve("/v1/mdl/preview"))
+                .setHeader(CONTENT_TYPE, "application/json")
+                .setHeader(ACCEPT, mediaType)
+                .setBodyGenerator(jsonBodyGenerator(PREVIEW_DTO_CODEC, previewDto))
+                .build();
+
+        return executeHttpRequest(request, new ColumnarResponseHandler(mediaType));
+    }
+
+    /**
+     * @return the values of the rows as strings, so the rows read in different formats can be compared.
+     */
+    protected static List<List<String>> toStrings(List<Object[]> rows)
+    {
+        return rows.stream()
+                .map(row -> Arrays.stream(row).map(String::valueOf).toList())
+                .toList();
+    }
+
+    protected static QueryResultDto fromNdjson(StringResponseHandler.StringResponse response)
+    {
+        if (response.getStatusCode() != 200) {
+            getWebApplicationException(response);
+        }
+        assertThat(response.getHeader(CONTENT_TYPE)).startsWith(APPLICATION_NDJSON);
+        List<String> lines = response.getBody().lines().toList();
+        return new QueryResultDto(
+                QUERY_RESULT_DTO_CODEC.fromJson(lines.get(0)).getColumns(),
+                lines.stream().skip(1).map(ROW_CODEC::fromJson).toList());
+    }
+
     protected List<Column> dryRun(PreviewDto previewDto)
     {
         Request request = prepareGet()
@@ -200,6 +278,31 @@ public abstract class RequireWrenServer
         return response.getBody();
     }
 
+    protected String dryPlanInSmile(DryPlanDto dryPlanDto)
+    {
+        Request request = prepareGet()
+                .setUri(server().getHttpServerBasedUrl().resolve("/v1/mdl/dry-plan"))
+                .setHeader(CONTENT_TYPE, APPLICATION_JACKSON_SMILE)
+                .setBodyGenerator(createStaticBodyGenerator(toSmile(dryPlanDto)))
+                .build();
+
+        StringResponseHandler.StringResponse response = executeHttpRequest(request, createStringResponseHandler());
+        if (response.getStatusCode() != 200) {
+            getWebApplicationException(response);
+        }
+        return response.getBody();
+    }
+
+    protected static byte[] toSmile(Object value)
+    {
+        try {
+            return SMILE_MAPPER.writeValueAsBytes(value);
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     protected String dryPlanV2(DryPlanDtoV2 dryPlanDto)
     {
         Request request = prepareGet()
@@ -215,6 +318,34 @@ public abstract class RequireWrenServer
         return response.getBody();
     }
 
+    protected MetricsDto getMetrics()
+    {
+        Request request = prepareGet()
+                .setUri(server().getHttpServerBasedUrl().resolve("/v1/metrics"))
+                .build();
+
+        StringResponseHandler.StringResponse response = executeHttpRequest(request, createStringResponseHandler());
+        if (response.getStatusCode() != 200) {
+            getWebApplicationException(response);
+        }
+        return METRICS_DTO_CODEC.fromJson(response.getBody());
+    }
+
+    protected FingerprintDto applyManifestDelta(ManifestDeltaInputDto dto)
+    {
+        Request request = preparePost()
+                .setUri(server().getHttpServerBasedUrl().resolve("/v2/mdl/delta"))
+                .setHeader(CONTENT_TYPE, "application/json")
+                .setBodyGenerator(jsonBodyGenerator(MANIFEST_DELTA_INPUT_DTO_CODEC, dto))
+                .build();
+
+        StringResponseHandler.StringResponse response = executeHttpRequest(request, createStringResponseHandler());
+        if (response.getStatusCode() != 200) {
+            getWebApplicationException(response);
+        }
+        return FINGERPRINT_DTO_CODEC.fromJson(response.getBody());
+    }
+
     protected void deployMDL(DeployInputDto dto)
     {
         Request request = preparePost()
@@ -356,6 +487,47 @@ public abstract class RequireWrenServer
         return QUERY_RESULT_DTO_CODEC.fromJson(response.getBody());
     }
 
+    protected QueryResultDto queryDuckDBInNdjson(String statement)
+    {
+        Request request = preparePost()
+                .setUri(server().getHttpServerBasedUrl().resolve("/v1/data-source/duckdb/query"))
+                .setHeader(ACCEPT, APPLICATION_NDJSON)
+                .setBodyGenerator(createStaticBodyGenerator(statement, UTF_8))
+                .build();
+
+        return fromNdjson(executeHttpRequest(request, createStringResponseHandler()));
+    }
+
+    protected QueryResultDto queryDuckDBInArrow(String statement)
+    {
+        Request request = preparePost()
+                .setUri(server().getHttpServerBasedUrl().resolve("/v1/data-source/duckdb/query"))
+                .setHeader(ACCEPT, APPLICATION_ARROW_STREAM)
+                .setBodyGenerator(createStaticBodyGenerator(statement, UTF_8))
+                .build();
+
+        return executeHttpRequest(request, new ArrowResponseHandler());
+    }
+
+    protected ColumnarQueryResultDto queryDuckDBColumnar(String statement, String mediaType)
+    {
+        return queryDuckDBColumnar(statement, mediaType, mediaType);
+    }
+
+    /**
+     * @param mediaType the media type of the response, which is chosen from the accepted ones by the server
+     */
+    protected ColumnarQueryResultDto queryDuckDBColumnar(String statement, String accept, String mediaType)
+    {
+        Request request = preparePost()
+                .setUri(server().getHttpServerBasedUrl().resolve("/v1/data-source/duckdb/query"))
+                .setHeader(ACCEPT, accept)
+                .setBodyGenerator(createStaticBodyGenerator(statement, UTF_8))
+                .build();
+
+        return executeHttpRequest(request, new ColumnarResponseHandler(mediaType));
+    }
+
     protected String getDuckDBInitSQL()
     {
         Request request = prepareGet()
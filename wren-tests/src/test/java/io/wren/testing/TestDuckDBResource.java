@@ -18,7 +18,15 @@ import com.google.common.collect.ImmutableMap;
 import com.google.inject.Key;
 import io.wren.base.dto.Manifest;
 import io.wren.main.connector.duckdb.DuckDBMetadata;
+import io.wren.main.web.dto.ColumnarQueryResultDto;
+import io.wren.main.web.dto.ColumnarQueryResultDto.DictionaryVector;
+import io.wren.main.web.dto.ColumnarQueryResultDto.DoubleVector;
+import io.wren.main.web.dto.ColumnarQueryResultDto.LongVector;
+import io.wren.main.web.dto.ColumnarQueryResultDto.ObjectVector;
 import io.wren.main.web.dto.QueryResultDto;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
@@ -33,11 +41,17 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import static io.wren.base.Utils.sqlHash;
 import static io.wren.base.client.duckdb.DuckDBConnectorConfig.DUCKDB_CONNECTOR_INIT_SQL_PATH;
 import static io.wren.base.client.duckdb.DuckDBConnectorConfig.DUCKDB_CONNECTOR_SESSION_SQL_PATH;
 import static io.wren.base.config.WrenConfig.DataSourceType.DUCKDB;
 import static io.wren.base.dto.Manifest.MANIFEST_JSON_CODEC;
+import static io.wren.base.metadata.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.wren.main.web.WrenMediaType.APPLICATION_COLUMNAR_JSON;
+import static io.wren.main.web.WrenMediaType.APPLICATION_COLUMNAR_SMILE;
+import static io.wren.main.web.WrenMediaType.APPLICATION_NDJSON;
 import static io.wren.testing.WebApplicationExceptionAssert.assertWebApplicationException;
+import static java.lang.String.format;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
@@ -214,6 +228,24 @@ public class TestDuckDBResource
                 .hasErrorMessageMatches(".*Parser Error: syntax error at or near \"xxx\"");
     }
 
+    @Test
+    public void testQueryWithInvalidSQLInNdjson()
+    {
+        assertWebApplicationException(() -> queryDuckDBInNdjson(INVALID_SQL))
+                .hasHTTPStatus(500)
+                .hasErrorCode(GENERIC_INTERNAL_ERROR)
+                .hasErrorMessageMatches(".*Parser Error: syntax error at or near \"xxx\"");
+    }
+
+    @Test
+    public void testQueryWithInvalidSQLInArrow()
+    {
+        assertWebApplicationException(() -> queryDuckDBInArrow(INVALID_SQL))
+                .hasHTTPStatus(500)
+                .hasErrorCode(GENERIC_INTERNAL_ERROR)
+                .hasErrorMessageMatches(".*Parser Error: syntax error at or near \"xxx\"");
+    }
+
     @Test
     public void testQuery()
     {
@@ -226,6 +258,83 @@ public class TestDuckDBResource
                 .isEqualTo(new String[] {"customer"});
     }
 
+    @Test
+    public void testQueryInNdjson()
+    {
+        assertThatCode(() -> setDuckDBInitSQL(INIT_SQL_1)).doesNotThrowAnyException();
+
+        assertThat(queryDuckDBInNdjson(SHOW_TABLES_SQL))
+                .extracting(QueryResultDto::getData)
+                .asList().containsExactly((Object) new String[] {"customer"});
+    }
+
+    @Test
+    public void testQueryInArrow()
+    {
+        assertThatCode(() -> setDuckDBInitSQL(INIT_SQL_1)).doesNotThrowAnyException();
+
+        assertThat(queryDuckDBInArrow(SHOW_TABLES_SQL))
+                .extracting(QueryResultDto::getData)
+                .asList().containsExactly((Object) new String[] {"customer"});
+    }
+
+    @Test
+    public void testQueryInArrowEvent()
+            throws IOException
+    {
+        String sql = "SELECT * FROM range(10)";
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("io.wren.Query").withoutThreshold();
+            recording.start();
+            assertThat(queryDuckDBInArrow(sql).getData()).hasSize(10);
+            recording.stop();
+            Path file = Files.createTempFile("wren", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            }
+            finally {
+                Files.delete(file);
+            }
+        }
+
+        // the event is committed by the server when the result is closed, so it's found by the hash of the sql
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals("io.wren.Query"))
+                .filteredOn(event -> sqlHash(sql).equals(event.getString("sqlHash")))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getLong("rowCount")).isEqualTo(10);
+                    assertThat(event.getDuration("poolWaitTime")).isPositive();
+                    assertThat(event.getString("connectionId")).isNotEmpty();
+                });
+    }
+
+    @Test
+    public void testQueryColumnar()
+    {
+        String sql = "SELECT range AS id, CAST(CASE WHEN range % 3 = 0 THEN NULL ELSE range * 1.5 END AS DOUBLE) AS price, 'name_' || (range % 2) AS name, DATE '2024-01-01' AS day FROM range(10)";
+        List<List<String>> expected = toStrings(queryDuckDB(sql).getData());
+        for (String mediaType : List.of(APPLICATION_COLUMNAR_JSON, APPLICATION_COLUMNAR_SMILE)) {
+            ColumnarQueryResultDto result = queryDuckDBColumnar(sql, mediaType);
+            assertThat(result.getRowCount()).isEqualTo(10);
+            assertThat(result.getData()).hasExactlyElementsOfTypes(LongVector.class, DoubleVector.class, DictionaryVector.class, ObjectVector.class);
+            assertThat(((DictionaryVector) result.getData().get(2)).getDictionary()).containsExactly("name_0", "name_1");
+            assertThat(toStrings(result.toRows())).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testQueryInPreferredMediaType()
+    {
+        String sql = "SELECT range AS id FROM range(3)";
+        // NDJSON is preferred by the server but not by the q-value of the client
+        assertThat(queryDuckDBColumnar(sql, format("%s;q=0.5, %s", APPLICATION_NDJSON, APPLICATION_COLUMNAR_JSON), APPLICATION_COLUMNAR_JSON).getRowCount()).isEqualTo(3);
+        // the first of the media types of the same q-value
+        assertThat(queryDuckDBColumnar(sql, format("%s, %s", APPLICATION_COLUMNAR_SMILE, APPLICATION_COLUMNAR_JSON), APPLICATION_COLUMNAR_SMILE).getRowCount()).isEqualTo(3);
+    }
+
     @Test(description = "We don't promote sending DDL via query API, but we don't have sql parser to validate the syntax.")
     public void testInsert()
     {
@@ -241,4 +350,28 @@ public class TestDuckDBResource
                 .asList().element(0)
                 .isEqualTo(new String[] {"customer"});
     }
+
+    @Test
+    public void testInsertInNdjson()
+    {
+        assertThat(queryDuckDBInNdjson(INIT_SQL_1))
+                .extracting(QueryResultDto::getData)
+                .asList().isEmpty();
+
+        assertThat(queryDuckDB(SHOW_TABLES_SQL))
+                .extracting(QueryResultDto::getData)
+                .asList().containsExactly((Object) new String[] {"customer"});
+    }
+
+    @Test
+    public void testInsertInArrow()
+    {
+        assertThat(queryDuckDBInArrow(INIT_SQL_1))
+                .extracting(QueryResultDto::getData)
+                .asList().isEmpty();
+
+        assertThat(queryDuckDB(SHOW_TABLES_SQL))
+                .extracting(QueryResultDto::getData)
+                .asList().containsExactly((Object) new String[] {"customer"});
+    }
 }
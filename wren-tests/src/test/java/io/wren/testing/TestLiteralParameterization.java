@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.testing;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.airlift.json.JsonCodec;
+import io.wren.base.dto.Manifest;
+import io.wren.main.PlanCache;
+import io.wren.main.web.dto.DryPlanDtoV2;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.List;
+
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.wren.base.config.WrenConfig.DataSourceType.DUCKDB;
+import static io.wren.base.config.WrenConfig.WREN_DATASOURCE_TYPE;
+import static io.wren.base.config.WrenConfig.WREN_DIRECTORY;
+import static io.wren.base.config.WrenConfig.WREN_ENABLE_AST_RULE_CHAINING;
+import static io.wren.base.dto.Column.column;
+import static io.wren.base.dto.Model.model;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestLiteralParameterization
+        extends RequireWrenServer
+{
+    private static final JsonCodec<Manifest> MANIFEST_JSON_CODEC = jsonCodec(Manifest.class);
+
+    private final String manifestStr = base64Encode(MANIFEST_JSON_CODEC.toJson(Manifest.builder()
+            .setCatalog("wrenai")
+            .setSchema("tpch")
+            .setModels(List.of(
+                    model("Customer", "SELECT * FROM tpch.customer",
+                            List.of(column("custkey", "integer", null, false, "c_custkey"),
+                                    column("name", "varchar", null, false, "c_name")))))
+            .build()));
+
+    @Override
+    protected TestingWrenServer createWrenServer()
+            throws Exception
+    {
+        ImmutableMap.Builder<String, String> properties = ImmutableMap.<String, String>builder()
+                .put(WREN_DIRECTORY, Files.createTempDirectory("mdl").toAbsolutePath().toString())
+                .put(WREN_DATASOURCE_TYPE, DUCKDB.name())
+                // the literals are parameterized only with the ast rule chaining
+                .put(WREN_ENABLE_AST_RULE_CHAINING, "true");
+        return TestingWrenServer.builder()
+                .setRequiredConfigs(properties.build())
+                .build();
+    }
+
+    @Override
+    protected void prepare()
+    {
+        initDuckDB();
+    }
+
+    @Test
+    public void testShareTemplate()
+    {
+        PlanCache planCache = server().getInstance(Key.get(PlanCache.class));
+
+        String first = dryPlanV2(new DryPlanDtoV2(manifestStr, "select custkey from Customer where name = 'Bob' limit 10"));
+        long missCount = planCache.getStats().missCount();
+        long templateHitCount = planCache.getTemplateStats().hitCount();
+        String second = dryPlanV2(new DryPlanDtoV2(manifestStr, "select custkey from Customer where name = 'BOB' limit 20"));
+        assertThat(planCache.getStats().missCount()).isGreaterThan(missCount);
+        assertThat(planCache.getTemplateStats().hitCount()).isGreaterThan(templateHitCount);
+        assertThat(second).isEqualTo(first.replace("'Bob'", "'BOB'").replace("LIMIT 10", "LIMIT 20"));
+    }
+
+    private static String base64Encode(String str)
+    {
+        return Base64.getEncoder().encodeToString(str.getBytes(UTF_8));
+    }
+}
@@ -15,11 +15,14 @@
 package io.wren.testing;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
 import io.wren.base.dto.Column;
 import io.wren.base.dto.JoinType;
 import io.wren.base.dto.Manifest;
+import io.wren.main.PlanCache;
 import io.wren.main.validation.ColumnIsValid;
 import io.wren.main.validation.ValidationResult;
+import io.wren.main.web.dto.ColumnarQueryResultDto;
 import io.wren.main.web.dto.DryPlanDto;
 import io.wren.main.web.dto.PreviewDto;
 import io.wren.main.web.dto.QueryResultDto;
@@ -36,6 +39,8 @@ import static io.wren.base.dto.Column.column;
 import static io.wren.base.dto.Model.model;
 import static io.wren.base.dto.Relationship.relationship;
 import static io.wren.main.validation.ColumnIsValid.COLUMN_IS_VALID;
+import static io.wren.main.web.WrenMediaType.APPLICATION_COLUMNAR_JSON;
+import static io.wren.main.web.WrenMediaType.APPLICATION_COLUMNAR_SMILE;
 import static io.wren.testing.WebApplicationExceptionAssert.assertWebApplicationException;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -96,10 +101,107 @@ public class TestMDLResource
         assertThat(preview2.getData().size()).isEqualTo(150);
         assertThat(preview2.getColumns().size()).isEqualTo(1);
 
+        assertThat(preview(new PreviewDto(previewManifest, "select custkey from Customer limit 20", null)).getData()).hasSize(20);
+        assertThat(preview(new PreviewDto(previewManifest, "select custkey from Customer order by custkey offset 10", 5L)).getData())
+                .containsExactly(new Object[] {11}, new Object[] {12}, new Object[] {13}, new Object[] {14}, new Object[] {15});
+        assertThat(preview(new PreviewDto(previewManifest, "select custkey from Customer fetch first 200 rows only", 10L)).getData()).hasSize(10);
+
         assertWebApplicationException(() -> preview(new PreviewDto(previewManifest, "select orderkey from Orders limit 100", null)))
                 .hasErrorMessageMatches(".*Orders does not exist.*\n.*\n.*\n.*");
     }
 
+    @Test
+    public void testPreviewInNdjson()
+    {
+        Manifest previewManifest = Manifest.builder()
+                .setCatalog("wrenai")
+                .setSchema("tpch")
+                .setModels(List.of(
+                        model("Customer", "SELECT * FROM tpch.customer",
+                                List.of(column("custkey", "integer", null, false, "c_custkey"),
+                                        column("name", "varchar", null, false, "c_name")))))
+                .build();
+
+        PreviewDto previewDto = new PreviewDto(previewManifest, "select custkey, name from Customer order by custkey", 150L);
+        QueryResultDto expected = preview(previewDto);
+        QueryResultDto streamed = previewInNdjson(previewDto);
+        assertThat(streamed.getColumns()).isEqualTo(expected.getColumns());
+        assertThat(streamed.getData()).hasSize(150).containsExactlyElementsOf(expected.getData());
+
+        assertThat(previewInNdjson(new PreviewDto(previewManifest, "select custkey from Customer", null)).getData()).hasSize(100);
+
+        assertWebApplicationException(() -> previewInNdjson(new PreviewDto(previewManifest, "select orderkey from Orders limit 100", null)))
+                .hasErrorMessageMatches("(?s).*Orders does not exist.*");
+    }
+
+    @Test
+    public void testPreviewInArrow()
+    {
+        Manifest previewManifest = Manifest.builder()
+                .setCatalog("wrenai")
+                .setSchema("tpch")
+                .setModels(List.of(
+                        model("Customer", "SELECT * FROM tpch.customer",
+                                List.of(column("custkey", "integer", null, false, "c_custkey"),
+                                        column("name", "varchar", null, false, "c_name")))))
+                .build();
+
+        PreviewDto previewDto = new PreviewDto(previewManifest, "select custkey, name from Customer order by custkey", 150L);
+        QueryResultDto streamed = previewInArrow(previewDto);
+        assertThat(streamed.getColumns()).extracting("name").containsExactly("custkey", "name");
+        assertThat(streamed.getData()).hasSize(150).containsExactlyElementsOf(preview(previewDto).getData());
+
+        assertThat(previewInArrow(new PreviewDto(previewManifest, "select custkey from Customer", null)).getData()).hasSize(100);
+
+        assertWebApplicationException(() -> previewInArrow(new PreviewDto(previewManifest, "select orderkey from Orders limit 100", null)))
+                .hasErrorMessageMatches("(?s).*Orders does not exist.*");
+    }
+
+    @Test
+    public void testPreviewColumnar()
+    {
+        Manifest previewManifest = Manifest.builder()
+                .setCatalog("wrenai")
+                .setSchema("tpch")
+                .setModels(List.of(
+                        model("Customer", "SELECT * FROM tpch.customer",
+                                List.of(column("custkey", "integer", null, false, "c_custkey"),
+                                        column("name", "varchar", null, false, "c_name"),
+                                        column("mktsegment", "varchar", null, false, "c_mktsegment")))))
+                .build();
+
+        PreviewDto previewDto = new PreviewDto(previewManifest, "select custkey, name, mktsegment from Customer order by custkey", 150L);
+        List<List<String>> expected = toStrings(preview(previewDto).getData());
+        for (String mediaType : List.of(APPLICATION_COLUMNAR_JSON, APPLICATION_COLUMNAR_SMILE)) {
+            ColumnarQueryResultDto result = previewColumnar(previewDto, mediaType);
+            assertThat(result.getColumns()).extracting("name").containsExactly("custkey", "name", "mktsegment");
+            assertThat(result.getRowCount()).isEqualTo(150);
+            assertThat(toStrings(result.toRows())).isEqualTo(expected);
+            // the market segments are repeated
+            assertThat(((ColumnarQueryResultDto.DictionaryVector) result.getData().get(2)).getDictionary()).hasSize(5);
+        }
+
+        assertWebApplicationException(() -> previewColumnar(new PreviewDto(previewManifest, "select orderkey from Orders limit 100", null), APPLICATION_COLUMNAR_JSON))
+                .hasErrorMessageMatches("(?s).*Orders does not exist.*");
+    }
+
+    @Test
+    public void testNoTemplateWithoutAstRuleChaining()
+    {
+        PlanCache planCache = server().getInstance(Key.get(PlanCache.class));
+        dryPlan(new DryPlanDto(manifest, "select orderkey from Orders where orderkey = 1", false));
+        dryPlan(new DryPlanDto(manifest, "select orderkey from Orders where orderkey = 2", false));
+        // the rules are chained on the formatted sql, so the template isn't rewritten on the tree
+        assertThat(planCache.getTemplateStats().requestCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testDryPlanInSmile()
+    {
+        DryPlanDto dryPlanDto = new DryPlanDto(manifest, "select orderkey from Orders limit 200", false);
+        assertThat(dryPlanInSmile(dryPlanDto)).isEqualTo(dryPlan(dryPlanDto));
+    }
+
     @Test
     public void testDryRunAndDryPlan()
     {
@@ -15,16 +15,24 @@
 package io.wren.testing;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
 import io.airlift.json.JsonCodec;
 import io.wren.base.dto.JoinType;
 import io.wren.base.dto.Manifest;
+import io.wren.base.dto.ManifestDelta;
+import io.wren.base.dto.Model;
+import io.wren.base.dto.Relationship;
+import io.wren.main.AnalyzedMDLCache;
+import io.wren.main.PlanCache;
 import io.wren.main.web.dto.DryPlanDtoV2;
+import io.wren.main.web.dto.ManifestDeltaInputDto;
 import org.testng.annotations.Test;
 
 import java.nio.file.Files;
 import java.util.Base64;
 import java.util.List;
 
+import static com.google.common.hash.Hashing.sha256;
 import static io.airlift.json.JsonCodec.jsonCodec;
 import static io.wren.base.config.WrenConfig.DataSourceType.DUCKDB;
 import static io.wren.base.config.WrenConfig.WREN_DATASOURCE_TYPE;
@@ -34,6 +42,7 @@ import static io.wren.base.dto.Column.caluclatedColumn;
 import static io.wren.base.dto.Column.column;
 import static io.wren.base.dto.Model.model;
 import static io.wren.base.dto.Relationship.relationship;
+import static io.wren.testing.WebApplicationExceptionAssert.assertWebApplicationException;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -192,6 +201,133 @@ public class TestMDLResourceV2
                 """);
     }
 
+    @Test
+    public void testAnalyzedMDLCache()
+    {
+        Manifest manifest = Manifest.builder()
+                .setCatalog("wrenai")
+                .setSchema("cache")
+                .setModels(List.of(
+                        model("Customer", "SELECT * FROM tpch.customer",
+                                List.of(column("custkey", "integer", null, false, "c_custkey"),
+                                        column("name", "varchar", null, false, "c_name")))))
+                .build();
+        String manifestStr = base64Encode(toJson(manifest));
+        AnalyzedMDLCache analyzedMDLCache = server().getInstance(Key.get(AnalyzedMDLCache.class));
+
+        String first = dryPlanV2(new DryPlanDtoV2(manifestStr, "select custkey from Customer"));
+        long hitCount = analyzedMDLCache.getStats().hitCount();
+        String second = dryPlanV2(new DryPlanDtoV2(manifestStr, "select custkey from Customer"));
+        assertThat(second).isEqualTo(first);
+        assertThat(analyzedMDLCache.getStats().hitCount()).isGreaterThan(hitCount);
+        assertThat(analyzedMDLCache.get(manifestStr)).isSameAs(analyzedMDLCache.get(manifestStr));
+    }
+
+    @Test
+    public void testPlanCache()
+    {
+        Manifest manifest = Manifest.builder()
+                .setCatalog("wrenai")
+                .setSchema("plan_cache")
+                .setModels(List.of(
+                        model("Customer", "SELECT * FROM tpch.customer",
+                                List.of(column("custkey", "integer", null, false, "c_custkey"),
+                                        column("name", "varchar", null, false, "c_name")))))
+                .build();
+        String manifestStr = base64Encode(toJson(manifest));
+        PlanCache planCache = server().getInstance(Key.get(PlanCache.class));
+
+        String first = dryPlanV2(new DryPlanDtoV2(manifestStr, "select custkey from Customer where name = 'Bob'"));
+        long hitCount = planCache.getStats().hitCount();
+        String second = dryPlanV2(new DryPlanDtoV2(manifestStr, "SELECT  custkey\n  FROM Customer -- comment\n WHERE name = 'Bob'"));
+        assertThat(second).isEqualTo(first);
+        assertThat(planCache.getStats().hitCount()).isGreaterThan(hitCount);
+
+        // the literal is case-sensitive
+        long missCount = planCache.getStats().missCount();
+        String third = dryPlanV2(new DryPlanDtoV2(manifestStr, "select custkey from Customer where name = 'BOB'"));
+        assertThat(third).isNotEqualTo(first);
+        assertThat(planCache.getStats().missCount()).isGreaterThan(missCount);
+        assertThat(third).contains("'BOB'");
+    }
+
+    @Test
+    public void testDecodeManifest()
+    {
+        Manifest manifest = Manifest.builder()
+                .setCatalog("wrenai")
+                .setSchema("decode")
+                .setModels(List.of(
+                        model("Customer", "SELECT *, '顧客' AS label FROM tpch.customer",
+                                List.of(column("custkey", "integer", null, false, "c_custkey"),
+                                        column("label", "varchar", null, false, "label")))))
+                .build();
+        String dryPlan = dryPlanV2(new DryPlanDtoV2(base64Encode(toJson(manifest)), "select label from Customer"));
+        // the formatter writes non-ASCII literals as unicode escapes
+        assertThat(dryPlan).contains("U&'\\9867\\5BA2' label");
+
+        // the manifest in smile
+        String smileManifestStr = Base64.getEncoder().encodeToString(toSmile(manifest));
+        assertThat(dryPlanV2(new DryPlanDtoV2(smileManifestStr, "select label from Customer"))).isEqualTo(dryPlan);
+
+        assertWebApplicationException(() -> dryPlanV2(new DryPlanDtoV2("not-base64!", "select 1")))
+                .hasHTTPStatus(400)
+                .hasErrorMessageMatches("Invalid manifest: .*Illegal base64 character.*");
+        assertWebApplicationException(() -> dryPlanV2(new DryPlanDtoV2(base64Encode("{\"catalog\": "), "select 1")))
+                .hasHTTPStatus(400)
+                .hasErrorMessageMatches("(?s)Invalid manifest: .*");
+    }
+
+    @Test
+    public void testManifestDelta()
+    {
+        Model customer = model("Customer", "SELECT * FROM tpch.customer",
+                List.of(column("custkey", "integer", null, false, "c_custkey"),
+                        column("name", "varchar", null, false, "c_name")));
+        Manifest manifest = Manifest.builder()
+                .setCatalog("wrenai")
+                .setSchema("delta")
+                .setModels(List.of(customer))
+                .build();
+        String manifestStr = base64Encode(toJson(manifest));
+        String customerPlan = dryPlanV2(new DryPlanDtoV2(manifestStr, "select name from Customer"));
+        String baseFingerprint = sha256().hashString(manifestStr, UTF_8).toString();
+        assertThat(dryPlanV2(new DryPlanDtoV2(null, baseFingerprint, "select name from Customer"))).isEqualTo(customerPlan);
+
+        Model orders = model("Orders", "SELECT * FROM tpch.orders",
+                List.of(column("orderkey", "integer", null, false, "o_orderkey"),
+                        column("custkey", "integer", null, false, "o_custkey"),
+                        column("customer", "Customer", "CustomerOrders", false),
+                        caluclatedColumn("customer_name", "varchar", "customer.name")),
+                "orderkey");
+        Relationship customerOrders = relationship("CustomerOrders", List.of("Customer", "Orders"), JoinType.ONE_TO_MANY, "Customer.custkey = Orders.custkey");
+        ManifestDelta delta = ManifestDelta.builder()
+                .setModels(List.of(orders))
+                .setRelationships(List.of(customerOrders))
+                .build();
+        String fingerprint = applyManifestDelta(new ManifestDeltaInputDto(baseFingerprint, delta)).getFingerprint();
+        assertThat(fingerprint).isNotEqualTo(baseFingerprint);
+        // the same delta results in the same fingerprint
+        assertThat(applyManifestDelta(new ManifestDeltaInputDto(baseFingerprint, delta)).getFingerprint()).isEqualTo(fingerprint);
+
+        String fullManifestStr = base64Encode(toJson(Manifest.builder(manifest)
+                .setModels(List.of(customer, orders))
+                .setRelationships(List.of(customerOrders))
+                .build()));
+        assertThat(dryPlanV2(new DryPlanDtoV2(null, fingerprint, "select customer_name from Orders")))
+                .isEqualTo(dryPlanV2(new DryPlanDtoV2(fullManifestStr, "select customer_name from Orders")));
+        assertThat(dryPlanV2(new DryPlanDtoV2(null, fingerprint, "select name from Customer"))).isEqualTo(customerPlan);
+
+        assertWebApplicationException(() -> applyManifestDelta(new ManifestDeltaInputDto("not-found", delta)))
+                .hasHTTPStatus(404)
+                .hasErrorMessageMatches(".*not-found not found.*");
+        assertWebApplicationException(() -> dryPlanV2(new DryPlanDtoV2(null, "not-found", "select 1")))
+                .hasHTTPStatus(404);
+        assertWebApplicationException(() -> applyManifestDelta(new ManifestDeltaInputDto(baseFingerprint, ManifestDelta.builder().setRemovedModels(List.of("Lineitem")).build())))
+                .hasHTTPStatus(400)
+                .hasErrorMessageMatches("model not found: Lineitem");
+    }
+
     private String toJson(Manifest manifest)
     {
         return MANIFEST_JSON_CODEC.toJson(manifest);
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.testing;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.StringResponseHandler;
+import io.wren.base.dto.Manifest;
+import io.wren.main.web.dto.DistributionDto;
+import io.wren.main.web.dto.DryPlanDtoV2;
+import io.wren.main.web.dto.MetricsDto;
+import io.wren.main.web.dto.PreviewDto;
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.List;
+
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static io.airlift.http.client.JsonBodyGenerator.jsonBodyGenerator;
+import static io.airlift.http.client.Request.Builder.prepareGet;
+import static io.airlift.http.client.StringResponseHandler.createStringResponseHandler;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.wren.base.config.WrenConfig.DataSourceType.DUCKDB;
+import static io.wren.base.config.WrenConfig.WREN_DATASOURCE_TYPE;
+import static io.wren.base.config.WrenConfig.WREN_DIRECTORY;
+import static io.wren.base.config.WrenConfig.WREN_SERVER_TIMING_ENABLED;
+import static io.wren.base.dto.Column.column;
+import static io.wren.base.dto.Model.model;
+import static io.wren.main.PhaseTimings.SERVER_TIMING;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestMetricsResource
+        extends RequireWrenServer
+{
+    private static final Manifest MANIFEST = Manifest.builder()
+            .setCatalog("wrenai")
+            .setSchema("tpch")
+            .setModels(List.of(
+                    model("Customer", "SELECT * FROM tpch.customer",
+                            List.of(column("custkey", "integer", null, false, "c_custkey"),
+                                    column("name", "varchar", null, false, "c_name")))))
+            .build();
+
+    @Override
+    protected TestingWrenServer createWrenServer()
+            throws Exception
+    {
+        ImmutableMap.Builder<String, String> properties = ImmutableMap.<String, String>builder()
+                .put(WREN_DIRECTORY, Files.createTempDirectory("mdl").toAbsolutePath().toString())
+                .put(WREN_DATASOURCE_TYPE, DUCKDB.name())
+                .put(WREN_SERVER_TIMING_ENABLED, "true");
+        return TestingWrenServer.builder()
+                .setRequiredConfigs(properties.build())
+                .build();
+    }
+
+    @Test
+    public void testMetrics()
+            throws Exception
+    {
+        String manifestStr = Base64.getEncoder().encodeToString(jsonCodec(Manifest.class).toJson(MANIFEST).getBytes(UTF_8));
+        Request request = prepareGet()
+                .setUri(server().getHttpServerBasedUrl().resolve("/v2/mdl/dry-plan"))
+                .setHeader(CONTENT_TYPE, "application/json")
+                .setBodyGenerator(jsonBodyGenerator(jsonCodec(DryPlanDtoV2.class), new DryPlanDtoV2(manifestStr, "select name from Customer")))
+                .build();
+        StringResponseHandler.StringResponse response = executeHttpRequest(request, createStringResponseHandler());
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getHeader(SERVER_TIMING))
+                .contains("parse;dur=")
+                .contains("analysis;dur=")
+                .contains("WrenSqlRewrite;dur=")
+                .contains("format;dur=");
+
+        MetricsDto metrics = getMetrics();
+        assertThat(metrics.getPhases()).containsKeys("parse", "analysis", "GenerateViewRewrite", "MetricRollupRewrite", "WrenSqlRewrite", "EnumRewrite", "format");
+        assertThat(metrics.getPhases().get("WrenSqlRewrite").getCount()).isGreaterThanOrEqualTo(1);
+        assertThat(metrics.getEndpoints()).containsKey("MDLResourceV2.dryPlan");
+        assertThat(metrics.getEndpoints().get("MDLResourceV2.dryPlan").getCount()).isEqualTo(1);
+
+        MBeanServer mbeanServer = getInstance(Key.get(MBeanServer.class));
+        assertThat(mbeanServer.getAttribute(new ObjectName("io.wren.main:type=PlannerStats,name=WrenSqlRewrite"), "AllTime.Count")).isNotEqualTo(0.0);
+        assertThat(mbeanServer.queryNames(new ObjectName("io.wren.main:type=EndpointStats,*"), null)).isNotEmpty();
+    }
+
+    @Test
+    public void testStreamedPreviewRows()
+    {
+        Manifest manifest = Manifest.builder()
+                .setCatalog("wrenai")
+                .setSchema("tpch")
+                .setModels(List.of(
+                        model("Numbers", "SELECT * FROM (VALUES (1), (2), (3)) t(n)",
+                                List.of(column("n", "integer", null, false)))))
+                .build();
+        MetricsDto before = getMetrics();
+        assertThat(previewInNdjson(new PreviewDto(manifest, "SELECT n FROM Numbers", 2L)).getData()).hasSize(2);
+        assertThat(previewInArrow(new PreviewDto(manifest, "SELECT n FROM Numbers", 100L)).getData()).hasSize(3);
+
+        // the rows are fetched after the response is sent, so they are recorded when the stream is written
+        MetricsDto after = getMetrics();
+        assertThat(after.getPhases().get("fetch").getCount()).isEqualTo(fetchCount(before) + 2);
+        assertThat(after.getPreviewRows().getCount()).isEqualTo(before.getPreviewRows().getCount() + 2);
+        assertThat(after.getPreviewRows().getMax()).isGreaterThanOrEqualTo(3);
+    }
+
+    private static long fetchCount(MetricsDto metrics)
+    {
+        DistributionDto fetch = metrics.getPhases().get("fetch");
+        return fetch == null ? 0 : fetch.getCount();
+    }
+}